@@ -64,6 +64,11 @@ android {
         jvmTarget = "11"
     }
 
+    testOptions {
+        // Local tests cover plain logic; framework calls such as Log return defaults instead of throwing
+        unitTests.isReturnDefaultValues = true
+    }
+
     packaging {
         resources {
             excludes += "/META-INF/INDEX.LIST"
@@ -87,12 +92,20 @@ dependencies {
     implementation("com.google.guava:guava:33.5.0-android")
     implementation("org.jetbrains.kotlinx:kotlinx-coroutines-android:1.7.3")
     implementation("com.google.android.gms:play-services-location:21.3.0")
+    implementation("androidx.lifecycle:lifecycle-viewmodel:2.9.4")
+    implementation("androidx.lifecycle:lifecycle-livedata:2.9.4")
+    implementation("androidx.work:work-runtime:2.10.5")
     
     // Glide for efficient image loading and caching
     implementation("com.github.bumptech.glide:glide:4.16.0")
     annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false
+    }
     
     testImplementation(libs.junit)
+    // Real org.json for local tests, android.jar only has stubs
+    testImplementation(libs.json)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
@@ -0,0 +1,209 @@
+package com.example.infrastructureproject;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classifies many images with few model requests, for backlog jobs such as
+ * re-tagging old tickets. Images are packed {@link #BATCH_SIZE} to a request
+ * through {@link GeminiService#classifyImages}. At most
+ * {@link #MAX_CONCURRENT_REQUESTS} requests are in flight, request starts are
+ * spaced to stay under the API's per-minute quota, and a 429 answer pauses
+ * every batch with exponential backoff before the same batch is retried.
+ *
+ * Listener callbacks run on the main thread.
+ */
+public class BatchClassificationScheduler {
+    private static final String TAG = "BatchClassification";
+
+    public static final int BATCH_SIZE = 4;
+    private static final int MAX_CONCURRENT_REQUESTS = 2;
+    // 15 requests per minute, the free tier limit for the classification model
+    private static final long MIN_REQUEST_INTERVAL_MS = 4_000;
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 120_000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Semaphore requestPermits = new Semaphore(MAX_CONCURRENT_REQUESTS);
+    private static final Random jitter = new Random();
+    // Earliest time the next request may start, shared by all batches
+    private static long nextRequestAt = 0;
+
+    public interface ImageSource {
+        // Model-sized JPEG bytes; called on a background thread
+        byte[] load() throws Exception;
+    }
+
+    public static class Item {
+        final String id;
+        final ImageSource source;
+
+        public Item(String id, ImageSource source) {
+            this.id = id;
+            this.source = source;
+        }
+    }
+
+    public interface Listener {
+        void onResult(String id, String resultJson);
+        void onFailed(String id, String message);
+        void onFinished(int classified, int failed);
+    }
+
+    private BatchClassificationScheduler() {
+    }
+
+    /**
+     * Source for an image already stored at a URL, e.g. a ticket's medium rendition.
+     */
+    public static ImageSource fromUrl(String url) {
+        return () -> {
+            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+            conn.setConnectTimeout(15_000);
+            conn.setReadTimeout(30_000);
+            try {
+                int code = conn.getResponseCode();
+                if (code < 200 || code >= 300) {
+                    throw new IOException("HTTP " + code);
+                }
+                try (InputStream in = conn.getInputStream()) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    return out.toByteArray();
+                }
+            } finally {
+                conn.disconnect();
+            }
+        };
+    }
+
+    public static void classifyAll(List<Item> items, String prompt, Map<String, Object> itemSchema,
+                                   Listener listener) {
+        if (items.isEmpty()) {
+            mainHandler.post(() -> listener.onFinished(0, 0));
+            return;
+        }
+        int batchCount = (items.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        AtomicInteger remainingBatches = new AtomicInteger(batchCount);
+        AtomicInteger classified = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        for (int start = 0; start < items.size(); start += BATCH_SIZE) {
+            List<Item> batch = new ArrayList<>(items.subList(start, Math.min(start + BATCH_SIZE, items.size())));
+            executor.execute(() -> {
+                runBatch(batch, prompt, itemSchema, listener, classified, failed);
+                if (remainingBatches.decrementAndGet() == 0) {
+                    mainHandler.post(() -> listener.onFinished(classified.get(), failed.get()));
+                }
+            });
+        }
+    }
+
+    private static void runBatch(List<Item> batch, String prompt, Map<String, Object> itemSchema,
+                                 Listener listener, AtomicInteger classified, AtomicInteger failed) {
+        // Load before taking a permit, downloads shouldn't hold up requests
+        List<Item> loaded = new ArrayList<>(batch.size());
+        List<byte[]> images = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            try {
+                images.add(item.source.load());
+                loaded.add(item);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load image for " + item.id, e);
+                failed.incrementAndGet();
+                mainHandler.post(() -> listener.onFailed(item.id, "Could not load image: " + e.getMessage()));
+            }
+        }
+        if (loaded.isEmpty()) return;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                requestPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(loaded, "Interrupted", listener, failed);
+                return;
+            }
+            try {
+                awaitRequestSlot();
+                List<String> results = GeminiService.classifyImages(images, "image/jpeg", prompt, itemSchema);
+                for (int i = 0; i < loaded.size(); i++) {
+                    String id = loaded.get(i).id;
+                    String result = results.get(i);
+                    if (result != null) {
+                        classified.incrementAndGet();
+                        mainHandler.post(() -> listener.onResult(id, result));
+                    } else {
+                        failed.incrementAndGet();
+                        mainHandler.post(() -> listener.onFailed(id, "No result for this image"));
+                    }
+                }
+                return;
+            } catch (Exception e) {
+                if (!isRateLimited(e) || attempt >= MAX_ATTEMPTS) {
+                    Log.e(TAG, "Batch failed", e);
+                    failAll(loaded, e.getMessage(), listener, failed);
+                    return;
+                }
+                long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+                backoff += jitter.nextInt((int) (backoff / 4) + 1);
+                Log.w(TAG, "Rate limited, pausing batches for " + backoff + "ms");
+                pauseRequests(backoff);
+            } finally {
+                requestPermits.release();
+            }
+        }
+    }
+
+    // Block until this request may start, then reserve the next slot
+    private static void awaitRequestSlot() throws InterruptedException {
+        long wait;
+        synchronized (BatchClassificationScheduler.class) {
+            long now = SystemClock.elapsedRealtime();
+            long startAt = Math.max(now, nextRequestAt);
+            nextRequestAt = startAt + MIN_REQUEST_INTERVAL_MS;
+            wait = startAt - now;
+        }
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+    }
+
+    private static synchronized void pauseRequests(long millis) {
+        nextRequestAt = Math.max(nextRequestAt, SystemClock.elapsedRealtime() + millis);
+    }
+
+    private static boolean isRateLimited(Exception e) {
+        String message = e.getMessage();
+        return message != null && (message.contains("429") || message.contains("RESOURCE_EXHAUSTED"));
+    }
+
+    private static void failAll(List<Item> items, String message, Listener listener, AtomicInteger failed) {
+        for (Item item : items) {
+            failed.incrementAndGet();
+            mainHandler.post(() -> listener.onFailed(item.id, message));
+        }
+    }
+}
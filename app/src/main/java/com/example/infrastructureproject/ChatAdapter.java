@@ -6,16 +6,56 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder> {
 
-    protected final List<ChatMessage> chatMessage;
+    // notifyItemChanged payload: only the text changed, rebind it without the change animation
+    public static final Object PAYLOAD_TEXT = new Object();
 
-    public ChatAdapter(List<ChatMessage> chatMessage) {
-        this.chatMessage = chatMessage;
+    protected final List<ChatMessage> chatMessage = new ArrayList<>();
+
+    public ChatAdapter() {
+        setHasStableIds(true);
+    }
+
+    /**
+     * Show a new snapshot of the conversation. Only the rows that were added,
+     * removed or changed are updated, so prepending an older page keeps the
+     * visible rows in place.
+     */
+    public void submitMessages(List<ChatMessage> messages) {
+        List<ChatMessage> oldMessages = new ArrayList<>(chatMessage);
+        List<ChatMessage> newMessages = new ArrayList<>(messages);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldMessages.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newMessages.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return oldMessages.get(oldItemPosition).getId() == newMessages.get(newItemPosition).getId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                // Streamed text is pushed with PAYLOAD_TEXT as it changes
+                return oldMessages.get(oldItemPosition) == newMessages.get(newItemPosition);
+            }
+        });
+        chatMessage.clear();
+        chatMessage.addAll(newMessages);
+        diff.dispatchUpdatesTo(this);
     }
 
     @NonNull
@@ -32,11 +72,25 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder
         holder.messageText.setText(message.getMessage());
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull ChatAdapter.ChatViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_TEXT)) {
+            holder.messageText.setText(chatMessage.get(position).getMessage());
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
     @Override
     public int getItemCount() {
         return chatMessage.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        return chatMessage.get(position).getId();
+    }
+
     @Override
     public int getItemViewType(int position) {
         return chatMessage.get(position).isUser() ? 0:1;
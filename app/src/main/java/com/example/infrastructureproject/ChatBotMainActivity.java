@@ -1,6 +1,9 @@
 package com.example.infrastructureproject;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.view.WindowManager;
@@ -8,22 +11,21 @@ import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.ai.client.generativeai.GenerativeModel;
 import com.google.ai.client.generativeai.java.GenerativeModelFutures;
 import com.google.ai.client.generativeai.type.Content;
+import com.google.ai.client.generativeai.type.FinishReason;
 import com.google.ai.client.generativeai.type.GenerateContentResponse;
-import com.google.common.util.concurrent.FutureCallback;
-import com.google.common.util.concurrent.Futures;
-import com.google.common.util.concurrent.ListenableFuture;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 public class ChatBotMainActivity extends AppCompatActivity {
 
@@ -35,7 +37,31 @@ public class ChatBotMainActivity extends AppCompatActivity {
     private ChatAdapter chatAdapter;
     private List<ChatMessage> messageList;
     private GenerativeModelFutures model;
-    private Executor executor;
+    private ChatContextManager contextManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Reply being streamed: the message it fills, the text so far and the open stream
+    private ChatMessage streamingReply;
+    private final StringBuilder streamedText = new StringBuilder();
+    private Subscription subscription;
+    // Rebinding on every chunk would redo text layout many times a second
+    private static final long STREAM_UPDATE_INTERVAL_MS = 50;
+    private boolean replyUpdatePending = false;
+    private long lastReplyUpdate = 0;
+    // History is read back a page at a time as the user scrolls up, and only a
+    // window of it is kept in memory; the rest stays in the store
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 5;
+    private static final int MAX_LOADED_MESSAGES = 120;
+    private ChatHistoryStore historyStore;
+    private String userId;
+    private boolean initialPageLoaded = false;
+    private boolean loadingOlder = false;
+    private boolean hasOlder = true;
+    // Question of a reply that was generated without any earlier conversation,
+    // so this user can get the same answer again without a model call
+    private String learnableQuestion;
+    private boolean replyFinishedNormally = false;
+    private boolean replyFailed = false;
     private final String SYSTEM_PROMPT = "You are an Infrastructure Reporting Assistant. You help users with infrastructure damage questions.";
 
     protected void onCreate(Bundle savedInstanceState){
@@ -48,17 +74,31 @@ public class ChatBotMainActivity extends AppCompatActivity {
         closeButton = findViewById(R.id.closeButton);
 
         messageList = new ArrayList<>();
-        chatAdapter = new ChatAdapter(messageList);
+        chatAdapter = new ChatAdapter();
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(chatAdapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    loadOlderMessages();
+                }
+            }
+        });
+
+        String currentUserId = SupabaseManager.getCurrentUserId();
+        userId = currentUserId != null ? currentUserId : "local";
+        historyStore = ChatHistoryStore.getInstance(this);
 
-        GenerativeModel setup = new GenerativeModel(BuildConfig.GEMINI_MODEL, BuildConfig.GEMINI_API_KEY);
-        model = GenerativeModelFutures.from(setup);
-        executor = Executors.newSingleThreadExecutor();
+        model = GeminiService.getChatModel();
+        contextManager = new ChatContextManager(model, SYSTEM_PROMPT);
+        contextManager.setSummaryListener((summary, upToId) -> historyStore.saveSummary(userId, summary, upToId));
+        historyStore.loadSummary(userId, contextManager::restoreSummary);
 
-        messageList.add(new ChatMessage("Hello! How can I help you today?", false));
-        chatAdapter.notifyItemInserted(messageList.size()-1);
+        loadOlderMessages();
+        ChatFaqIndex.prepareAsync(this, userId);
 
         sendButton.setOnClickListener(new View.OnClickListener(){
 
@@ -93,75 +133,171 @@ public class ChatBotMainActivity extends AppCompatActivity {
             return;
         }
 
-        messageList.add(new ChatMessage(message, true));
-        chatAdapter.notifyItemInserted(messageList.size()-1);
-        recyclerView.smoothScrollToPosition(messageList.size()-1);
+        ChatMessage userMessage = new ChatMessage(message, true);
+        messageList.add(userMessage);
+        historyStore.save(userId, userMessage);
 
         messageInput.setText("");
 
+        // Common questions are answered on the device, no model call needed
+        ChatFaqIndex faqIndex = ChatFaqIndex.get(userId);
+        ChatFaqIndex.Match faqMatch = faqIndex != null ? faqIndex.match(message) : null;
+        if (faqMatch != null) {
+            Log.d(TAG, "Answered from FAQ index, score " + faqMatch.score);
+            ChatMessage reply = new ChatMessage(faqMatch.answer, false);
+            messageList.add(reply);
+            historyStore.save(userId, reply);
+            trimLoadedMessages();
+            chatAdapter.submitMessages(messageList);
+            recyclerView.smoothScrollToPosition(messageList.size() - 1);
+            return;
+        }
+
+        // Saved once the reply is complete
         messageList.add(new ChatMessage("Obtaining response...", false));
+        trimLoadedMessages();
         final int loadingMessageIndex = messageList.size() - 1;
-        chatAdapter.notifyItemInserted(loadingMessageIndex);
+        chatAdapter.submitMessages(messageList);
         recyclerView.smoothScrollToPosition(loadingMessageIndex);
 
-        // Build content with conversation history (excluding the loading message)
-        Content.Builder contentBuilder = new Content.Builder();
-        contentBuilder.addText(SYSTEM_PROMPT + "\n\n");
+        // Recent turns plus a summary of older ones (excluding the loading message)
+        Content content = contextManager.buildContent(messageList.subList(0, loadingMessageIndex));
 
-        for(int i = 0; i < messageList.size() - 1; i++){
-            ChatMessage chat = messageList.get(i);
-            if(chat.isUser()){
-                contentBuilder.addText("User: " + chat.getMessage() + "\n");
-            }else if(!chat.getMessage().equals("Obtaining response...")){
-                contentBuilder.addText("Assistant: " + chat.getMessage() + "\n");
+        // Stream the reply into the placeholder as it is generated
+        streamingReply = messageList.get(loadingMessageIndex);
+        streamedText.setLength(0);
+        learnableQuestion = contextManager.lastRequestUsedContext() ? null : message;
+        replyFailed = false;
+        replyFinishedNormally = false;
+        sendButton.setEnabled(false);
+        model.generateContentStream(content).subscribe(new Subscriber<GenerateContentResponse>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                s.request(Long.MAX_VALUE);
             }
-        }
-
-        Content content = contentBuilder.build();
 
-        ListenableFuture<GenerateContentResponse> response = model.generateContent(content);
+            @Override
+            public void onNext(GenerateContentResponse chunk) {
+                // Only the last chunk carries a finish reason
+                boolean stopped = !chunk.getCandidates().isEmpty()
+                        && chunk.getCandidates().get(0).getFinishReason() == FinishReason.STOP;
+                String text = chunk.getText();
+                mainHandler.post(() -> {
+                    if (stopped) replyFinishedNormally = true;
+                    if (text == null || text.isEmpty()) return;
+                    streamedText.append(text);
+                    scheduleReplyUpdate();
+                });
+            }
 
-        Futures.addCallback(response, new FutureCallback<GenerateContentResponse>() {
             @Override
-            public void onSuccess(GenerateContentResponse result) {
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            messageList.remove(messageList.size()-1);
-                            chatAdapter.notifyItemRemoved(messageList.size());
-
-                            String aiResponse = result.getText();
-                            Log.d(TAG, "AI Response received: " + aiResponse);
-                            messageList.add(new ChatMessage(aiResponse,false));
-                            chatAdapter.notifyItemInserted(messageList.size()-1);
-                            recyclerView.smoothScrollToPosition(messageList.size()-1);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error processing AI response", e);
-                            messageList.add(new ChatMessage("Error processing response: " + e.getMessage(), false));
-                            chatAdapter.notifyItemInserted(messageList.size()-1);
-                        }
+            public void onError(Throwable t) {
+                Log.e(TAG, "API call failed", t);
+                mainHandler.post(() -> {
+                    replyFailed = true;
+                    String errorMsg = "Sorry, I couldn't generate a response. Error: " + t.getMessage();
+                    if (streamedText.length() > 0) {
+                        // Keep what already arrived
+                        streamedText.append("\n\n").append(errorMsg);
+                    } else {
+                        streamedText.append(errorMsg);
                     }
+                    finishReply();
                 });
             }
 
             @Override
-            public void onFailure(Throwable t) {
-                Log.e(TAG, "API call failed", t);
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        messageList.remove(messageList.size()-1);
-                        chatAdapter.notifyItemRemoved(messageList.size());
-
-                        String errorMsg = "Sorry, I couldn't generate a response. Error: " + t.getMessage();
-                        Log.e(TAG, errorMsg);
-                        messageList.add(new ChatMessage(errorMsg, false));
-                        chatAdapter.notifyItemInserted(messageList.size()-1);
-                        recyclerView.smoothScrollToPosition(messageList.size()-1);
+            public void onComplete() {
+                mainHandler.post(() -> {
+                    Log.d(TAG, "AI Response received: " + streamedText);
+                    if (streamedText.length() == 0) {
+                        replyFailed = true;
+                        streamedText.append("Sorry, I couldn't generate a response.");
                     }
+                    finishReply();
                 });
             }
-        }, executor);
+        });
+    }
+
+    // At most one adapter update per interval however fast chunks arrive
+    private void scheduleReplyUpdate() {
+        if (replyUpdatePending) return;
+        replyUpdatePending = true;
+        long wait = lastReplyUpdate + STREAM_UPDATE_INTERVAL_MS - SystemClock.uptimeMillis();
+        mainHandler.postDelayed(updateReply, Math.max(0, wait));
+    }
+
+    private final Runnable updateReply = new Runnable() {
+        @Override
+        public void run() {
+            replyUpdatePending = false;
+            lastReplyUpdate = SystemClock.uptimeMillis();
+            if (streamingReply == null) return;
+            streamingReply.setMessage(streamedText.toString());
+            int index = messageList.indexOf(streamingReply);
+            if (index < 0) return;
+            chatAdapter.notifyItemChanged(index, ChatAdapter.PAYLOAD_TEXT);
+            recyclerView.scrollToPosition(index);
+        }
+    };
+
+    private void finishReply() {
+        mainHandler.removeCallbacks(updateReply);
+        updateReply.run();
+        if (streamingReply != null) {
+            historyStore.save(userId, streamingReply);
+            ChatFaqIndex faqIndex = ChatFaqIndex.get(userId);
+            if (learnableQuestion != null && !replyFailed && faqIndex != null
+                    && ChatFaqIndex.isConfidentAnswer(streamingReply.getMessage(), replyFinishedNormally)) {
+                faqIndex.learn(learnableQuestion, streamingReply.getMessage());
+            }
+        }
+        learnableQuestion = null;
+        streamingReply = null;
+        subscription = null;
+        sendButton.setEnabled(true);
+    }
+
+    // Prepend the next older page from the store; the first call loads the newest page
+    private void loadOlderMessages() {
+        if (loadingOlder || !hasOlder) return;
+        loadingOlder = true;
+        // Also right when something was sent before the first page arrived
+        long beforeId = messageList.isEmpty() ? Long.MAX_VALUE : messageList.get(0).getId();
+        historyStore.loadPage(userId, beforeId, PAGE_SIZE, page -> {
+            loadingOlder = false;
+            if (isDestroyed()) return;
+            hasOlder = page.size() == PAGE_SIZE;
+            boolean firstPage = !initialPageLoaded;
+            initialPageLoaded = true;
+
+            messageList.addAll(0, page);
+            if (firstPage && messageList.isEmpty()) {
+                // Not saved, only greets a new conversation
+                messageList.add(ChatMessage.notice("Hello! How can I help you today?"));
+            }
+            chatAdapter.submitMessages(messageList);
+            if (firstPage) {
+                recyclerView.scrollToPosition(messageList.size() - 1);
+            }
+        });
+    }
+
+    // Drop the oldest loaded messages past the in-memory window, scrolling up loads them again
+    private void trimLoadedMessages() {
+        if (messageList.size() <= MAX_LOADED_MESSAGES) return;
+        messageList.subList(0, messageList.size() - MAX_LOADED_MESSAGES).clear();
+        hasOlder = true;
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+        super.onDestroy();
     }
 }
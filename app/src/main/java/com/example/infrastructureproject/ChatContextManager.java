@@ -0,0 +1,195 @@
+package com.example.infrastructureproject;
+
+import android.util.Log;
+
+import com.google.ai.client.generativeai.java.GenerativeModelFutures;
+import com.google.ai.client.generativeai.type.Content;
+import com.google.ai.client.generativeai.type.GenerateContentResponse;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the prompt for each chatbot request within a fixed token budget.
+ * The latest turns are sent verbatim; older ones are folded into a running
+ * summary that is refreshed in the background by a separate model call, so
+ * a send never waits for summarization and request size stays flat however
+ * long the conversation gets.
+ */
+public class ChatContextManager {
+    private static final String TAG = "ChatContextManager";
+
+    // Rough token estimate, close enough for English text and budgeting
+    static final int CHARS_PER_TOKEN = 4;
+    // Tokens for the conversation part of the prompt (summary + verbatim turns)
+    static final int HISTORY_TOKEN_BUDGET = 1500;
+    // Most recent messages always kept word for word when the budget allows
+    private static final int RECENT_MESSAGES = 6;
+    // Summarize only once this many messages wait outside the verbatim window
+    private static final int SUMMARIZE_BATCH = 4;
+    private static final int SUMMARY_MAX_CHARS = 1200;
+
+    private final GenerativeModelFutures model;
+    private final String systemPrompt;
+
+    // Summary of every message with an id up to summarizedUpToId. Ids rather than
+    // positions, since older pages get loaded and dropped at the top of the list
+    private String summary = "";
+    private long summarizedUpToId = 0;
+    private boolean summarizing = false;
+    // Whether the last prompt built carried a summary or earlier turns
+    private boolean lastRequestUsedContext = false;
+    private SummaryListener summaryListener;
+
+    public interface SummaryListener {
+        // Called on a background thread after each successful refresh
+        void onSummaryUpdated(String summary, long upToId);
+    }
+
+    public ChatContextManager(GenerativeModelFutures model, String systemPrompt) {
+        this.model = model;
+        this.systemPrompt = systemPrompt;
+    }
+
+    // Continue from a summary saved by an earlier session
+    public synchronized void restoreSummary(String summary, long upToId) {
+        this.summary = summary;
+        this.summarizedUpToId = upToId;
+    }
+
+    public synchronized void setSummaryListener(SummaryListener listener) {
+        this.summaryListener = listener;
+    }
+
+    /**
+     * Prompt for the next reply. history is the whole conversation so far,
+     * oldest first, ending with the user's new message. Notices are left out.
+     */
+    public synchronized Content buildContent(List<ChatMessage> shown) {
+        List<ChatMessage> history = conversationTurns(shown);
+        int summarizedCount = summarizedCount(history, summarizedUpToId);
+        int start = verbatimStart(history, summarizedCount,
+                HISTORY_TOKEN_BUDGET * CHARS_PER_TOKEN - summary.length());
+
+        Content.Builder builder = new Content.Builder();
+        builder.addText(systemPrompt + "\n\n");
+        if (!summary.isEmpty()) {
+            builder.addText("Summary of the earlier conversation: " + summary + "\n\n");
+        }
+        if (start > summarizedCount) {
+            Log.d(TAG, "Dropped " + (start - summarizedCount) + " messages not yet summarized");
+        }
+        for (int i = start; i < history.size(); i++) {
+            builder.addText(formatTurn(history.get(i)));
+        }
+
+        lastRequestUsedContext = !summary.isEmpty() || start < history.size() - 1;
+        maybeRefreshSummary(history, summarizedCount);
+        return builder.build();
+    }
+
+    /**
+     * Whether the prompt from the last {@link #buildContent} call included a summary
+     * or earlier turns, i.e. whether its reply may depend on the conversation.
+     */
+    public synchronized boolean lastRequestUsedContext() {
+        return lastRequestUsedContext;
+    }
+
+    // The user and assistant turns of the shown messages, without notices
+    static List<ChatMessage> conversationTurns(List<ChatMessage> shown) {
+        List<ChatMessage> turns = new ArrayList<>(shown.size());
+        for (ChatMessage message : shown) {
+            if (!message.isNotice()) {
+                turns.add(message);
+            }
+        }
+        return turns;
+    }
+
+    // Number of leading messages already covered by a summary up to upToId
+    static int summarizedCount(List<ChatMessage> history, long upToId) {
+        int count = 0;
+        while (count < history.size() && history.get(count).getId() <= upToId) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Index of the first message sent word for word. Walks back from the newest
+     * message while it fits budgetChars, never past the summarized ones; the
+     * newest message is always sent, even over budget.
+     */
+    static int verbatimStart(List<ChatMessage> history, int summarizedCount, int budgetChars) {
+        int budget = budgetChars;
+        int start = history.size();
+        while (start > summarizedCount) {
+            int cost = formatTurn(history.get(start - 1)).length();
+            if (start < history.size() && cost > budget) break;
+            budget -= cost;
+            start--;
+        }
+        return start;
+    }
+
+    // Fold messages that left the verbatim window into the summary, off the send path
+    private void maybeRefreshSummary(List<ChatMessage> history, int summarizedCount) {
+        int foldUpTo = history.size() - RECENT_MESSAGES;
+        if (summarizing || foldUpTo - summarizedCount < SUMMARIZE_BATCH) {
+            return;
+        }
+        summarizing = true;
+
+        StringBuilder request = new StringBuilder()
+                .append("Update the summary of a conversation between a user and an infrastructure ")
+                .append("reporting assistant. Keep facts the user gave (locations, issues, ticket details) ")
+                .append("and open questions. Answer with the summary only, under ")
+                .append(SUMMARY_MAX_CHARS / 5).append(" words.\n\n")
+                .append("Current summary: ").append(summary.isEmpty() ? "(none)" : summary).append("\n\n")
+                .append("New messages:\n");
+        // Snapshot the text now, the list keeps changing on the main thread
+        for (ChatMessage message : new ArrayList<>(history.subList(summarizedCount, foldUpTo))) {
+            request.append(formatTurn(message));
+        }
+        Content content = new Content.Builder().addText(request.toString()).build();
+        long foldUpToId = history.get(foldUpTo - 1).getId();
+
+        Futures.addCallback(model.generateContent(content), new FutureCallback<GenerateContentResponse>() {
+            @Override
+            public void onSuccess(GenerateContentResponse result) {
+                String text = result.getText();
+                SummaryListener listener;
+                String updated;
+                synchronized (ChatContextManager.this) {
+                    summarizing = false;
+                    if (text == null || text.trim().isEmpty()) return;
+                    text = text.trim();
+                    updated = text.length() > SUMMARY_MAX_CHARS ? text.substring(0, SUMMARY_MAX_CHARS) : text;
+                    summary = updated;
+                    summarizedUpToId = foldUpToId;
+                    listener = summaryListener;
+                }
+                if (listener != null) {
+                    listener.onSummaryUpdated(updated, foldUpToId);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // The next send tries again; meanwhile the verbatim window still fits the budget
+                Log.e(TAG, "Summary refresh failed", t);
+                synchronized (ChatContextManager.this) {
+                    summarizing = false;
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    static String formatTurn(ChatMessage message) {
+        return (message.isUser() ? "User: " : "Assistant: ") + message.getMessage() + "\n";
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.infrastructureproject;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.infrastructureproject.utils.AppMetrics;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers common chatbot questions on the device, without a model call.
+ * Questions are matched by TF-IDF cosine similarity over normalized keywords
+ * against the curated Q&A in res/raw/chat_faq.json and against earlier model
+ * answers to standalone questions. A question only gets a local answer above
+ * the confidence threshold; everything else goes to the model as before.
+ * Learned answers are kept per user, so one account never sees answers given
+ * to another on the same device.
+ * Lookups are recorded as "chat.faq" in {@link AppMetrics}.
+ */
+public class ChatFaqIndex {
+    private static final String TAG = "ChatFaqIndex";
+    private static final String LEARNED_FILE_PREFIX = "chat_faq_learned_";
+
+    // Minimum cosine similarity for a local answer; learned answers were never
+    // reviewed by anyone, so they need a closer match than curated ones
+    public static final double CURATED_THRESHOLD = 0.6;
+    public static final double LEARNED_THRESHOLD = 0.85;
+    private static final int MAX_LEARNED = 50;
+
+    // A model answer is only learned when it is complete, of a plausible length
+    // and neither hedges nor asks the user something back
+    static final int MIN_LEARNED_ANSWER_CHARS = 40;
+    static final int MAX_LEARNED_ANSWER_CHARS = 1500;
+    private static final String[] UNSURE_MARKERS = {
+            "not sure", "i don't know", "i do not know", "i'm unable", "i am unable", "i cannot",
+            "i can't", "unclear", "could you", "can you clarify", "can you provide", "please provide",
+            "more details", "more information", "depends on", "it may be", "might be", "sorry"};
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "the", "is", "are", "was", "be", "do", "does", "did", "i", "my", "me", "you",
+            "your", "it", "its", "to", "of", "in", "on", "for", "and", "or", "can", "could", "how",
+            "what", "when", "where", "why", "will", "would", "should", "there", "this", "that", "with",
+            "please", "about", "so", "if", "am", "we", "our"));
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static volatile ChatFaqIndex instance;
+
+    private final String userId;
+    private final File learnedFile;
+    private final List<Entry> entries = new ArrayList<>();
+    // Questions learned from the model, oldest first, as saved
+    private final List<String[]> learned = new ArrayList<>();
+    private Map<String, Double> idf = new HashMap<>();
+
+    public static class Match {
+        public final String answer;
+        public final double score;
+        public final boolean curated;
+
+        Match(String answer, double score, boolean curated) {
+            this.answer = answer;
+            this.score = score;
+            this.curated = curated;
+        }
+    }
+
+    // One indexed question and the answer it leads to
+    private static class Entry {
+        final String answer;
+        final boolean curated;
+        final Map<String, Integer> termCounts;
+        Map<String, Double> vector;
+
+        Entry(String question, String answer, boolean curated) {
+            this.answer = answer;
+            this.curated = curated;
+            this.termCounts = termCounts(question);
+        }
+    }
+
+    ChatFaqIndex(InputStream curated, File learnedFile, String userId) {
+        this.userId = userId;
+        this.learnedFile = learnedFile;
+        loadCurated(curated);
+        loadLearned();
+        rebuildVectors();
+    }
+
+    /**
+     * Build the index for this user in the background; {@link #get(String)}
+     * returns null until it is ready.
+     */
+    public static void prepareAsync(Context context, String userId) {
+        if (instance != null && instance.userId.equals(userId)) return;
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            if (instance != null && instance.userId.equals(userId)) return;
+            File dir = appContext.getFilesDir();
+            instance = new ChatFaqIndex(appContext.getResources().openRawResource(R.raw.chat_faq),
+                    new File(dir, learnedFileName(userId)), userId);
+        });
+    }
+
+    // The index of this user, null while it is being built or when another user's is loaded
+    public static ChatFaqIndex get(String userId) {
+        ChatFaqIndex index = instance;
+        return index != null && index.userId.equals(userId) ? index : null;
+    }
+
+    static String learnedFileName(String userId) {
+        return LEARNED_FILE_PREFIX + userId.replaceAll("[^A-Za-z0-9_-]", "_") + ".json";
+    }
+
+    /**
+     * Best local answer for the question, or null when nothing is close enough.
+     */
+    public synchronized Match match(String question) {
+        Map<String, Double> query = weigh(termCounts(question));
+        Entry best = null;
+        double bestScore = 0;
+        for (Entry entry : entries) {
+            double score = cosine(query, entry.vector);
+            if (score >= (entry.curated ? CURATED_THRESHOLD : LEARNED_THRESHOLD) && score > bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        AppMetrics.recordLookup("chat.faq", best != null);
+        return best != null ? new Match(best.answer, bestScore, best.curated) : null;
+    }
+
+    /**
+     * Whether a model answer is good enough to give again without the model: the
+     * reply finished normally (not cut off by length or safety), has a plausible
+     * length and contains no hedging or questions back to the user.
+     */
+    public static boolean isConfidentAnswer(String answer, boolean finishedNormally) {
+        if (!finishedNormally || answer == null) return false;
+        String text = answer.trim();
+        if (text.length() < MIN_LEARNED_ANSWER_CHARS || text.length() > MAX_LEARNED_ANSWER_CHARS) {
+            return false;
+        }
+        if (text.contains("?")) return false;
+        String lower = text.toLowerCase(Locale.ROOT).replace('\u2019', '\'');
+        for (String marker : UNSURE_MARKERS) {
+            if (lower.contains(marker)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remember a model answer so the same question is answered locally next time.
+     * Only for questions sent to the model without any earlier conversation, and
+     * answers that pass {@link #isConfidentAnswer}.
+     */
+    public synchronized void learn(String question, String answer) {
+        if (termCounts(question).isEmpty()) return;
+        learned.add(new String[] { question, answer });
+        while (learned.size() > MAX_LEARNED) {
+            learned.remove(0);
+        }
+        entries.removeIf(entry -> !entry.curated);
+        for (String[] pair : learned) {
+            entries.add(new Entry(pair[0], pair[1], false));
+        }
+        rebuildVectors();
+
+        JSONArray array = new JSONArray();
+        try {
+            for (String[] pair : learned) {
+                array.put(new JSONObject().put("question", pair[0]).put("answer", pair[1]));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to serialize learned answers", e);
+            return;
+        }
+        String snapshot = array.toString();
+        executor.execute(() -> save(snapshot));
+    }
+
+    // Blocks until every scheduled write has reached the file
+    void flush() throws InterruptedException {
+        try {
+            executor.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void loadCurated(InputStream curated) {
+        try (InputStream in = curated) {
+            JSONArray array = new JSONArray(readAll(in));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                String answer = item.getString("answer");
+                JSONArray questions = item.getJSONArray("questions");
+                for (int j = 0; j < questions.length(); j++) {
+                    entries.add(new Entry(questions.getString(j), answer, true));
+                }
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Failed to load curated FAQ", e);
+        }
+    }
+
+    private void loadLearned() {
+        if (!learnedFile.exists()) return;
+        try (InputStream in = new FileInputStream(learnedFile)) {
+            JSONArray array = new JSONArray(readAll(in));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                String question = item.getString("question");
+                String answer = item.getString("answer");
+                learned.add(new String[] { question, answer });
+                entries.add(new Entry(question, answer, false));
+            }
+        } catch (IOException | JSONException e) {
+            // Only a shortcut, the model answers these again
+            Log.w(TAG, "Discarding unreadable learned answers", e);
+        }
+    }
+
+    // Write to a temp file and rename, so a crash mid-write never corrupts the file
+    private void save(String snapshot) {
+        File partial = new File(learnedFile.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(partial)) {
+            out.write(snapshot.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write learned answers", e);
+            return;
+        }
+        if (!partial.renameTo(learnedFile)) {
+            Log.e(TAG, "Failed to replace learned answers file");
+        }
+    }
+
+    // Smoothed IDF over all indexed questions, then every entry's weighted vector
+    private void rebuildVectors() {
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (Entry entry : entries) {
+            for (String term : entry.termCounts.keySet()) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<String, Integer> term : documentFrequency.entrySet()) {
+            weights.put(term.getKey(), Math.log((1.0 + entries.size()) / (1.0 + term.getValue())) + 1.0);
+        }
+        idf = weights;
+        for (Entry entry : entries) {
+            entry.vector = weigh(entry.termCounts);
+        }
+    }
+
+    // Terms the index has never seen carry no weight, they can't help a match
+    private Map<String, Double> weigh(Map<String, Integer> termCounts) {
+        Map<String, Double> vector = new HashMap<>();
+        for (Map.Entry<String, Integer> term : termCounts.entrySet()) {
+            Double weight = idf.get(term.getKey());
+            if (weight != null) {
+                vector.put(term.getKey(), term.getValue() * weight);
+            }
+        }
+        return vector;
+    }
+
+    private static double cosine(Map<String, Double> a, Map<String, Double> b) {
+        if (a.isEmpty() || b.isEmpty()) return 0;
+        double dot = 0;
+        for (Map.Entry<String, Double> term : a.entrySet()) {
+            Double other = b.get(term.getKey());
+            if (other != null) {
+                dot += term.getValue() * other;
+            }
+        }
+        return dot / (norm(a) * norm(b));
+    }
+
+    private static double norm(Map<String, Double> vector) {
+        double sum = 0;
+        for (double value : vector.values()) {
+            sum += value * value;
+        }
+        return Math.sqrt(sum);
+    }
+
+    // Lowercase words without punctuation or stop words, with plural and verb endings cut
+    static Map<String, Integer> termCounts(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) continue;
+            counts.merge(stem(word), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static String stem(String word) {
+        if (word.length() > 5 && word.endsWith("ing")) return word.substring(0, word.length() - 3);
+        if (word.length() > 4 && word.endsWith("ed")) return word.substring(0, word.length() - 2);
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) return word.substring(0, word.length() - 1);
+        return word;
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
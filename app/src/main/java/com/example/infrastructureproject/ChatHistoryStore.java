@@ -0,0 +1,153 @@
+package com.example.infrastructureproject;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device chatbot history, one conversation per signed-in user. Messages are
+ * read back a page at a time, newest first, so reopening a long conversation
+ * only loads what is on screen. Also keeps the conversation's rolling summary
+ * so it doesn't have to be rebuilt with model calls after a restart.
+ *
+ * All database work runs on one background thread; results are delivered on
+ * the main thread.
+ */
+public class ChatHistoryStore extends SQLiteOpenHelper {
+    private static final String TAG = "ChatHistoryStore";
+    private static final String DB_NAME = "chat_history.db";
+    private static final int DB_VERSION = 1;
+
+    private static ChatHistoryStore instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface PageCallback {
+        // Oldest first; fewer than requested means there is nothing older
+        void onPage(List<ChatMessage> messages);
+    }
+
+    public interface SummaryCallback {
+        // Empty summary and 0 when none was saved
+        void onSummary(String summary, long upToId);
+    }
+
+    private ChatHistoryStore(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    public static synchronized ChatHistoryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ChatHistoryStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // Ids come from ChatMessage and grow with time, so they double as the sort order
+        db.execSQL("CREATE TABLE messages ("
+                + "id INTEGER PRIMARY KEY, "
+                + "user_id TEXT NOT NULL, "
+                + "is_user INTEGER NOT NULL, "
+                + "text TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX idx_messages_user_id ON messages (user_id, id)");
+        db.execSQL("CREATE TABLE summaries ("
+                + "user_id TEXT PRIMARY KEY, "
+                + "summary TEXT NOT NULL, "
+                + "up_to_id INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only a local cache of the conversation, start over on schema changes
+        db.execSQL("DROP TABLE IF EXISTS messages");
+        db.execSQL("DROP TABLE IF EXISTS summaries");
+        onCreate(db);
+    }
+
+    public void save(String userId, ChatMessage message) {
+        String text = message.getMessage();
+        executor.execute(() -> {
+            ContentValues values = new ContentValues();
+            values.put("id", message.getId());
+            values.put("user_id", userId);
+            values.put("is_user", message.isUser() ? 1 : 0);
+            values.put("text", text);
+            try {
+                getWritableDatabase().insertWithOnConflict("messages", null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to save message", e);
+            }
+        });
+    }
+
+    /**
+     * Load up to limit messages older than beforeId (Long.MAX_VALUE for the newest page).
+     */
+    public void loadPage(String userId, long beforeId, int limit, PageCallback callback) {
+        executor.execute(() -> {
+            List<ChatMessage> page = new ArrayList<>();
+            try (Cursor cursor = getReadableDatabase().query("messages",
+                    new String[] { "id", "is_user", "text" },
+                    "user_id = ? AND id < ?", new String[] { userId, String.valueOf(beforeId) },
+                    null, null, "id DESC", String.valueOf(limit))) {
+                while (cursor.moveToNext()) {
+                    page.add(new ChatMessage(cursor.getLong(0), cursor.getString(2), cursor.getInt(1) == 1));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load messages", e);
+            }
+            Collections.reverse(page);
+            mainHandler.post(() -> callback.onPage(page));
+        });
+    }
+
+    public void saveSummary(String userId, String summary, long upToId) {
+        executor.execute(() -> {
+            ContentValues values = new ContentValues();
+            values.put("user_id", userId);
+            values.put("summary", summary);
+            values.put("up_to_id", upToId);
+            try {
+                getWritableDatabase().insertWithOnConflict("summaries", null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to save summary", e);
+            }
+        });
+    }
+
+    public void loadSummary(String userId, SummaryCallback callback) {
+        executor.execute(() -> {
+            String summary = "";
+            long upToId = 0;
+            try (Cursor cursor = getReadableDatabase().query("summaries",
+                    new String[] { "summary", "up_to_id" }, "user_id = ?", new String[] { userId },
+                    null, null, null)) {
+                if (cursor.moveToFirst()) {
+                    summary = cursor.getString(0);
+                    upToId = cursor.getLong(1);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load summary", e);
+            }
+            String result = summary;
+            long resultUpToId = upToId;
+            mainHandler.post(() -> callback.onSummary(result, resultUpToId));
+        });
+    }
+}
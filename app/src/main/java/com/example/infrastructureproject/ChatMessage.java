@@ -2,8 +2,17 @@ package com.example.infrastructureproject;
 
 public class ChatMessage {
 
+    private static long lastId = 0;
+
+    protected final long id;
     protected String Message;
     protected boolean isUser;
+    // Shown in the chat but not a turn of the conversation, e.g. the greeting
+    protected boolean isNotice;
+
+    public long getId() {
+        return id;
+    }
 
     public String getMessage() {
         return Message;
@@ -13,10 +22,36 @@ public class ChatMessage {
         return isUser;
     }
 
+    public boolean isNotice() {
+        return isNotice;
+    }
+
     public ChatMessage(String Message, boolean isUser){
+        this(newId(), Message, isUser);
+    }
+
+    // Restored from the history store with its saved id
+    public ChatMessage(long id, String Message, boolean isUser){
+        this.id = id;
         this.Message = Message;
         this.isUser = isUser;
     }
 
+    // Assistant-side message that is never saved or sent to the model
+    public static ChatMessage notice(String Message) {
+        ChatMessage notice = new ChatMessage(Message, false);
+        notice.isNotice = true;
+        return notice;
+    }
+
+    // Replace the text while a streamed reply is still arriving
+    public void setMessage(String Message) {
+        this.Message = Message;
+    }
 
+    // Time based and increasing, so ids stay unique across launches and sort in send order
+    private static synchronized long newId() {
+        lastId = Math.max(lastId + 1, System.currentTimeMillis() * 1000);
+        return lastId;
+    }
 }
@@ -56,6 +56,8 @@ public class CitizenDashboardActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Restores the session if the process was restarted on this screen
+        SupabaseManager.init(this);
         // Explicitly allow screenshots
         getWindow().clearFlags(android.view.WindowManager.LayoutParams.FLAG_SECURE);
         EdgeToEdge.enable(this);
@@ -154,22 +156,11 @@ public class CitizenDashboardActivity extends AppCompatActivity {
 
             @Override
             public void onView(Ticket ticket, int position) {
-                // Open ticket details
+                // Open ticket details - the detail screen resolves the ticket by ID
                 Intent intent = new Intent(CitizenDashboardActivity.this, TicketDetailActivity.class);
                 intent.putExtra("ticket_id", ticket.getId());
-                intent.putExtra("type", ticket.getType());
-                intent.putExtra("severity", ticket.getSeverity());
-                intent.putExtra("location", ticket.getLocation());
-                intent.putExtra("date_time", ticket.getDateTime());
-                intent.putExtra("description", ticket.getDescription());
-                intent.putExtra("image_name", ticket.getImageName());
-                intent.putExtra("image_url", ticket.getImageUrl()); // Pass image URL
-                intent.putExtra("status", ticket.getStatus().toString());
                 intent.putExtra("db_id", ticket.getDbId()); // Pass database ID for delete
                 intent.putExtra("citizen_view", true);
-                if (ticket.getReason() != null) {
-                    intent.putExtra("reason", ticket.getReason());
-                }
                 startActivity(intent);
             }
 
@@ -181,6 +172,7 @@ public class CitizenDashboardActivity extends AppCompatActivity {
 
         ticketAdapter = new TicketAdapter(this, readOnlyListener);
         reportsRecyclerView.setAdapter(ticketAdapter);
+        ticketAdapter.attachPreloader(reportsRecyclerView);
 
         // Add RecyclerView to reports container
         LinearLayout containerLayout = (LinearLayout) reportsContainer.getChildAt(0);
@@ -524,8 +516,7 @@ public class CitizenDashboardActivity extends AppCompatActivity {
             }
         }
 
-        // Show dialog with filtered tickets
-        // Instead of using TicketManager, we'll pass the current tickets from dashboard
+        // Show dialog with filtered tickets - only their IDs cross the Bundle, see TicketManager
         List<Ticket> currentTickets = ticketAdapter != null ? ticketAdapter.getTickets() : new ArrayList<>();
         TicketsDialogFragment dialog = TicketsDialogFragment.newInstance(reportType, currentTickets);
         dialog.show(getSupportFragmentManager(), TicketsDialogFragment.TAG);
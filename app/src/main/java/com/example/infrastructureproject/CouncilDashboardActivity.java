@@ -64,6 +64,7 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
 
     // Refresh button
     private LinearLayout btnRefresh;
+    private TextView btnReclassify;
     private TextView tvAllTickets;
 
     // Data arrays
@@ -83,9 +84,15 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
     // Current tab index (0=Total, 1=Completed, 2=Pending, 3=Spam)
     private int currentTabIndex = 2; // Default to Pending
 
+    // Triage order by default: high severity first, oldest first within a severity
+    private TicketSorter.SortOrder sortOrder = TicketSorter.SortOrder.SEVERITY;
+    private int sortGeneration = 0; // Drops sort results superseded by a newer filter pass
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Restores the session if the process was restarted on this screen
+        SupabaseManager.init(this);
         // Explicitly allow screenshots
         getWindow().clearFlags(android.view.WindowManager.LayoutParams.FLAG_SECURE);
         
@@ -171,6 +178,7 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
 
         // Refresh button
         btnRefresh = findViewById(R.id.btnRefresh);
+        btnReclassify = findViewById(R.id.btnReclassify);
         tvAllTickets = findViewById(R.id.tvAllTickets);
     }
 
@@ -178,6 +186,8 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
         ticketAdapter = new TicketAdapter(this, this, false, true); // false = not engineer, true = council mode
         recyclerViewTickets.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewTickets.setAdapter(ticketAdapter);
+        // The list sits in the page's NestedScrollView and binds every row at once, it never
+        // scrolls itself, so a scroll-driven thumbnail preloader would have nothing to do
         recyclerViewTickets.setNestedScrollingEnabled(false);
     }
     
@@ -256,6 +266,7 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
     private void setupClickListeners() {
         // Logout button
         btnLogout.setOnClickListener(v -> {
+            SupabaseManager.logout();
             Intent intent = new Intent(this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(intent);
@@ -295,6 +306,12 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
             filterTickets();
         });
 
+        // Sort order picker
+        ivFilter.setOnClickListener(v -> TicketSorter.showSortDialog(this, sortOrder, order -> {
+            sortOrder = order;
+            filterTickets();
+        }));
+
         // Refresh button
         btnRefresh.setOnClickListener(v -> {
             etSearch.setText("");
@@ -307,6 +324,107 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
             filterTickets();
             Toast.makeText(this, "Filters cleared", Toast.LENGTH_SHORT).show();
         });
+
+        // Let the AI tag reports still filed as "Other"
+        btnReclassify.setOnClickListener(v -> confirmReclassifyUntagged());
+    }
+
+    private void confirmReclassifyUntagged() {
+        List<Ticket> untagged = new ArrayList<>();
+        int withoutMedium = 0;
+        for (Ticket ticket : allTickets) {
+            if (!"Other".equalsIgnoreCase(ticket.getType()) || ticket.getImageUrl() == null
+                    || ticket.getStatus() == Ticket.TicketStatus.SPAM) {
+                continue;
+            }
+            // Older uploads only have the multi-MB original, too large to download in bulk
+            if (ticket.hasMediumRendition()) {
+                untagged.add(ticket);
+            } else {
+                withoutMedium++;
+            }
+        }
+        if (untagged.isEmpty()) {
+            Toast.makeText(this, "No untagged reports with resized photos", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String skipped = withoutMedium > 0
+                ? "\n\n" + withoutMedium + " older report(s) without a resized photo are skipped." : "";
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Re-classify reports")
+                .setMessage("Use AI to suggest an issue type for " + untagged.size()
+                        + " report(s) filed as Other?" + skipped)
+                .setPositiveButton("Re-classify", (dialog, which) -> reclassify(untagged))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Photos go to the model a few per request, paced to stay within the API quota
+    private void reclassify(List<Ticket> tickets) {
+        List<BatchClassificationScheduler.Item> items = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            items.add(new BatchClassificationScheduler.Item(ticket.getDbId(),
+                    BatchClassificationScheduler.fromUrl(ticket.getMediumUrl())));
+        }
+        Toast.makeText(this, "Re-classifying " + items.size() + " report(s)...", Toast.LENGTH_SHORT).show();
+
+        // The final count waits for the PATCHes, which may finish after classification does
+        int[] retagged = {0};
+        int[] updating = {0};
+        int[] total = {-1};
+        Runnable reportIfDone = () -> {
+            if (total[0] < 0 || updating[0] > 0 || isFinishing() || isDestroyed()) return;
+            Toast.makeText(CouncilDashboardActivity.this, "Re-classified " + retagged[0] + " of "
+                    + total[0] + " report(s)", Toast.LENGTH_LONG).show();
+            filterTickets();
+        };
+        BatchClassificationScheduler.classifyAll(items, GeminiService.CLASSIFICATION_PROMPT,
+                GeminiService.CLASSIFICATION_SCHEMA, new BatchClassificationScheduler.Listener() {
+            @Override
+            public void onResult(String id, String resultJson) {
+                String issueType;
+                try {
+                    issueType = new org.json.JSONObject(resultJson).optString("issue_type", "");
+                } catch (org.json.JSONException e) {
+                    return;
+                }
+                if (issueType.isEmpty() || issueType.equalsIgnoreCase("Other")) return;
+                updating[0]++;
+                TicketRepository.updateIssueType(id, issueType, new TicketRepository.AssignTicketCallback() {
+                    @Override
+                    public void onSuccess() {
+                        runOnUiThread(() -> {
+                            updating[0]--;
+                            retagged[0]++;
+                            for (Ticket ticket : tickets) {
+                                if (id.equals(ticket.getDbId())) ticket.setType(issueType);
+                            }
+                            reportIfDone.run();
+                        });
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        android.util.Log.w("CouncilDashboard", "Saving issue type failed for " + id + ": " + message);
+                        runOnUiThread(() -> {
+                            updating[0]--;
+                            reportIfDone.run();
+                        });
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed(String id, String message) {
+                android.util.Log.w("CouncilDashboard", "Re-classification failed for " + id + ": " + message);
+            }
+
+            @Override
+            public void onFinished(int classified, int failed) {
+                total[0] = classified + failed;
+                reportIfDone.run();
+            }
+        });
     }
 
     private void updateFilterButtonState(TextView button, boolean isActive) {
@@ -511,13 +629,17 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
                 })
                 .collect(Collectors.toList());
 
-        // Update display
-        currentDisplayedTickets = filtered;
-        ticketAdapter.setTickets(filtered);
-        
         // Update ticket count - show just "All Tickets" without count
         tvAllTickets.setText("All Tickets");
 
+        // Sort off the main thread; only the latest filter pass gets displayed
+        final int generation = ++sortGeneration;
+        TicketSorter.sortAsync(filtered, sortOrder, sorted -> {
+            if (generation != sortGeneration || isFinishing()) return;
+            currentDisplayedTickets = sorted;
+            ticketAdapter.setTickets(sorted);
+        });
+
         // Show/hide empty state
         if (filtered.isEmpty()) {
             recyclerViewTickets.setVisibility(View.GONE);
@@ -568,16 +690,9 @@ public class CouncilDashboardActivity extends AppCompatActivity implements Ticke
     @Override
     public void onView(Ticket ticket, int position) {
         Intent intent = new Intent(this, CouncilTicketDetailActivity.class);
+        // Only IDs are passed - the detail screen resolves the ticket from TicketManager
         intent.putExtra("TICKET_ID", ticket.getId());
         intent.putExtra("TICKET_DB_ID", ticket.getDbId()); // Pass database ID for updates
-        intent.putExtra("TICKET_TYPE", ticket.getType());
-        intent.putExtra("TICKET_SEVERITY", ticket.getSeverity());
-        intent.putExtra("TICKET_LOCATION", ticket.getLocation());
-        intent.putExtra("TICKET_DESCRIPTION", ticket.getDescription());
-        intent.putExtra("TICKET_TIMESTAMP", ticket.getDateTime());
-        intent.putExtra("TICKET_IMAGE", ticket.getImageResId(this));
-        intent.putExtra("TICKET_IMAGE_URL", ticket.getImageUrl()); // Pass image URL
-        intent.putExtra("TICKET_USERNAME", ticket.getUsername());
         startActivityForResult(intent, 100); // Request code 100 for assignment
     }
     
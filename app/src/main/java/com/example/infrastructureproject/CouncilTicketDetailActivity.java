@@ -13,6 +13,7 @@ import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
 
 
 
@@ -22,6 +23,7 @@ import java.util.List;
 public class CouncilTicketDetailActivity extends AppCompatActivity {
 
     private ImageView ivTicketImage;
+    private RecyclerView rvPhotoGallery;
     private TextView tvTicketId;
     private TextView tvTicketType;
     private TextView tvSeverityBadge;
@@ -34,6 +36,8 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
     private TextView tvAssignedTo;
     private TextView tvEngineerStatusLabel;
     private TextView tvEngineerStatus;
+    private TextView tvLikelyDuplicatesLabel;
+    private TextView tvLikelyDuplicates;
     private Button btnAssignToEngineer;
     private Button btnDeleteCouncilTicket;
     private LinearLayout actionButtonsLayout;
@@ -48,6 +52,9 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
     private String ticketUsername;
     private String ticketImageUrl;
     private int ticketImageResId;
+    private Ticket ticket; // Resolved from TicketManager, or the saved copy after process death
+
+    private static final String STATE_TICKET = "ticket_state";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,7 +67,7 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
         initializeViews();
 
         // Get ticket data from intent
-        getTicketDataFromIntent();
+        getTicketDataFromIntent(savedInstanceState);
 
         // Display ticket data
         displayTicketData();
@@ -71,6 +78,7 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
 
     private void initializeViews() {
         ivTicketImage = findViewById(R.id.ivTicketImage);
+        rvPhotoGallery = findViewById(R.id.rvPhotoGallery);
         tvTicketId = findViewById(R.id.tvTicketId);
         tvTicketType = findViewById(R.id.tvTicketType);
         tvSeverityBadge = findViewById(R.id.tvSeverityBadge);
@@ -83,6 +91,8 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
         tvAssignedTo = findViewById(R.id.tvAssignedTo);
         tvEngineerStatusLabel = findViewById(R.id.tvEngineerStatusLabel);
         tvEngineerStatus = findViewById(R.id.tvEngineerStatus);
+        tvLikelyDuplicatesLabel = findViewById(R.id.tvLikelyDuplicatesLabel);
+        tvLikelyDuplicates = findViewById(R.id.tvLikelyDuplicates);
         btnAssignToEngineer = findViewById(R.id.btnAssignToEngineer);
         btnDeleteCouncilTicket = findViewById(R.id.btnDeleteCouncilTicket);
         
@@ -90,53 +100,47 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
         actionButtonsLayout = findViewById(R.id.actionButtonsLayout);
     }
 
-    private void getTicketDataFromIntent() {
+    private void getTicketDataFromIntent(Bundle savedInstanceState) {
         Intent intent = getIntent();
         ticketId = intent.getStringExtra("TICKET_ID");
         ticketDbId = intent.getStringExtra("TICKET_DB_ID"); // Get database ID
-        ticketType = intent.getStringExtra("TICKET_TYPE");
-        ticketSeverity = intent.getStringExtra("TICKET_SEVERITY");
-        ticketLocation = intent.getStringExtra("TICKET_LOCATION");
-        ticketDescription = intent.getStringExtra("TICKET_DESCRIPTION");
-        ticketTimestamp = intent.getStringExtra("TICKET_TIMESTAMP");
-        ticketUsername = intent.getStringExtra("TICKET_USERNAME");
-        ticketImageUrl = intent.getStringExtra("TICKET_IMAGE_URL"); // Get image URL
-        ticketImageResId = intent.getIntExtra("TICKET_IMAGE", R.drawable.placeholder_image);
-    }
-
-    private void displayTicketData() {
-        tvTicketId.setText("Ticket ID: " + (ticketId != null ? ticketId : "N/A"));
-        tvTicketType.setText(ticketType != null ? ticketType : "Unknown");
-        tvLocation.setText(ticketLocation != null ? ticketLocation : "Unknown location");
-        tvTimestamp.setText(ticketTimestamp != null ? ticketTimestamp : "Unknown time");
-        tvDescription.setText(ticketDescription != null ? ticketDescription : "No description");
-        tvUsername.setText("Reported by: " + (ticketUsername != null ? ticketUsername : "Anonymous"));
 
-        // Set severity badge
-        if (tvSeverityBadge != null && ticketSeverity != null) {
-            tvSeverityBadge.setText(ticketSeverity);
-            int severityColor;
-            switch (ticketSeverity.toLowerCase()) {
-                case "high":
-                    severityColor = getResources().getColor(R.color.severity_high, null);
-                    break;
-                case "medium":
-                    severityColor = getResources().getColor(R.color.severity_medium, null);
-                    break;
-                case "low":
-                default:
-                    severityColor = getResources().getColor(R.color.severity_low, null);
-                    break;
+        // Only IDs are passed in - resolve the ticket from the in-process store
+        ticket = TicketManager.getInstance().getTicketById(ticketId);
+        if (ticket == null && savedInstanceState != null) {
+            TicketParcel saved = savedInstanceState.getParcelable(STATE_TICKET);
+            if (saved != null) {
+                ticket = saved.getTicket();
             }
-            tvSeverityBadge.setBackgroundColor(severityColor);
         }
+        if (ticket != null) {
+            applyTicketFields(ticket);
+        }
+    }
 
-        // Set image from URL or fallback to resource
-        if (ticketImageUrl != null && !ticketImageUrl.isEmpty()) {
-            loadImageFromUrl(ticketImageUrl);
-        } else if (ticketImageResId != 0) {
-            ivTicketImage.setImageResource(ticketImageResId);
+    private void applyTicketFields(Ticket source) {
+        ticket = source;
+        ticketType = source.getType();
+        ticketSeverity = source.getSeverity();
+        ticketLocation = source.getLocation();
+        ticketDescription = source.getDescription();
+        ticketTimestamp = source.getDateTime();
+        ticketUsername = source.getUsername();
+        ticketImageUrl = source.getMediumUrl(); // Medium rendition is plenty for review
+        int imageResId = source.getImageResId(this);
+        ticketImageResId = imageResId != 0 ? imageResId : R.drawable.placeholder_image;
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (ticket != null) {
+            outState.putParcelable(STATE_TICKET, new TicketParcel(ticket));
         }
+    }
+
+    private void displayTicketData() {
+        bindTicketSummary();
 
         // Fetch latest ticket from Supabase so we reflect assignment state
         if (ticketDbId != null && !ticketDbId.isEmpty()) {
@@ -144,6 +148,12 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
                 @Override
                 public void onSuccess(Ticket ticket) {
                     runOnUiThread(() -> {
+                        // Ticket wasn't in the store or saved state - fill the summary from the fetch
+                        if (ticketType == null) {
+                            applyTicketFields(ticket);
+                            bindTicketSummary();
+                        }
+
                         // Council notes - show council_notes OR engineer_notes (reason)
                         String notesToDisplay = "";
                         if (ticket.getCouncilNotes() != null && !ticket.getCouncilNotes().isEmpty() && !ticket.getCouncilNotes().equalsIgnoreCase("null")) {
@@ -213,6 +223,12 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
                                 }
                             }
                         }
+
+                        // Only worth checking while the ticket still needs triage
+                        if (ticket.getStatus() == Ticket.TicketStatus.PENDING
+                                || ticket.getStatus() == Ticket.TicketStatus.UNDER_REVIEW) {
+                            loadLikelyDuplicates(ticket);
+                        }
                     });
                 }
 
@@ -227,6 +243,84 @@ public class CouncilTicketDetailActivity extends AppCompatActivity {
         }
     }
 
+    private void loadLikelyDuplicates(Ticket source) {
+        if (source.getImageHash() == null || !source.hasCoordinates()) {
+            return; // Uploaded before hashes and coordinates were stored, or the location was typed in
+        }
+        TicketRepository.findLikelyDuplicates(source.getImageHash(), source.getLatitude(), source.getLongitude(),
+            source.getDbId(),
+            new TicketRepository.DuplicatesCallback() {
+                @Override
+                public void onSuccess(List<TicketRepository.DuplicateMatch> matches) {
+                    runOnUiThread(() -> {
+                        if (matches.isEmpty()) {
+                            tvLikelyDuplicatesLabel.setVisibility(View.GONE);
+                            tvLikelyDuplicates.setVisibility(View.GONE);
+                            return;
+                        }
+                        StringBuilder text = new StringBuilder();
+                        for (TicketRepository.DuplicateMatch match : matches) {
+                            if (text.length() > 0) text.append("\n");
+                            text.append("• ").append(match.getTicketId())
+                                    .append(" - ").append(match.getIssueType())
+                                    .append(" at ").append(match.getLocation())
+                                    .append(" (").append(match.getStatus()).append(")");
+                        }
+                        tvLikelyDuplicatesLabel.setVisibility(View.VISIBLE);
+                        tvLikelyDuplicates.setVisibility(View.VISIBLE);
+                        tvLikelyDuplicates.setText(text.toString());
+                    });
+                }
+
+                @Override
+                public void onError(String message) {
+                    // Informational only, keep the screen as is
+                    android.util.Log.w("CouncilTicketDetail", "Duplicate lookup failed: " + message);
+                }
+            });
+    }
+
+    private void bindTicketSummary() {
+        tvTicketId.setText("Ticket ID: " + (ticketId != null ? ticketId : "N/A"));
+        tvTicketType.setText(ticketType != null ? ticketType : "Unknown");
+        tvLocation.setText(ticketLocation != null ? ticketLocation : "Unknown location");
+        tvTimestamp.setText(ticketTimestamp != null ? ticketTimestamp : "Unknown time");
+        tvDescription.setText(ticketDescription != null ? ticketDescription : "No description");
+        tvUsername.setText("Reported by: " + (ticketUsername != null ? ticketUsername : "Anonymous"));
+
+        // Set severity badge
+        if (tvSeverityBadge != null && ticketSeverity != null) {
+            tvSeverityBadge.setText(ticketSeverity);
+            int severityColor;
+            switch (ticketSeverity.toLowerCase()) {
+                case "high":
+                    severityColor = getResources().getColor(R.color.severity_high, null);
+                    break;
+                case "medium":
+                    severityColor = getResources().getColor(R.color.severity_medium, null);
+                    break;
+                case "low":
+                default:
+                    severityColor = getResources().getColor(R.color.severity_low, null);
+                    break;
+            }
+            tvSeverityBadge.setBackgroundColor(severityColor);
+        }
+
+        // Set image from URL or fallback to resource
+        if (ticketImageUrl != null && !ticketImageUrl.isEmpty()) {
+            loadImageFromUrl(ticketImageUrl);
+        } else if (ticketImageResId != 0) {
+            ivTicketImage.setImageResource(ticketImageResId);
+        }
+        if (ticket != null) {
+            // Tapping a thumbnail shows that photo in the main image
+            List<TicketPhoto> photos = ticket.getPhotos();
+            PhotoGalleryAdapter.bindTicketPhotos(rvPhotoGallery, photos,
+                    position -> loadImageFromUrl(photos.get(position).getMediumUrl()));
+        }
+    }
+
     private void setupClickListeners() {
         // Back button
         ImageView btnBack = findViewById(R.id.btnBack);
@@ -16,15 +16,10 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 public class EngineerDashboardActivity extends AppCompatActivity implements TicketAdapter.OnTicketActionListener {
 
     // Header views
@@ -44,12 +39,10 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
     private ImageView ivFilter;
     private Spinner spinnerTypes;
     private Spinner spinnerSeverities;
-    
+
     // Search filter buttons
     private TextView btnFilterLocation;
     private TextView btnFilterDescription;
-    private boolean isLocationFilterActive = false;
-    private boolean isDescriptionFilterActive = false;
 
     // Tabs
     private TextView tabPendingReview;
@@ -73,35 +66,33 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
     private String[] ticketTypes;
     private String[] severityLevels;
 
-    // Ticket data
-    private List<Ticket> allTickets;
-    private List<Ticket> pendingTickets;
-    private List<Ticket> acceptedTickets;
-    private List<Ticket> rejectedTickets;
-    private List<Ticket> spamTickets;
-    private List<Ticket> currentDisplayedTickets;
-
     // Adapter
-    private TicketAdapter ticketAdapter;
+    // One adapter per tab, swapped onto the same RecyclerView so switching tabs
+    // doesn't rebind a single adapter's data. They share one view pool.
+    private final TicketAdapter[] tabAdapters = new TicketAdapter[4];
+    private final int[] renderedVersions = {-1, -1, -1, -1};
+    private int displayedTab = -1;
 
-    // Current tab index
-    private int currentTabIndex = 0;
+    // Tickets, partitions, filters and stats live here and survive rotation
+    private EngineerDashboardViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Restores the session if the process was restarted on this screen
+        SupabaseManager.init(this);
         // Explicitly allow screenshots
         getWindow().clearFlags(android.view.WindowManager.LayoutParams.FLAG_SECURE);
-        
+
         try {
             setContentView(R.layout.activity_engineer_dashboard);
 
+            viewModel = new ViewModelProvider(this).get(EngineerDashboardViewModel.class);
+            viewModel.setTabPolicy(getTabPolicy());
+
             // Initialize views
             initializeViews();
 
-            // Initialize data lists
-            initializeDataLists();
-
             // Setup data
             setupData();
 
@@ -114,8 +105,10 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
             // Setup click listeners
             setupClickListeners();
 
-            // Load initial data
-            loadDashboardData();
+            // Render whatever state we already have, then load once
+            observeViewModel();
+            displayUserWelcome();
+            viewModel.load(SupabaseManager.getCurrentUserId(), false);
         } catch (Exception e) {
             e.printStackTrace();
             Toast.makeText(this, "Error loading dashboard: " + e.getMessage(), Toast.LENGTH_LONG).show();
@@ -126,74 +119,11 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         }
     }
 
-    private void initializeDataLists() {
-        allTickets = new ArrayList<>();
-        pendingTickets = new ArrayList<>();
-        acceptedTickets = new ArrayList<>();
-        rejectedTickets = new ArrayList<>();
-        spamTickets = new ArrayList<>();
-        currentDisplayedTickets = new ArrayList<>();
-
-        // Load tickets from Supabase
-        String currentUserId = SupabaseManager.getCurrentUserId();
-        if (currentUserId != null && !currentUserId.isEmpty()) {
-            TicketRepository.getEngineerTicketsWithStats(currentUserId, new TicketRepository.EngineerStatsCallback() {
-                @Override
-                public void onSuccess(List<Ticket> tickets, int newToday, int thisWeek, int highPriority, String avgResponse) {
-                    runOnUiThread(() -> {
-                        allTickets.clear();
-                        allTickets.addAll(tickets);
-                        
-                        // Categorize tickets by status
-                        pendingTickets.clear();
-                        acceptedTickets.clear();
-                        rejectedTickets.clear();
-                        spamTickets.clear();
-                        
-                        for (Ticket ticket : tickets) {
-                            // SPAM tickets should be filtered by RLS, but double-check
-                            if (ticket.getStatus() == Ticket.TicketStatus.SPAM) {
-                                continue; // Skip SPAM tickets for engineers
-                            }
-                            
-                            switch (ticket.getStatus()) {
-                                case PENDING:
-                                case UNDER_REVIEW:
-                                    pendingTickets.add(ticket);
-                                    break;
-                                case ACCEPTED:
-                                    acceptedTickets.add(ticket);
-                                    break;
-                                case REJECTED:
-                                    rejectedTickets.add(ticket);
-                                    break;
-                            }
-                        }
-                        
-                        // Update statistics with real data
-                        tvStatNewTodayValue.setText(String.valueOf(newToday));
-                        tvStatThisWeekValue.setText(String.valueOf(thisWeek));
-                        tvStatAvgResponseValue.setText(avgResponse);
-                        tvStatHighPriorityValue.setText(String.valueOf(highPriority));
-                        
-                        // Update UI
-                        loadDashboardData();
-                    });
-                }
-
-                @Override
-                public void onError(String message) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(EngineerDashboardActivity.this, 
-                            "Error loading tickets: " + message, Toast.LENGTH_SHORT).show();
-                        // Still initialize with empty lists
-                        loadDashboardData();
-                    });
-                }
-            });
-        } else {
-            Toast.makeText(this, "User not logged in", Toast.LENGTH_SHORT).show();
-        }
+    /**
+     * Which tab each ticket status goes to. Subclasses can change the grouping.
+     */
+    protected EngineerDashboardViewModel.TabPolicy getTabPolicy() {
+        return EngineerDashboardViewModel.DEFAULT_TAB_POLICY;
     }
 
     private void initializeViews() {
@@ -214,7 +144,7 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         ivFilter = findViewById(R.id.ivFilter);
         spinnerTypes = findViewById(R.id.spinnerTypes);
         spinnerSeverities = findViewById(R.id.spinnerSeverities);
-        
+
         // Filter buttons
         btnFilterLocation = findViewById(R.id.btnFilterLocation);
         btnFilterDescription = findViewById(R.id.btnFilterDescription);
@@ -239,9 +169,16 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
     }
 
     private void setupRecyclerView() {
-        ticketAdapter = new TicketAdapter(this, this, true); // true = engineer mode
+        RecyclerView.RecycledViewPool sharedPool = new RecyclerView.RecycledViewPool();
+        for (int i = 0; i < tabAdapters.length; i++) {
+            tabAdapters[i] = new TicketAdapter(this, this, true); // true = engineer mode
+        }
         recyclerViewTickets.setLayoutManager(new LinearLayoutManager(this));
-        recyclerViewTickets.setAdapter(ticketAdapter);
+        recyclerViewTickets.setRecycledViewPool(sharedPool);
+        recyclerViewTickets.setAdapter(tabAdapters[EngineerDashboardViewModel.TAB_PENDING]);
+        displayedTab = EngineerDashboardViewModel.TAB_PENDING;
+        // The list sits in the page's NestedScrollView and binds every row at once, it never
+        // scrolls itself, so a scroll-driven thumbnail preloader would have nothing to do
         recyclerViewTickets.setNestedScrollingEnabled(false);
     }
 
@@ -284,11 +221,11 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         severitiesAdapter.setDropDownViewResource(R.layout.spinner_dropdown_item);
         spinnerSeverities.setAdapter(severitiesAdapter);
 
-        // Set spinner listeners
+        // Set spinner listeners - position 0 is "All"
         spinnerTypes.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                filterTickets();
+                viewModel.setTypeFilter(position > 0 ? ticketTypes[position] : null);
             }
 
             @Override
@@ -300,7 +237,7 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         spinnerSeverities.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                filterTickets();
+                viewModel.setSeverityFilter(position > 0 ? severityLevels[position] : null);
             }
 
             @Override
@@ -322,15 +259,14 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         btnRefresh.setOnClickListener(v -> refreshDashboard());
 
         // Tab click listeners
-        tabPendingReview.setOnClickListener(v -> selectTab(0));
-        tabRejected.setOnClickListener(v -> selectTab(1));
-        tabSpam.setOnClickListener(v -> selectTab(2));
-        tabAccepted.setOnClickListener(v -> selectTab(3));
-
-        // Filter icon click
-        ivFilter.setOnClickListener(v -> {
-            Toast.makeText(this, "Advanced filter options", Toast.LENGTH_SHORT).show();
-        });
+        tabPendingReview.setOnClickListener(v -> viewModel.selectTab(EngineerDashboardViewModel.TAB_PENDING));
+        tabRejected.setOnClickListener(v -> viewModel.selectTab(EngineerDashboardViewModel.TAB_REJECTED));
+        tabSpam.setOnClickListener(v -> viewModel.selectTab(EngineerDashboardViewModel.TAB_SPAM));
+        tabAccepted.setOnClickListener(v -> viewModel.selectTab(EngineerDashboardViewModel.TAB_ACCEPTED));
+
+        // Filter icon click - pick sort order
+        ivFilter.setOnClickListener(v -> TicketSorter.showSortDialog(this, viewModel.getSortOrder(),
+                order -> viewModel.setSortOrder(order)));
 
         // Search text watcher
         etSearch.addTextChangedListener(new TextWatcher() {
@@ -339,28 +275,78 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterTickets();
+                viewModel.setSearchQuery(s.toString());
             }
 
             @Override
             public void afterTextChanged(Editable s) {}
         });
-        
+
         // Filter button click listeners
         btnFilterLocation.setOnClickListener(v -> {
-            isLocationFilterActive = !isLocationFilterActive;
-            updateFilterButtonState(btnFilterLocation, isLocationFilterActive);
-            filterTickets();
+            boolean active = !viewModel.isSearchLocation();
+            updateFilterButtonState(btnFilterLocation, active);
+            viewModel.setSearchFields(active, viewModel.isSearchDescription());
         });
-        
+
         btnFilterDescription.setOnClickListener(v -> {
-            isDescriptionFilterActive = !isDescriptionFilterActive;
-            updateFilterButtonState(btnFilterDescription, isDescriptionFilterActive);
-            filterTickets();
+            boolean active = !viewModel.isSearchDescription();
+            updateFilterButtonState(btnFilterDescription, active);
+            viewModel.setSearchFields(viewModel.isSearchLocation(), active);
+        });
+
+        // Restore toggle state kept across recreation
+        updateFilterButtonState(btnFilterLocation, viewModel.isSearchLocation());
+        updateFilterButtonState(btnFilterDescription, viewModel.isSearchDescription());
+    }
+
+    private void observeViewModel() {
+        viewModel.getState().observe(this, this::render);
+        viewModel.getMessages().observe(this, message -> {
+            if (message != null) {
+                Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+                viewModel.clearMessage();
+            }
         });
     }
 
-    private void loadDashboardData() {
+    private void render(EngineerDashboardViewModel.Snapshot snapshot) {
+        // Statistics come from Supabase (server-side for accuracy)
+        tvStatNewTodayValue.setText(String.valueOf(snapshot.newToday));
+        tvStatThisWeekValue.setText(String.valueOf(snapshot.thisWeek));
+        tvStatAvgResponseValue.setText(snapshot.avgResponse);
+        tvStatHighPriorityValue.setText(String.valueOf(snapshot.highPriority));
+
+        updateTabCounts(snapshot.pendingCount, snapshot.rejectedCount,
+                snapshot.spamCount, snapshot.acceptedCount);
+        updateTabStyles(snapshot.currentTab);
+
+        int tab = snapshot.currentTab;
+        if (snapshot.visibleTickets != null && renderedVersions[tab] != snapshot.visibleVersion) {
+            // Only push data when this tab's list actually changed
+            tabAdapters[tab].setTickets(snapshot.visibleTickets);
+            renderedVersions[tab] = snapshot.visibleVersion;
+        }
+        if (displayedTab != tab) {
+            // Recycle current rows into the shared pool for the new adapter to reuse
+            recyclerViewTickets.swapAdapter(tabAdapters[tab], true);
+            displayedTab = tab;
+        }
+
+        if (snapshot.visibleTickets == null) {
+            // Still filtering this tab: its adapter holds the list from before the change
+            // and the empty state belongs to the previous tab, so show neither
+            hideTickets();
+            return;
+        }
+        if (snapshot.visibleTickets.isEmpty()) {
+            showEmptyState();
+        } else {
+            hideEmptyState();
+        }
+    }
+
+    private void displayUserWelcome() {
         // Set welcome message with username
         String fullName = SupabaseManager.getCurrentFullName();
         if (fullName != null && !fullName.isEmpty()) {
@@ -368,24 +354,9 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
                 tvWelcome.setText("Welcome, " + fullName);
             }
         }
-
-        // Update tab counts
-        updateTabCounts(pendingTickets.size(), rejectedTickets.size(),
-                spamTickets.size(), acceptedTickets.size());
-
-        // Load tickets for current tab
-        selectTab(currentTabIndex);
-    }
-
-    private void updateStatisticsFromTickets() {
-        // Statistics are now updated in real-time from Supabase in initializeDataLists()
-        // This method is kept for backward compatibility but does nothing
-        // The stats are calculated server-side for accuracy
     }
 
-    private void selectTab(int tabIndex) {
-        currentTabIndex = tabIndex;
-
+    private void updateTabStyles(int tabIndex) {
         // Reset all tabs to unselected state
         tabPendingReview.setBackgroundResource(R.drawable.bg_tab_unselected);
         tabPendingReview.setTextColor(getResources().getColor(R.color.text_secondary, null));
@@ -401,40 +372,23 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
 
         // Set selected tab
         TextView selectedTab;
-        List<Ticket> ticketsToShow;
-
         switch (tabIndex) {
-            case 0:
-                selectedTab = tabPendingReview;
-                ticketsToShow = pendingTickets;
-                break;
-            case 1:
+            case EngineerDashboardViewModel.TAB_REJECTED:
                 selectedTab = tabRejected;
-                ticketsToShow = rejectedTickets;
                 break;
-            case 2:
+            case EngineerDashboardViewModel.TAB_SPAM:
                 selectedTab = tabSpam;
-                ticketsToShow = spamTickets;
                 break;
-            case 3:
+            case EngineerDashboardViewModel.TAB_ACCEPTED:
                 selectedTab = tabAccepted;
-                ticketsToShow = acceptedTickets;
                 break;
+            case EngineerDashboardViewModel.TAB_PENDING:
             default:
                 selectedTab = tabPendingReview;
-                ticketsToShow = pendingTickets;
         }
 
         selectedTab.setBackgroundResource(R.drawable.bg_tab_selected);
         selectedTab.setTextColor(getResources().getColor(R.color.text_primary, null));
-
-        // Load tickets for selected tab
-        loadTicketsForTab(ticketsToShow);
-    }
-
-    private void loadTicketsForTab(List<Ticket> tickets) {
-        currentDisplayedTickets = new ArrayList<>(tickets);
-        filterTickets();
     }
 
     private void updateTabCounts(int pendingCount, int rejectedCount, int spamCount, int acceptedCount) {
@@ -454,69 +408,14 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         recyclerViewTickets.setVisibility(View.VISIBLE);
     }
 
-    private void filterTickets() {
-        String selectedType = spinnerTypes.getSelectedItem().toString();
-        String selectedSeverity = spinnerSeverities.getSelectedItem().toString();
-        String searchQuery = etSearch.getText().toString().toLowerCase();
-
-        List<Ticket> filteredTickets = new ArrayList<>(currentDisplayedTickets);
-
-        // Filter by type
-        if (!selectedType.equals(getString(R.string.all_types))) {
-            filteredTickets = filteredTickets.stream()
-                    .filter(t -> t.getType().equals(selectedType))
-                    .collect(Collectors.toList());
-        }
-
-        // Filter by severity
-        if (!selectedSeverity.equals(getString(R.string.all_severities))) {
-            filteredTickets = filteredTickets.stream()
-                    .filter(t -> t.getSeverity().equals(selectedSeverity))
-                    .collect(Collectors.toList());
-        }
-
-        // Filter by search query with location/description filter buttons
-        if (!searchQuery.isEmpty()) {
-            // Determine which fields to search based on button states
-            boolean searchLocation = isLocationFilterActive;
-            boolean searchDescription = isDescriptionFilterActive;
-            
-            // If neither button is active, search both (default behavior)
-            if (!searchLocation && !searchDescription) {
-                searchLocation = true;
-                searchDescription = true;
-            }
-            
-            final boolean finalSearchLocation = searchLocation;
-            final boolean finalSearchDescription = searchDescription;
-            
-            filteredTickets = filteredTickets.stream()
-                    .filter(t -> {
-                        boolean matches = false;
-                        if (finalSearchLocation) {
-                            matches = matches || t.getLocation().toLowerCase().contains(searchQuery);
-                        }
-                        if (finalSearchDescription) {
-                            matches = matches || t.getDescription().toLowerCase().contains(searchQuery);
-                        }
-                        return matches;
-                    })
-                    .collect(Collectors.toList());
-        }
-
-        // Update adapter
-        if (filteredTickets.isEmpty()) {
-            showEmptyState();
-        } else {
-            hideEmptyState();
-            ticketAdapter.setTickets(filteredTickets);
-        }
+    private void hideTickets() {
+        emptyStateContainer.setVisibility(View.GONE);
+        recyclerViewTickets.setVisibility(View.INVISIBLE);
     }
 
     private void refreshDashboard() {
-        // Reload data
-        initializeDataLists();
-        loadDashboardData();
+        // Explicit refresh is the only path that reloads from the network
+        viewModel.load(SupabaseManager.getCurrentUserId(), true);
         Toast.makeText(this, "Dashboard refreshed", Toast.LENGTH_SHORT).show();
     }
 
@@ -528,7 +427,7 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
         startActivity(intent);
         finish();
     }
-    
+
     private void updateFilterButtonState(TextView button, boolean isActive) {
         if (isActive) {
             // Selected state: green background, white text
@@ -577,106 +476,34 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
     // Ticket action callbacks
     @Override
     public void onAccept(Ticket ticket, int position) {
-        showReasonDialog("Accept Ticket", "Please provide a reason for accepting this ticket:", (reason) -> {
-            String dbId = ticket.getDbId(); // Get database UUID
-            String engineerId = SupabaseManager.getCurrentUserId();
-            
-            TicketRepository.engineerProcessTicket(dbId, engineerId, "ACCEPTED", reason, new TicketRepository.AssignTicketCallback() {
-                @Override
-                public void onSuccess() {
-                    runOnUiThread(() -> {
-                        ticket.setStatus(Ticket.TicketStatus.ACCEPTED);
-                        ticket.setReason(reason);
-                        pendingTickets.remove(ticket);
-                        acceptedTickets.add(ticket);
-
-                        ticketAdapter.removeTicket(position);
-                        updateTabCounts(pendingTickets.size(), rejectedTickets.size(),
-                                spamTickets.size(), acceptedTickets.size());
-                        updateStatisticsFromTickets();
-
-                        Toast.makeText(EngineerDashboardActivity.this, "Ticket " + ticket.getId() + " accepted", Toast.LENGTH_SHORT).show();
-
-                        if (ticketAdapter.getItemCount() == 0) {
-                            showEmptyState();
-                        }
-                    });
-                }
-                
-                @Override
-                public void onError(String message) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(EngineerDashboardActivity.this, "Error: " + message, Toast.LENGTH_SHORT).show();
-                    });
-                }
-            });
-        });
+        showReasonDialog("Accept Ticket", "Please provide a reason for accepting this ticket:", (reason) ->
+                processTicket(ticket, Ticket.TicketStatus.ACCEPTED, reason, " accepted"));
     }
 
     @Override
     public void onReject(Ticket ticket, int position) {
-        showReasonDialog("Reject Ticket", "Please provide a reason for rejecting this ticket:", (reason) -> {
-            String dbId = ticket.getDbId(); // Get database UUID
-            String engineerId = SupabaseManager.getCurrentUserId();
-            
-            TicketRepository.engineerProcessTicket(dbId, engineerId, "REJECTED", reason, new TicketRepository.AssignTicketCallback() {
-                @Override
-                public void onSuccess() {
-                    runOnUiThread(() -> {
-                        ticket.setStatus(Ticket.TicketStatus.REJECTED);
-                        ticket.setReason(reason);
-                        pendingTickets.remove(ticket);
-                        rejectedTickets.add(ticket);
-
-                        ticketAdapter.removeTicket(position);
-                        updateTabCounts(pendingTickets.size(), rejectedTickets.size(),
-                                spamTickets.size(), acceptedTickets.size());
-                        updateStatisticsFromTickets();
-
-                        Toast.makeText(EngineerDashboardActivity.this, "Ticket " + ticket.getId() + " rejected", Toast.LENGTH_SHORT).show();
-
-                        if (ticketAdapter.getItemCount() == 0) {
-                            showEmptyState();
-                        }
-                    });
-                }
-                
-                @Override
-                public void onError(String message) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(EngineerDashboardActivity.this, "Error: " + message, Toast.LENGTH_SHORT).show();
-                    });
-                }
-            });
-        });
+        showReasonDialog("Reject Ticket", "Please provide a reason for rejecting this ticket:", (reason) ->
+                processTicket(ticket, Ticket.TicketStatus.REJECTED, reason, " rejected"));
     }
 
     @Override
     public void onSpam(Ticket ticket, int position) {
+        processTicket(ticket, Ticket.TicketStatus.SPAM, null, " marked as spam");
+    }
+
+    private void processTicket(Ticket ticket, Ticket.TicketStatus newStatus, String reason, String doneMessage) {
         String dbId = ticket.getDbId(); // Get database UUID
         String engineerId = SupabaseManager.getCurrentUserId();
-        
-        TicketRepository.engineerProcessTicket(dbId, engineerId, "SPAM", null, new TicketRepository.AssignTicketCallback() {
+
+        TicketRepository.engineerProcessTicket(dbId, engineerId, newStatus.name(), reason, new TicketRepository.AssignTicketCallback() {
             @Override
             public void onSuccess() {
                 runOnUiThread(() -> {
-                    ticket.setStatus(Ticket.TicketStatus.SPAM);
-                    pendingTickets.remove(ticket);
-                    spamTickets.add(ticket);
-
-                    ticketAdapter.removeTicket(position);
-                    updateTabCounts(pendingTickets.size(), rejectedTickets.size(),
-                            spamTickets.size(), acceptedTickets.size());
-                    updateStatisticsFromTickets();
-
-                    Toast.makeText(EngineerDashboardActivity.this, "Ticket " + ticket.getId() + " marked as spam", Toast.LENGTH_SHORT).show();
-
-                    if (ticketAdapter.getItemCount() == 0) {
-                        showEmptyState();
-                    }
+                    viewModel.moveTicket(ticket, newStatus, reason);
+                    Toast.makeText(EngineerDashboardActivity.this, "Ticket " + ticket.getId() + doneMessage, Toast.LENGTH_SHORT).show();
                 });
             }
-            
+
             @Override
             public void onError(String message) {
                 runOnUiThread(() -> {
@@ -688,23 +515,9 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
 
     @Override
     public void onView(Ticket ticket, int position) {
-        // Open ticket detail activity
+        // Open ticket detail activity - the detail screen resolves the ticket by ID
         Intent intent = new Intent(this, TicketDetailActivity.class);
         intent.putExtra("ticket_id", ticket.getId());
-        intent.putExtra("type", ticket.getType());
-        intent.putExtra("severity", ticket.getSeverity());
-        intent.putExtra("location", ticket.getLocation());
-        intent.putExtra("date_time", ticket.getDateTime());
-        intent.putExtra("description", ticket.getDescription());
-        intent.putExtra("image_name", ticket.getImageName());
-        // Include image URL for engineer view rendering
-        intent.putExtra("image_url", ticket.getImageUrl());
-        intent.putExtra("status", ticket.getStatus().name());
-        intent.putExtra("reason", ticket.getReason());
-        // Additional context for engineer detail view
-        intent.putExtra("username", ticket.getUsername());
-        intent.putExtra("assigned_to", ticket.getAssignedTo());
-        intent.putExtra("council_notes", ticket.getCouncilNotes());
         intent.putExtra("db_id", ticket.getDbId());
         intent.putExtra("citizen_view", false); // Engineer view!
         startActivityForResult(intent, 100);
@@ -717,19 +530,12 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
             .setTitle("Delete Ticket")
             .setMessage("Are you sure you want to delete ticket " + ticket.getId() + "?")
             .setPositiveButton("DELETE", (dialog, which) -> {
-                // Remove from all lists
-                pendingTickets.remove(ticket);
-                acceptedTickets.remove(ticket);
-                rejectedTickets.remove(ticket);
-                spamTickets.remove(ticket);
-                allTickets.remove(ticket);
-                
+                // Remove from all partitions
+                viewModel.removeTicket(ticket);
+
                 // Remove from TicketManager
                 TicketManager.getInstance().deleteTicket(ticket.getId());
-                
-                // Refresh current tab
-                selectTab(currentTabIndex);
-                
+
                 Toast.makeText(this, "Ticket " + ticket.getId() + " deleted", Toast.LENGTH_SHORT).show();
             })
             .setNegativeButton("CANCEL", null)
@@ -746,72 +552,24 @@ public class EngineerDashboardActivity extends AppCompatActivity implements Tick
             String reason = data.getStringExtra("reason");
 
             if (ticketId != null && newStatus != null) {
-                // Find and update the ticket in the appropriate list
-                Ticket ticketToUpdate = findTicketById(ticketId);
+                // Find the ticket and move it to the partition for its new status
+                Ticket ticketToUpdate = viewModel.findTicketById(ticketId);
                 if (ticketToUpdate != null) {
-                    // Remove from current list
-                    pendingTickets.remove(ticketToUpdate);
-                    acceptedTickets.remove(ticketToUpdate);
-                    rejectedTickets.remove(ticketToUpdate);
-                    spamTickets.remove(ticketToUpdate);
-
-                    // Update ticket status
-                    ticketToUpdate.setStatus(Ticket.TicketStatus.valueOf(newStatus));
-                    if (reason != null) {
-                        ticketToUpdate.setReason(reason);
-                    }
+                    viewModel.moveTicket(ticketToUpdate, Ticket.TicketStatus.valueOf(newStatus), reason);
 
-                    // Add to new list based on status
                     switch (newStatus) {
                         case "ACCEPTED":
-                            acceptedTickets.add(ticketToUpdate);
                             Toast.makeText(this, "Ticket " + ticketId + " accepted", Toast.LENGTH_SHORT).show();
                             break;
                         case "REJECTED":
-                            rejectedTickets.add(ticketToUpdate);
                             Toast.makeText(this, "Ticket " + ticketId + " rejected", Toast.LENGTH_SHORT).show();
                             break;
                         case "SPAM":
-                            spamTickets.add(ticketToUpdate);
                             Toast.makeText(this, "Ticket " + ticketId + " marked as spam", Toast.LENGTH_SHORT).show();
                             break;
                     }
-
-                    // Update UI
-                    updateTabCounts(pendingTickets.size(), rejectedTickets.size(),
-                            spamTickets.size(), acceptedTickets.size());
-                    updateStatisticsFromTickets();
-                    refreshTicketLists();
                 }
             }
         }
     }
-
-    private Ticket findTicketById(String ticketId) {
-        // Search in all lists
-        for (Ticket ticket : allTickets) {
-            if (ticket.getId().equals(ticketId)) {
-                return ticket;
-            }
-        }
-        return null;
-    }
-
-    private void refreshTicketLists() {
-        // Re-filter and display current tab
-        switch (currentTabIndex) {
-            case 0:
-                selectTab(0);
-                break;
-            case 1:
-                selectTab(1);
-                break;
-            case 2:
-                selectTab(2);
-                break;
-            case 3:
-                selectTab(3);
-                break;
-        }
-    }
 }
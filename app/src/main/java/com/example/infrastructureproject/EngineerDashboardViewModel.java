@@ -0,0 +1,449 @@
+package com.example.infrastructureproject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Engineer dashboard state shared by both engineer dashboard screens.
+ * Owns the loaded tickets, tab partitions, filters and stats, survives
+ * configuration changes, and publishes immutable {@link Snapshot}s.
+ */
+public class EngineerDashboardViewModel extends ViewModel {
+
+    public static final int TAB_PENDING = 0;
+    public static final int TAB_REJECTED = 1;
+    public static final int TAB_SPAM = 2;
+    public static final int TAB_ACCEPTED = 3;
+    private static final int TAB_COUNT = 4;
+
+    /**
+     * Decides which tab a ticket status belongs to, or -1 to hide it.
+     */
+    public interface TabPolicy {
+        int tabFor(Ticket.TicketStatus status);
+    }
+
+    // SPAM is filtered by RLS for engineers, but hide it here too
+    public static final TabPolicy DEFAULT_TAB_POLICY = status -> {
+        switch (status) {
+            case PENDING:
+            case UNDER_REVIEW:
+                return TAB_PENDING;
+            case ACCEPTED:
+                return TAB_ACCEPTED;
+            case REJECTED:
+                return TAB_REJECTED;
+            case SPAM:
+            default:
+                return -1;
+        }
+    };
+
+    /**
+     * Immutable view of the dashboard, safe to hand to the UI.
+     * visibleTickets is null while the current tab is still being filtered.
+     */
+    public static final class Snapshot {
+        public final int currentTab;
+        public final List<Ticket> visibleTickets;
+        public final int visibleVersion; // Changes whenever the current tab's list changes
+        public final int pendingCount;
+        public final int rejectedCount;
+        public final int spamCount;
+        public final int acceptedCount;
+        public final int newToday;
+        public final int thisWeek;
+        public final int highPriority;
+        public final String avgResponse;
+        public final boolean loading;
+
+        Snapshot(int currentTab, List<Ticket> visibleTickets, int visibleVersion, int[] tabCounts,
+                 int newToday, int thisWeek, int highPriority, String avgResponse, boolean loading) {
+            this.currentTab = currentTab;
+            this.visibleTickets = visibleTickets != null ? Collections.unmodifiableList(visibleTickets) : null;
+            this.visibleVersion = visibleVersion;
+            this.pendingCount = tabCounts[TAB_PENDING];
+            this.rejectedCount = tabCounts[TAB_REJECTED];
+            this.spamCount = tabCounts[TAB_SPAM];
+            this.acceptedCount = tabCounts[TAB_ACCEPTED];
+            this.newToday = newToday;
+            this.thisWeek = thisWeek;
+            this.highPriority = highPriority;
+            this.avgResponse = avgResponse;
+            this.loading = loading;
+        }
+    }
+
+    private final MutableLiveData<Snapshot> state = new MutableLiveData<>();
+    private final MutableLiveData<String> messages = new MutableLiveData<>();
+
+    // Filtering and sorting run here; all fields below are only touched on the main thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private TabPolicy tabPolicy = DEFAULT_TAB_POLICY;
+    private final List<Ticket> allTickets = new ArrayList<>();
+    // One partition per status, kept up to date incrementally as tickets move
+    private final EnumMap<Ticket.TicketStatus, LinkedHashSet<Ticket>> partitions =
+            new EnumMap<>(Ticket.TicketStatus.class);
+    // Filtered + sorted list per tab (null = needs computing). Cached lists are
+    // never mutated once published; updates replace them with a new list.
+    private final List<List<Ticket>> tabCache = new ArrayList<>();
+    private final int[] tabVersions = new int[TAB_COUNT];
+    private final int[] tabEpochs = new int[TAB_COUNT]; // Bumped on any change, drops stale background results
+
+    // Filters
+    private int currentTab = TAB_PENDING;
+    private String typeFilter;     // null = all types
+    private String severityFilter; // null = all severities
+    private String searchQuery = "";
+    private boolean searchLocation = false;
+    private boolean searchDescription = false;
+    private TicketSorter.SortOrder sortOrder = TicketSorter.SortOrder.NEWEST;
+
+    // Stats from getEngineerTicketsWithStats
+    private int newToday;
+    private int thisWeek;
+    private int highPriority;
+    private String avgResponse = "...";
+
+    private boolean loaded = false;
+    private boolean loading = false;
+
+    public EngineerDashboardViewModel() {
+        for (Ticket.TicketStatus status : Ticket.TicketStatus.values()) {
+            partitions.put(status, new LinkedHashSet<>());
+        }
+        for (int i = 0; i < TAB_COUNT; i++) {
+            tabCache.add(null);
+        }
+    }
+
+    public LiveData<Snapshot> getState() {
+        return state;
+    }
+
+    /**
+     * One-shot user messages (errors, confirmations). Call {@link #clearMessage()} once shown.
+     */
+    public LiveData<String> getMessages() {
+        return messages;
+    }
+
+    public void clearMessage() {
+        messages.setValue(null);
+    }
+
+    public void setTabPolicy(TabPolicy policy) {
+        if (policy != null && policy != tabPolicy) {
+            tabPolicy = policy;
+            repartition();
+        }
+    }
+
+    /**
+     * Load the engineer's tickets. Does nothing if already loaded, unless forced,
+     * so recreated screens reuse the data instead of hitting the network.
+     */
+    public void load(String engineerId, boolean force) {
+        if (loading || (loaded && !force)) {
+            return;
+        }
+        if (engineerId == null || engineerId.isEmpty()) {
+            messages.setValue("User not logged in");
+            return;
+        }
+        loading = true;
+        publish();
+
+        TicketRepository.getEngineerTicketsWithStats(engineerId, new TicketRepository.EngineerStatsCallback() {
+            @Override
+            public void onSuccess(List<Ticket> tickets, int newToday, int thisWeek, int highPriority, String avgResponse) {
+                mainHandler.post(() -> {
+                    allTickets.clear();
+                    allTickets.addAll(tickets);
+                    EngineerDashboardViewModel.this.newToday = newToday;
+                    EngineerDashboardViewModel.this.thisWeek = thisWeek;
+                    EngineerDashboardViewModel.this.highPriority = highPriority;
+                    EngineerDashboardViewModel.this.avgResponse = avgResponse;
+                    loaded = true;
+                    loading = false;
+                    repartition();
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                mainHandler.post(() -> {
+                    loading = false;
+                    messages.setValue("Error loading tickets: " + message);
+                    publish();
+                });
+            }
+        });
+    }
+
+    /**
+     * O(1) when the tab's filtered list is already cached, otherwise filters it now.
+     */
+    public void selectTab(int tab) {
+        currentTab = tab;
+        if (tabCache.get(tab) == null) {
+            recomputeTab(tab);
+        }
+        publish();
+    }
+
+    public void setTypeFilter(String type) {
+        typeFilter = type;
+        invalidateAllTabs();
+    }
+
+    public void setSeverityFilter(String severity) {
+        severityFilter = severity;
+        invalidateAllTabs();
+    }
+
+    public void setSearchQuery(String query) {
+        searchQuery = query != null ? query.toLowerCase() : "";
+        invalidateAllTabs();
+    }
+
+    public void setSearchFields(boolean location, boolean description) {
+        searchLocation = location;
+        searchDescription = description;
+        invalidateAllTabs();
+    }
+
+    public void setSortOrder(TicketSorter.SortOrder order) {
+        sortOrder = order;
+        invalidateAllTabs();
+    }
+
+    public int getCurrentTab() { return currentTab; }
+    public boolean isSearchLocation() { return searchLocation; }
+    public boolean isSearchDescription() { return searchDescription; }
+    public TicketSorter.SortOrder getSortOrder() { return sortOrder; }
+
+    /**
+     * Apply a status change (e.g. after engineerProcessTicket succeeds). Only the
+     * two affected partitions and tab lists are touched; nothing is re-filtered.
+     */
+    public void moveTicket(Ticket ticket, Ticket.TicketStatus newStatus, String reason) {
+        Ticket.TicketStatus oldStatus = ticket.getStatus();
+        for (LinkedHashSet<Ticket> partition : partitions.values()) {
+            // Normally just the old status, but the detail screen may already have updated it
+            if (partition.remove(ticket)) break;
+        }
+        int oldTab = -1;
+        for (int tab = 0; tab < TAB_COUNT; tab++) {
+            List<Ticket> cached = tabCache.get(tab);
+            if (cached != null && cached.contains(ticket)) {
+                oldTab = tab;
+                break;
+            }
+        }
+        if (oldTab < 0 && oldStatus != null) {
+            oldTab = tabPolicy.tabFor(oldStatus);
+        }
+
+        ticket.setStatus(newStatus);
+        if (reason != null) {
+            ticket.setReason(reason);
+        }
+        partitions.get(newStatus).add(ticket);
+        int newTab = tabPolicy.tabFor(newStatus);
+
+        if (oldTab >= 0) {
+            removeFromTab(oldTab, ticket);
+        }
+        if (newTab >= 0) {
+            insertIntoTab(newTab, ticket);
+        }
+        publish();
+    }
+
+    public void removeTicket(Ticket ticket) {
+        allTickets.remove(ticket);
+        for (LinkedHashSet<Ticket> partition : partitions.values()) {
+            partition.remove(ticket);
+        }
+        for (int tab = 0; tab < TAB_COUNT; tab++) {
+            removeFromTab(tab, ticket);
+        }
+        publish();
+    }
+
+    public Ticket findTicketById(String ticketId) {
+        for (Ticket ticket : allTickets) {
+            if (ticket.getId().equals(ticketId)) {
+                return ticket;
+            }
+        }
+        return null;
+    }
+
+    private void repartition() {
+        for (LinkedHashSet<Ticket> partition : partitions.values()) {
+            partition.clear();
+        }
+        for (Ticket ticket : allTickets) {
+            if (ticket.getStatus() != null) {
+                partitions.get(ticket.getStatus()).add(ticket);
+            }
+        }
+        invalidateAllTabs();
+    }
+
+    // Filters or sort changed: drop every tab's list but only rebuild the current one,
+    // the others are filtered when they are selected
+    private void invalidateAllTabs() {
+        for (int tab = 0; tab < TAB_COUNT; tab++) {
+            tabCache.set(tab, null);
+            tabEpochs[tab]++;
+        }
+        recomputeTab(currentTab);
+        publish();
+    }
+
+    private void removeFromTab(int tab, Ticket ticket) {
+        tabEpochs[tab]++;
+        List<Ticket> cached = tabCache.get(tab);
+        if (cached == null) {
+            // The bumped epoch drops any pass in flight; other tabs wait until selected
+            if (tab == currentTab) {
+                recomputeTab(tab);
+            }
+            return;
+        }
+        if (cached.contains(ticket)) {
+            List<Ticket> updated = new ArrayList<>(cached);
+            updated.remove(ticket);
+            tabCache.set(tab, updated);
+            tabVersions[tab]++;
+        }
+    }
+
+    private void insertIntoTab(int tab, Ticket ticket) {
+        tabEpochs[tab]++;
+        List<Ticket> cached = tabCache.get(tab);
+        if (cached == null) {
+            // The bumped epoch drops any pass in flight; other tabs wait until selected
+            if (tab == currentTab) {
+                recomputeTab(tab);
+            }
+            return;
+        }
+        if (!cached.contains(ticket) && newFilter().matches(ticket)) {
+            // Binary search for the sorted position instead of re-sorting the tab
+            Comparator<Ticket> comparator = TicketSorter.comparatorFor(sortOrder);
+            int index = Collections.binarySearch(cached, ticket, comparator);
+            if (index < 0) index = -index - 1;
+            List<Ticket> updated = new ArrayList<>(cached);
+            updated.add(index, ticket);
+            tabCache.set(tab, updated);
+            tabVersions[tab]++;
+        }
+    }
+
+    // Filter and sort one tab off the main thread, then publish if nothing changed meanwhile
+    private void recomputeTab(int tab) {
+        final int epoch = tabEpochs[tab];
+        final List<Ticket> source = new ArrayList<>();
+        for (Ticket.TicketStatus status : Ticket.TicketStatus.values()) {
+            if (tabPolicy.tabFor(status) == tab) {
+                source.addAll(partitions.get(status));
+            }
+        }
+        final TicketFilter filter = newFilter();
+        final Comparator<Ticket> comparator = TicketSorter.comparatorFor(sortOrder);
+
+        executor.execute(() -> {
+            List<Ticket> result = new ArrayList<>(source.size());
+            for (Ticket t : source) {
+                if (filter.matches(t)) {
+                    result.add(t);
+                }
+            }
+            result.sort(comparator);
+
+            mainHandler.post(() -> {
+                if (epoch != tabEpochs[tab]) {
+                    // Tab changed while we were filtering - its own update already queued a fresh pass
+                    return;
+                }
+                tabCache.set(tab, result);
+                tabVersions[tab]++;
+                if (tab == currentTab) {
+                    publish();
+                }
+            });
+        });
+    }
+
+    private TicketFilter newFilter() {
+        // If neither field button is active, search both (default behaviour)
+        return new TicketFilter(typeFilter, severityFilter, searchQuery,
+                searchLocation || !searchDescription,
+                searchDescription || !searchLocation);
+    }
+
+    // Immutable copy of the filter settings, safe to use from the background executor
+    private static final class TicketFilter {
+        private final String type;
+        private final String severity;
+        private final String query;
+        private final boolean inLocation;
+        private final boolean inDescription;
+
+        TicketFilter(String type, String severity, String query, boolean inLocation, boolean inDescription) {
+            this.type = type;
+            this.severity = severity;
+            this.query = query;
+            this.inLocation = inLocation;
+            this.inDescription = inDescription;
+        }
+
+        boolean matches(Ticket t) {
+            if (type != null && !t.getType().equals(type)) return false;
+            if (severity != null && !t.getSeverity().equals(severity)) return false;
+            if (!query.isEmpty()) {
+                return (inLocation && t.getLocation().toLowerCase().contains(query))
+                        || (inDescription && t.getDescription().toLowerCase().contains(query));
+            }
+            return true;
+        }
+    }
+
+    private void publish() {
+        // Tab counts come straight from the partition sizes
+        int[] counts = new int[TAB_COUNT];
+        for (Ticket.TicketStatus status : Ticket.TicketStatus.values()) {
+            int tab = tabPolicy.tabFor(status);
+            if (tab >= 0) {
+                counts[tab] += partitions.get(status).size();
+            }
+        }
+        state.setValue(new Snapshot(currentTab, tabCache.get(currentTab), tabVersions[currentTab], counts,
+                newToday, thisWeek, highPriority, avgResponse, loading));
+    }
+
+    @Override
+    protected void onCleared() {
+        executor.shutdownNow();
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+}
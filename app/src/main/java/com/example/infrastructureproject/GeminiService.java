@@ -0,0 +1,245 @@
+package com.example.infrastructureproject;
+
+import android.util.Log;
+
+import com.google.ai.client.generativeai.GenerativeModel;
+import com.google.ai.client.generativeai.java.GenerativeModelFutures;
+import com.google.ai.client.generativeai.type.CountTokensResponse;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.genai.Client;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.Part;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One Gemini setup for the whole process: the image classification client and
+ * the chat model are created on first use and shared by every screen, so their
+ * HTTP connection pools stay warm between requests. {@link #warmUp()} can be
+ * called after login to pay for client creation and the TLS handshake before
+ * the first real request.
+ */
+public class GeminiService {
+    private static final String TAG = "GeminiService";
+
+    public static final String CLASSIFICATION_MODEL = "gemini-2.5-flash-lite";
+    public static final String CLASSIFICATION_PROMPT = "Analyze this infrastructure image and identify: 1) Issue type (Pothole, Broken Streetlight, Damaged Pipe, or Other), 2) Severity level (Low, Medium, or High), 3) Detailed description of the problem, 4) Estimated location or landmark visible in the image. Provide accurate infrastructure assessment.";
+    // Structured output for one image, parsed to auto-fill the report form
+    public static final ImmutableMap<String, Object> CLASSIFICATION_SCHEMA = ImmutableMap.of(
+            "type", "object",
+            "properties", ImmutableMap.of(
+                    "issue_type", ImmutableMap.of(
+                            "type", "string",
+                            "enum", ImmutableList.of("Pothole", "Broken Streetlight", "Damaged Pipe", "Other")
+                    ),
+                    "severity", ImmutableMap.of(
+                            "type", "string",
+                            "enum", ImmutableList.of("Low", "Medium", "High")
+                    ),
+                    "description", ImmutableMap.of(
+                            "type", "string",
+                            "description", "Detailed description of the infrastructure issue"
+                    ),
+                    "location", ImmutableMap.of(
+                            "type", "string",
+                            "description", "Location or landmark visible in the image"
+                    )
+            ),
+            "required", ImmutableList.of("issue_type", "severity", "description", "location")
+    );
+    private static final List<String> SEVERITY_ORDER = Arrays.asList("Low", "Medium", "High");
+
+    // Blocking model calls; two so a classification never waits behind a warm-up
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static final AtomicBoolean warmedUp = new AtomicBoolean(false);
+
+    private static Client classificationClient;
+    private static GenerativeModelFutures chatModel;
+
+    private GeminiService() {
+    }
+
+    public static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public static synchronized Client getClassificationClient() {
+        if (classificationClient == null) {
+            classificationClient = Client.builder()
+                    .apiKey(BuildConfig.GEMINI_API_KEY)
+                    .build();
+        }
+        return classificationClient;
+    }
+
+    public static synchronized GenerativeModelFutures getChatModel() {
+        if (chatModel == null) {
+            chatModel = GenerativeModelFutures.from(
+                    new GenerativeModel(BuildConfig.GEMINI_MODEL, BuildConfig.GEMINI_API_KEY));
+        }
+        return chatModel;
+    }
+
+    /**
+     * Classify an image with structured JSON output and return the raw JSON.
+     * Blocking, must not be called on the main thread.
+     */
+    public static String classifyImage(byte[] image, String mimeType, String prompt,
+                                       Map<String, Object> schema) {
+        GenerateContentConfig config = GenerateContentConfig.builder()
+                .responseMimeType("application/json")
+                .candidateCount(1)
+                .responseJsonSchema(schema)
+                .build();
+        Content content = Content.fromParts(
+                Part.fromText(prompt),
+                Part.fromBytes(image, mimeType)
+        );
+        GenerateContentResponse response = getClassificationClient().models.generateContent(
+                CLASSIFICATION_MODEL, content, config);
+        return response.text();
+    }
+
+    /**
+     * Classify several images in one structured-output request. The item schema
+     * describes one image's result; the model returns a list of them, each tagged
+     * with the position of its image. Returns one JSON object per image, in input
+     * order, with null where the model gave no result. Blocking.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> classifyImages(List<byte[]> images, String mimeType, String prompt,
+                                              Map<String, Object> itemSchema) throws JSONException {
+        Map<String, Object> properties = new LinkedHashMap<>((Map<String, Object>) itemSchema.get("properties"));
+        properties.put("image_index", Collections.singletonMap("type", "integer"));
+        List<Object> required = new ArrayList<>((List<Object>) itemSchema.get("required"));
+        required.add("image_index");
+        Map<String, Object> item = new LinkedHashMap<>(itemSchema);
+        item.put("properties", properties);
+        item.put("required", required);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("type", "array");
+        results.put("items", item);
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", Collections.singletonMap("results", results));
+        schema.put("required", Collections.singletonList("results"));
+
+        GenerateContentConfig config = GenerateContentConfig.builder()
+                .responseMimeType("application/json")
+                .candidateCount(1)
+                .responseJsonSchema(schema)
+                .build();
+        List<Part> parts = new ArrayList<>();
+        parts.add(Part.fromText(prompt + "\n\nThere are " + images.size() + " images, numbered from 0 in the "
+                + "order given. Assess each image on its own and return one result per image with its image_index."));
+        for (int i = 0; i < images.size(); i++) {
+            parts.add(Part.fromText("Image " + i + ":"));
+            parts.add(Part.fromBytes(images.get(i), mimeType));
+        }
+        GenerateContentResponse response = getClassificationClient().models.generateContent(
+                CLASSIFICATION_MODEL, Content.fromParts(parts.toArray(new Part[0])), config);
+
+        return resultsByImage(response.text(), images.size());
+    }
+
+    // Puts each result of a batch answer at the position of its image_index; results
+    // with an index out of range are dropped, images without a result stay null
+    static List<String> resultsByImage(String responseText, int imageCount) throws JSONException {
+        List<String> perImage = new ArrayList<>(Collections.nCopies(imageCount, (String) null));
+        JSONArray array = new JSONObject(responseText).getJSONArray("results");
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject result = array.getJSONObject(i);
+            int index = result.optInt("image_index", -1);
+            if (index >= 0 && index < perImage.size()) {
+                perImage.set(index, result.toString());
+            }
+        }
+        return perImage;
+    }
+
+    // Photos of one report show the same problem: use the main photo's answer, raised to the
+    // worst severity any of them shows. Null when no photo got a usable answer
+    static String mergeClassifications(String[] results) {
+        JSONObject merged = null;
+        String worstSeverity = null;
+        for (String result : results) {
+            if (!isClassificationJson(result)) continue;
+            try {
+                JSONObject json = new JSONObject(result);
+                if (merged == null) merged = json;
+                String severity = json.optString("severity", "");
+                if (SEVERITY_ORDER.indexOf(severity) > SEVERITY_ORDER.indexOf(worstSeverity)) {
+                    worstSeverity = severity;
+                }
+            } catch (JSONException ignored) {
+            }
+        }
+        if (merged == null) return null;
+        try {
+            if (worstSeverity != null) merged.put("severity", worstSeverity);
+        } catch (JSONException ignored) {
+        }
+        return merged.toString();
+    }
+
+    // Only well-formed results are worth caching; errors should be retried
+    static boolean isClassificationJson(String jsonResponse) {
+        if (jsonResponse == null) return false;
+        try {
+            return new JSONObject(jsonResponse).has("issue_type");
+        } catch (JSONException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create both clients and open their connections in the background with
+     * cheap metadata calls. Only the first call per process does anything.
+     */
+    public static void warmUp() {
+        if (!warmedUp.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                getClassificationClient().models.get(CLASSIFICATION_MODEL, null);
+            } catch (Exception e) {
+                // Only a head start, the real request connects on its own
+                Log.w(TAG, "Classification warm-up failed", e);
+            }
+        });
+        executor.execute(() -> Futures.addCallback(
+                getChatModel().countTokens(new com.google.ai.client.generativeai.type.Content.Builder()
+                        .addText("Hello").build()),
+                new FutureCallback<CountTokensResponse>() {
+                    @Override
+                    public void onSuccess(CountTokensResponse result) {
+                        Log.d(TAG, "Chat model warmed up");
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        Log.w(TAG, "Chat warm-up failed", t);
+                    }
+                }, MoreExecutors.directExecutor()));
+    }
+}
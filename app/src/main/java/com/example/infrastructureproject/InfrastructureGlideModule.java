@@ -0,0 +1,130 @@
+package com.example.infrastructureproject;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.infrastructureproject.utils.AppMetrics;
+import com.example.infrastructureproject.utils.StableGlideUrl;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * App-wide Glide configuration for a photo-heavy app: memory cache and bitmap
+ * pool sized from the device's per-app memory class, a dedicated disk cache for
+ * ticket photos, URL cache keys that survive signed-URL changes, and hit/miss
+ * counters reported through {@link AppMetrics} ("glide.memory", "glide.disk").
+ */
+@GlideModule
+public final class InfrastructureGlideModule extends AppGlideModule {
+    private static final String TAG = "GlideModule";
+
+    private static final String DISK_CACHE_DIR = "ticket_images";
+    private static final long DISK_CACHE_BYTES = 400L * 1024 * 1024;
+
+    // Share of the app's heap budget (memory class) given to decoded images
+    private static final float MEMORY_CACHE_SHARE = 0.15f;
+    private static final float BITMAP_POOL_SHARE = 0.10f;
+    // Low-RAM devices get half as much and decode everything as RGB_565
+    private static final float LOW_RAM_FACTOR = 0.5f;
+    private static final int LOW_RAM_MEMORY_CLASS_MB = 128;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager.getMemoryClass();
+        boolean lowRam = activityManager.isLowRamDevice() || memoryClassMb <= LOW_RAM_MEMORY_CLASS_MB;
+
+        long heapBytes = memoryClassMb * 1024L * 1024L;
+        float factor = lowRam ? LOW_RAM_FACTOR : 1f;
+        long memoryCacheBytes = (long) (heapBytes * MEMORY_CACHE_SHARE * factor);
+        long bitmapPoolBytes = (long) (heapBytes * BITMAP_POOL_SHARE * factor);
+        Log.d(TAG, "Memory class " + memoryClassMb + "MB" + (lowRam ? " (low RAM)" : "")
+                + ", memory cache " + memoryCacheBytes / 1024 + "KB, bitmap pool " + bitmapPoolBytes / 1024 + "KB");
+
+        builder.setMemoryCache(new MeteredMemoryCache(memoryCacheBytes));
+        builder.setBitmapPool(new LruBitmapPool(bitmapPoolBytes));
+        builder.setDiskCache(() -> {
+            DiskCache diskCache = new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES).build();
+            return diskCache != null ? new MeteredDiskCache(diskCache) : null;
+        });
+        if (lowRam) {
+            builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+        }
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.prepend(String.class, InputStream.class, new StableGlideUrl.Loader.Factory());
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // No library modules declared in the manifest, skip the scan at startup
+        return false;
+    }
+
+    // Glide's engine looks a cached resource up with remove(), so that is the lookup to count.
+    // Images still on screen are served from active resources first and never reach it.
+    private static class MeteredMemoryCache extends LruResourceCache {
+        MeteredMemoryCache(long size) {
+            super(size);
+        }
+
+        @Nullable
+        @Override
+        public synchronized Resource<?> remove(@NonNull Key key) {
+            Resource<?> resource = super.remove(key);
+            AppMetrics.recordLookup("glide.memory", resource != null);
+            return resource;
+        }
+    }
+
+    private static class MeteredDiskCache implements DiskCache {
+        private final DiskCache delegate;
+
+        MeteredDiskCache(DiskCache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Nullable
+        @Override
+        public File get(Key key) {
+            File file = delegate.get(key);
+            AppMetrics.recordLookup("glide.disk", file != null);
+            return file;
+        }
+
+        @Override
+        public void put(Key key, Writer writer) {
+            delegate.put(key, writer);
+        }
+
+        @Override
+        public void delete(Key key) {
+            delegate.delete(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+    }
+}
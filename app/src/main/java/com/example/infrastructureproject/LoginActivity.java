@@ -28,6 +28,8 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Saves the session for background submissions
+        SupabaseManager.init(this);
         // Explicitly allow screenshots
         getWindow().clearFlags(android.view.WindowManager.LayoutParams.FLAG_SECURE);
         // enableEdgeToEdge(); // This method is not available in the Java Activity template.
@@ -127,6 +129,8 @@ public class LoginActivity extends AppCompatActivity {
                              intent = new Intent(LoginActivity.this, CouncilDashboardActivity.class);
                          } else {
                              intent = new Intent(LoginActivity.this, CitizenDashboardActivity.class);
+                             // Citizens use the report classifier and chatbot, connect ahead of time
+                             GeminiService.warmUp();
                          }
                          startActivity(intent);
                          finish();
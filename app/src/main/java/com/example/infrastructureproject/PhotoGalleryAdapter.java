@@ -0,0 +1,133 @@
+package com.example.infrastructureproject;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Horizontal strip of photo thumbnails. Items are anything Glide can load
+ * (thumbnail URLs on the detail screens, local URIs on the report screen);
+ * only the visible cells are fetched, each at the strip's cell size.
+ */
+public class PhotoGalleryAdapter extends RecyclerView.Adapter<PhotoGalleryAdapter.PhotoViewHolder> {
+
+    public interface OnPhotoClickListener {
+        void onPhotoClick(int position);
+    }
+
+    public interface OnPhotoLongClickListener {
+        void onPhotoLongClick(int position);
+    }
+
+    private final List<Object> photos = new ArrayList<>();
+    private final int thumbnailSizePx;
+    private final OnPhotoClickListener clickListener;
+    private OnPhotoLongClickListener longClickListener;
+
+    public PhotoGalleryAdapter(Context context, OnPhotoClickListener clickListener) {
+        this.clickListener = clickListener;
+        this.thumbnailSizePx = context.getResources().getDimensionPixelSize(R.dimen.gallery_thumbnail_size);
+    }
+
+    /**
+     * Show a ticket's photos as a strip of thumbnails, or hide the strip when
+     * there is nothing beyond the main image. Clicks report the photo index.
+     */
+    public static void bindTicketPhotos(RecyclerView recyclerView, List<TicketPhoto> ticketPhotos,
+                                        OnPhotoClickListener clickListener) {
+        if (recyclerView == null) {
+            return;
+        }
+        if (ticketPhotos.size() < 2) {
+            recyclerView.setVisibility(View.GONE);
+            return;
+        }
+        List<String> thumbnailUrls = new ArrayList<>(ticketPhotos.size());
+        for (TicketPhoto photo : ticketPhotos) {
+            thumbnailUrls.add(photo.getThumbnailUrl());
+        }
+        PhotoGalleryAdapter adapter = new PhotoGalleryAdapter(recyclerView.getContext(), clickListener);
+        adapter.setPhotos(thumbnailUrls);
+        recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext(),
+                LinearLayoutManager.HORIZONTAL, false));
+        recyclerView.setAdapter(adapter);
+        recyclerView.setVisibility(View.VISIBLE);
+    }
+
+    public void setOnPhotoLongClickListener(OnPhotoLongClickListener longClickListener) {
+        this.longClickListener = longClickListener;
+    }
+
+    public void setPhotos(List<?> newPhotos) {
+        photos.clear();
+        photos.addAll(newPhotos);
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public PhotoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_gallery_photo, parent, false);
+        return new PhotoViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
+        Glide.with(holder.imageView)
+                .load(photos.get(position))
+                .override(thumbnailSizePx)
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .placeholder(R.drawable.ic_image_placeholder)
+                .into(holder.imageView);
+
+        holder.imageView.setOnClickListener(v -> {
+            int current = holder.getAdapterPosition();
+            if (current != RecyclerView.NO_POSITION && clickListener != null) {
+                clickListener.onPhotoClick(current);
+            }
+        });
+        holder.imageView.setOnLongClickListener(v -> {
+            int current = holder.getAdapterPosition();
+            if (current == RecyclerView.NO_POSITION || longClickListener == null) {
+                return false;
+            }
+            longClickListener.onPhotoLongClick(current);
+            return true;
+        });
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull PhotoViewHolder holder) {
+        // Cancel a pending load so a fast fling doesn't fetch off-screen photos
+        Glide.with(holder.imageView).clear(holder.imageView);
+    }
+
+    @Override
+    public int getItemCount() {
+        return photos.size();
+    }
+
+    static class PhotoViewHolder extends RecyclerView.ViewHolder {
+        final ImageView imageView;
+
+        PhotoViewHolder(@NonNull View itemView) {
+            super(itemView);
+            imageView = itemView.findViewById(R.id.ivGalleryPhoto);
+        }
+    }
+}
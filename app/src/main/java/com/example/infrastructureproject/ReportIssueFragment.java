@@ -1,6 +1,8 @@
 package com.example.infrastructureproject;
 
 import android.Manifest;
+import android.content.ClipData;
+import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.net.Uri;
@@ -24,21 +26,33 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
-import com.google.genai.Client;
-import com.google.genai.types.Content;
-import com.google.genai.types.GenerateContentConfig;
-import com.google.genai.types.GenerateContentResponse;
-import com.google.genai.types.Part;
+import com.bumptech.glide.Glide;
+import com.example.infrastructureproject.utils.AiRequestPolicy;
+import com.example.infrastructureproject.utils.ClassificationCache;
+import com.example.infrastructureproject.utils.ContentHash;
+import com.example.infrastructureproject.utils.ImageHasher;
+import com.example.infrastructureproject.utils.ImagePreparer;
+import com.example.infrastructureproject.utils.IssuePreClassifier;
+import com.example.infrastructureproject.utils.PhotoMetadata;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 public class ReportIssueFragment extends Fragment {
@@ -52,15 +66,49 @@ public class ReportIssueFragment extends Fragment {
     private ActivityResultLauncher<String> permissionLauncher;
     private ActivityResultLauncher<String> cameraPermissionLauncher;
     private ActivityResultLauncher<String> locationPermissionLauncher;
-    private Uri selectedImageUri;
+    private ActivityResultLauncher<String> notificationPermissionLauncher;
+    private ActivityResultLauncher<String> mediaLocationPermissionLauncher;
+    private boolean mediaLocationAsked = false;
+    // Photos in the order they were added; the first is the main image and the one Gemini analyzes
+    private final List<Uri> selectedImageUris = new ArrayList<>();
     private Uri capturedImageUri;
+    // Open tickets whose photo looks like one of the selected photos, filled in the background
+    private final Map<Uri, List<TicketRepository.DuplicateMatch>> duplicatesByPhoto = new LinkedHashMap<>();
+    // Perceptual hash per photo, so a location change can re-run the lookup without hashing again
+    private final Map<Uri, Long> photoHashes = new HashMap<>();
+    // Coordinates the current duplicate results were looked up for
+    private String duplicatesCoordinates;
+    // Upload, medium and thumbnail copies (TicketSubmissionWorker.RENDITIONS) made while classifying,
+    // handed to the submission worker so it skips that decode
+    private final Map<Uri, List<ImagePreparer.PreparedImage>> preparedUploads = new HashMap<>();
     private ImageView previewImageView;
+    private RecyclerView photoStrip;
+    private PhotoGalleryAdapter photoStripAdapter;
     private ProgressBar loadingIndicator;
     private TextView loadingText;
-    private Client client;
-    private String reportIssuePrompt = "Analyze this infrastructure image and identify: 1) Issue type (Pothole, Broken Streetlight, Damaged Pipe, or Other), 2) Severity level (Low, Medium, or High), 3) Detailed description of the problem, 4) Estimated location or landmark visible in the image. Provide accurate infrastructure assessment.";
     private com.google.android.gms.location.FusedLocationProviderClient fusedLocationClient;
+    private static final int MAX_PHOTOS = 5;
+    // Shown until a real location is known; duplicates are not looked up for it
+    private static final String DEFAULT_LOCATION = "Default Location (Kuala Lumpur)";
+    // Auto-fill is a convenience: give up after 10s, hedging a slow request after ~p90
+    private static final AiRequestPolicy CLASSIFICATION_POLICY =
+            new AiRequestPolicy("gemini.classification", 10_000, 4_000, true);
+    // Several photos in one request take longer, and a hedge would double a large upload
+    private static final AiRequestPolicy BATCH_CLASSIFICATION_POLICY =
+            new AiRequestPolicy("gemini.classification_batch", 15_000, 0, false);
+    // What the on-device pre-classifier put in the spinners, so Gemini only replaces
+    // its own guesses and never something the user picked
+    private String preFilledType;
+    private String preFilledSeverity;
     private boolean isManualLocation = false;
+    // Raw coordinates behind the location shown, from the photo's GPS or the device;
+    // null for a typed-in or default location. Stored on the ticket for duplicate search.
+    private Double latitude;
+    private Double longitude;
+    // Location came from the first photo's EXIF GPS, device location must not replace it
+    private boolean isPhotoLocation = false;
+    // Photos older than this without GPS were probably not taken where the user is now
+    private static final long STALE_PHOTO_MS = 60 * 60 * 1000;
     
     private View rootView;
     private android.widget.Button submitButton;
@@ -77,12 +125,6 @@ public class ReportIssueFragment extends Fragment {
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        // Initialize Gemini client
-        String apiKey = BuildConfig.GEMINI_API_KEY;
-        this.client = Client.builder()
-                .apiKey(apiKey)
-                .build();
-        
         // ===== REGISTER ALL LAUNCHERS HERE (CRITICAL: MUST BE IN onCreate) =====
         
         // Gallery permission launcher
@@ -90,7 +132,7 @@ public class ReportIssueFragment extends Fragment {
                 new ActivityResultContracts.RequestPermission(),
                 isGranted -> {
                     if(isGranted){
-                        launchGalleryPicker();
+                        launchGalleryPickerWithMediaLocation();
                     }
                     else{
                         Toast.makeText(requireContext(), R.string.permission_required_message, Toast.LENGTH_SHORT).show();
@@ -98,6 +140,13 @@ public class ReportIssueFragment extends Fragment {
                 }
         );
 
+        // Media location permission launcher: without it Android strips GPS from picked photos.
+        // Optional, the picker opens either way
+        mediaLocationPermissionLauncher = registerForActivityResult(
+                new ActivityResultContracts.RequestPermission(),
+                isGranted -> launchGalleryPicker()
+        );
+
         // Camera permission launcher
         cameraPermissionLauncher = registerForActivityResult(
                 new ActivityResultContracts.RequestPermission(),
@@ -124,17 +173,32 @@ public class ReportIssueFragment extends Fragment {
                 }
         );
 
+        // Notification permission launcher (submission progress/results, optional)
+        notificationPermissionLauncher = registerForActivityResult(
+                new ActivityResultContracts.RequestPermission(),
+                isGranted -> {
+                    if(!isGranted){
+                        Log.d("ReportIssue", "Notifications denied, submissions continue silently");
+                    }
+                }
+        );
+
         // Gallery picker launcher
         pickImageLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
                 result -> {
                     if(result.getResultCode() == android.app.Activity.RESULT_OK && result.getData() != null){
-                        Uri uri = result.getData().getData();
-                        if(uri != null){
-                            selectedImageUri = uri;
-                            showPreview(uri);
-                            callGeminiAPI(selectedImageUri, reportIssuePrompt);
+                        List<Uri> picked = new ArrayList<>();
+                        ClipData clipData = result.getData().getClipData();
+                        if(clipData != null){
+                            for(int i = 0; i < clipData.getItemCount(); i++){
+                                picked.add(clipData.getItemAt(i).getUri());
+                            }
+                        }
+                        else if(result.getData().getData() != null){
+                            picked.add(result.getData().getData());
                         }
+                        addPhotos(picked);
                     }
                 }
         );
@@ -144,9 +208,9 @@ public class ReportIssueFragment extends Fragment {
                 new ActivityResultContracts.TakePicture(),
                 success -> {
                     if(success && capturedImageUri != null){
-                        selectedImageUri = capturedImageUri;
-                        showPreview(capturedImageUri);
-                        callGeminiAPI(capturedImageUri, reportIssuePrompt);
+                        List<Uri> captured = new ArrayList<>();
+                        captured.add(capturedImageUri);
+                        addPhotos(captured);
                     }
                 }
         );
@@ -158,8 +222,22 @@ public class ReportIssueFragment extends Fragment {
         rootView = inflater.inflate(R.layout.report_issue, container, false);
         
         previewImageView = rootView.findViewById(R.id.photo_preview);
+        photoStrip = rootView.findViewById(R.id.photo_strip);
         descriptionEditText = rootView.findViewById(R.id.description_input);
         locationTextView = rootView.findViewById(R.id.location_text);
+        // Detection, the photo's GPS or the user can change the location after photos were added
+        locationTextView.addTextChangedListener(new android.text.TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(android.text.Editable s) {
+                recheckDuplicates();
+            }
+        });
         loadingIndicator = rootView.findViewById(R.id.ai_loading_indicator);
         loadingText = rootView.findViewById(R.id.ai_loading_text);
         submitButton = rootView.findViewById(R.id.submit_button);
@@ -172,6 +250,7 @@ public class ReportIssueFragment extends Fragment {
         
         // Setup image handlers for the upload and take photo cards to work
         setupImageHandlers();
+        setupPhotoStrip();
         
         // Setup location functionality
         setupLocationHandlers();
@@ -185,6 +264,15 @@ public class ReportIssueFragment extends Fragment {
         return rootView;
     }
 
+    @Override
+    public void onDestroy() {
+        // Upload copies of photos that were never submitted
+        for (Uri uri : new ArrayList<>(preparedUploads.keySet())) {
+            discardPrepared(uri);
+        }
+        super.onDestroy();
+    }
+
     private void setupSpinner() {
         typeSpinner = rootView.findViewById(R.id.type_spinner);
         severitySpinner = rootView.findViewById(R.id.severity_spinner);
@@ -218,7 +306,7 @@ public class ReportIssueFragment extends Fragment {
         uploadCard.setOnClickListener(
                 v -> {
                     if(hasReadPermission()){
-                        launchGalleryPicker();
+                        launchGalleryPickerWithMediaLocation();
                     }
                     else{
                         permissionLauncher.launch(getReadPermission());
@@ -239,20 +327,303 @@ public class ReportIssueFragment extends Fragment {
         );
     }
 
+    // Thumbnails of the selected photos: tap to preview, long-press to remove
+    private void setupPhotoStrip() {
+        photoStripAdapter = new PhotoGalleryAdapter(requireContext(),
+                position -> showPreview(selectedImageUris.get(position)));
+        photoStripAdapter.setOnPhotoLongClickListener(this::removePhoto);
+        photoStrip.setLayoutManager(new LinearLayoutManager(requireContext(), LinearLayoutManager.HORIZONTAL, false));
+        photoStrip.setAdapter(photoStripAdapter);
+    }
+
+    private void launchGalleryPickerWithMediaLocation(){
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && !mediaLocationAsked
+                && ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_MEDIA_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) {
+            mediaLocationAsked = true;
+            mediaLocationPermissionLauncher.launch(Manifest.permission.ACCESS_MEDIA_LOCATION);
+            return;
+        }
+        launchGalleryPicker();
+    }
+
     private void launchGalleryPicker(){
         Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
         intent.setType("image/*");
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         pickImageLauncher.launch(intent);
     }
 
+    private void addPhotos(List<Uri> uris){
+        boolean wasEmpty = selectedImageUris.isEmpty();
+        Uri lastAdded = null;
+        for (Uri uri : uris) {
+            if (selectedImageUris.size() >= MAX_PHOTOS) {
+                Toast.makeText(requireContext(), "Up to " + MAX_PHOTOS + " photos per report", Toast.LENGTH_SHORT).show();
+                break;
+            }
+            if (uri == null || selectedImageUris.contains(uri)) continue;
+            selectedImageUris.add(uri);
+            checkForDuplicates(uri);
+            lastAdded = uri;
+        }
+        if (lastAdded == null) return;
+
+        updatePhotoStrip();
+        showPreview(lastAdded);
+        if (wasEmpty) {
+            applyPhotoMetadata(selectedImageUris.get(0));
+            preClassify(selectedImageUris.get(0));
+            classifyPhotos(new ArrayList<>(selectedImageUris));
+        }
+    }
+
+    // Instant type and severity from the device while Gemini is still working; works offline
+    private void preClassify(Uri uri){
+        IssuePreClassifier.classifyAsync(requireContext(), uri, prediction -> {
+            if (!isAdded() || !selectedImageUris.contains(uri) || prediction == null) return;
+            // Leave weak guesses to Gemini or the user, a wrong pre-fill is worse than none
+            if (!prediction.isConfident()) return;
+            if (canAutofill(typeSpinner, preFilledType)) {
+                typeSpinner.setSelection(getSpinnerPosition(typeSpinner, prediction.issueType));
+                preFilledType = prediction.issueType;
+            }
+            if (canAutofill(severitySpinner, preFilledSeverity)) {
+                severitySpinner.setSelection(getSpinnerPosition(severitySpinner, prediction.severity));
+                preFilledSeverity = prediction.severity;
+            }
+        });
+    }
+
+    // Still on the placeholder or on our own earlier guess
+    private static boolean canAutofill(Spinner spinner, String preFilled){
+        if (spinner.getSelectedItemPosition() <= 0) return true;
+        return preFilled != null && spinner.getSelectedItem().toString().equalsIgnoreCase(preFilled);
+    }
+
+    // Decode the first original once into the worker's renditions plus the small model copy;
+    // other photos picked together only get a model copy and join the same request
+    private void classifyPhotos(List<Uri> uris){
+        Uri uri = uris.get(0);
+        setAnalyzing(true);
+        List<ImagePreparer.Options> renditions = new ArrayList<>(TicketSubmissionWorker.RENDITIONS);
+        renditions.add(ImagePreparer.MODEL_OPTIONS);
+        ImagePreparer.prepareRenditionsAsync(requireContext(), uri, renditions,
+                new ImagePreparer.RenditionsCallback() {
+            @Override
+            public void onPrepared(List<ImagePreparer.PreparedImage> images) {
+                int modelIndex = images.size() - 1;
+                if (!isAdded() || !selectedImageUris.contains(uri)) {
+                    for (ImagePreparer.PreparedImage image : images) image.delete();
+                    setAnalyzing(false);
+                    return;
+                }
+                discardPrepared(uri);
+                preparedUploads.put(uri, new ArrayList<>(images.subList(0, modelIndex)));
+                List<ImagePreparer.PreparedImage> modelImages = new ArrayList<>();
+                modelImages.add(images.get(modelIndex));
+                prepareModelImages(uris, 1, modelImages);
+            }
+
+            @Override
+            public void onError(String message) {
+                showError("AI analysis failed: " + message);
+            }
+        });
+    }
+
+    // One photo at a time, like ImagePreparer itself; a photo that fails to decode is left out
+    private void prepareModelImages(List<Uri> uris, int next, List<ImagePreparer.PreparedImage> modelImages){
+        if (next >= uris.size()) {
+            callGeminiAPI(modelImages, GeminiService.CLASSIFICATION_PROMPT);
+            return;
+        }
+        Uri uri = uris.get(next);
+        ImagePreparer.prepareAsync(requireContext(), uri, ImagePreparer.MODEL_OPTIONS,
+                new ImagePreparer.PrepareCallback() {
+            @Override
+            public void onPrepared(ImagePreparer.PreparedImage image) {
+                if (!isAdded()) {
+                    image.delete();
+                    for (ImagePreparer.PreparedImage prepared : modelImages) prepared.delete();
+                    return;
+                }
+                if (selectedImageUris.contains(uri)) {
+                    modelImages.add(image);
+                } else {
+                    image.delete();
+                }
+                prepareModelImages(uris, next + 1, modelImages);
+            }
+
+            @Override
+            public void onError(String message) {
+                if (isAdded()) prepareModelImages(uris, next + 1, modelImages);
+            }
+        });
+    }
+
+    private void discardPrepared(Uri uri){
+        List<ImagePreparer.PreparedImage> prepared = preparedUploads.remove(uri);
+        if (prepared != null) {
+            for (ImagePreparer.PreparedImage image : prepared) image.delete();
+        }
+    }
+
+    private void setAnalyzing(boolean analyzing){
+        int visibility = analyzing ? View.VISIBLE : View.GONE;
+        if(loadingIndicator != null) loadingIndicator.setVisibility(visibility);
+        if(loadingText != null) loadingText.setVisibility(visibility);
+    }
+
+    // Prefer where the photo was taken over where the phone is now; only the EXIF header is read
+    private void applyPhotoMetadata(Uri uri){
+        PhotoMetadata.readAsync(requireContext(), originalMediaUri(uri), metadata -> {
+            if (!isAdded() || !selectedImageUris.contains(uri) || isManualLocation) return;
+
+            if (metadata.hasLocation()) {
+                isPhotoLocation = true;
+                getAddressFromLocation(metadata.getLatitude(), metadata.getLongitude(), true);
+            } else if (metadata.hasCaptureTime()
+                    && System.currentTimeMillis() - metadata.getCapturedAtMillis() > STALE_PHOTO_MS) {
+                String taken = java.text.DateFormat.getDateTimeInstance(java.text.DateFormat.MEDIUM,
+                        java.text.DateFormat.SHORT).format(new java.util.Date(metadata.getCapturedAtMillis()));
+                Toast.makeText(requireContext(), "This photo was taken " + taken
+                        + ". Please check the location is where it was taken.", Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    // MediaStore redacts GPS from picked photos unless the original is requested (needs ACCESS_MEDIA_LOCATION)
+    private Uri originalMediaUri(Uri uri){
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && MediaStore.AUTHORITY.equals(uri.getAuthority())
+                && ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_MEDIA_LOCATION)
+                == PackageManager.PERMISSION_GRANTED) {
+            return MediaStore.setRequireOriginal(uri);
+        }
+        return uri;
+    }
+
+    private void removePhoto(int position){
+        Uri removed = selectedImageUris.remove(position);
+        duplicatesByPhoto.remove(removed);
+        photoHashes.remove(removed);
+        discardPrepared(removed);
+        updatePhotoStrip();
+        if (selectedImageUris.isEmpty()) {
+            previewImageView.setVisibility(View.GONE);
+        } else {
+            showPreview(selectedImageUris.get(Math.min(position, selectedImageUris.size() - 1)));
+        }
+        validateForm();
+    }
+
+    private void updatePhotoStrip(){
+        photoStripAdapter.setPhotos(selectedImageUris);
+        // A single photo is already shown by the preview
+        photoStrip.setVisibility(selectedImageUris.size() > 1 ? View.VISIBLE : View.GONE);
+    }
+
     private void showPreview(Uri uri){
         if (previewImageView != null) {
             previewImageView.setVisibility(View.VISIBLE);
-            previewImageView.setImageURI(uri);
+            // Glide applies the EXIF orientation and decodes at the view's size
+            Glide.with(this).load(uri).into(previewImageView);
         }
         validateForm();
     }
 
+    // Hash the photo, then look for open tickets nearby with a near-identical photo
+    private void checkForDuplicates(Uri uri) {
+        ImageHasher.hashAsync(requireContext(), uri, new ImageHasher.HashCallback() {
+            @Override
+            public void onHashed(long hash) {
+                if (!selectedImageUris.contains(uri)) return; // Photo was removed meanwhile
+                photoHashes.put(uri, hash);
+                lookUpDuplicates(uri, hash);
+            }
+
+            @Override
+            public void onError(String message) {
+                Log.w("ReportIssue", "Duplicate check skipped: " + message);
+            }
+        });
+    }
+
+    // The location changed: earlier results were for another place, look every photo up again
+    private void recheckDuplicates() {
+        if (coordinatesKey().equals(duplicatesCoordinates)) return;
+        duplicatesByPhoto.clear();
+        for (Map.Entry<Uri, Long> entry : photoHashes.entrySet()) {
+            lookUpDuplicates(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private String coordinatesKey() {
+        return latitude != null && longitude != null ? latitude + "," + longitude : "";
+    }
+
+    // Query around the coordinates known now; the answer is dropped if they change meanwhile
+    private void lookUpDuplicates(Uri uri, long hash) {
+        String coordinates = coordinatesKey();
+        duplicatesCoordinates = coordinates;
+        // Typed-in and default locations can't be searched by distance
+        if (coordinates.isEmpty()) return;
+
+        TicketRepository.findLikelyDuplicates(hash, latitude, longitude, null, new TicketRepository.DuplicatesCallback() {
+            @Override
+            public void onSuccess(List<TicketRepository.DuplicateMatch> matches) {
+                if (getActivity() == null) return;
+                getActivity().runOnUiThread(() -> {
+                    if (!selectedImageUris.contains(uri) || !coordinates.equals(coordinatesKey())) return;
+                    if (matches.isEmpty()) {
+                        duplicatesByPhoto.remove(uri);
+                        return;
+                    }
+                    duplicatesByPhoto.put(uri, matches);
+                    Toast.makeText(requireContext(),
+                            "This photo looks similar to " + matches.size() + " open report(s)",
+                            Toast.LENGTH_LONG).show();
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                // Duplicate check is only a hint, submission doesn't depend on it
+                Log.w("ReportIssue", "Duplicate check failed: " + message);
+            }
+        });
+    }
+
+    // Ask before filing what is probably the same issue again
+    private void confirmSubmit() {
+        if (duplicatesByPhoto.isEmpty()) {
+            submitTicket();
+            return;
+        }
+
+        StringBuilder message = new StringBuilder("This issue may already be reported:\n");
+        // Several photos can match the same ticket, list it once
+        Set<String> listed = new LinkedHashSet<>();
+        for (List<TicketRepository.DuplicateMatch> matches : duplicatesByPhoto.values()) {
+            for (TicketRepository.DuplicateMatch match : matches) {
+                if (!listed.add(match.getTicketId())) continue;
+                message.append("\n• ").append(match.getTicketId())
+                        .append(" - ").append(match.getIssueType())
+                        .append(" at ").append(match.getLocation());
+            }
+        }
+        message.append("\n\nSubmit a new report anyway?");
+
+        new android.app.AlertDialog.Builder(requireContext())
+                .setTitle("Likely duplicate")
+                .setMessage(message.toString())
+                .setPositiveButton("Submit anyway", (dialog, which) -> submitTicket())
+                .setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss())
+                .show();
+    }
+
     private boolean hasReadPermission(){
         return ContextCompat.checkSelfPermission(requireContext(), getReadPermission()) == PackageManager.PERMISSION_GRANTED;
     }
@@ -290,103 +661,94 @@ public class ReportIssueFragment extends Fragment {
         }
     }
 
-    private void callGeminiAPI(Uri imageUri, String prompt){
+    // modelImages are MODEL_OPTIONS copies, deleted once their bytes are read.
+    // Several photos go to the model in one batch request with a result per photo
+    private void callGeminiAPI(List<ImagePreparer.PreparedImage> modelImages, String prompt){
         // Show loading indicator
         if (getActivity() != null) {
-            getActivity().runOnUiThread(() -> {
-                if(loadingIndicator != null) loadingIndicator.setVisibility(View.VISIBLE);
-                if(loadingText != null) loadingText.setVisibility(View.VISIBLE);
-            });
+            getActivity().runOnUiThread(() -> setAnalyzing(true));
         }
 
-        new Thread(() ->{
-           try{
-               String modelId = "gemini-2.5-flash-lite";
-               byte[] imgBytes = getBytesFromUri(imageUri);
-
-               // json schema for structured output for parsing and auto fill in to the ui
-               ImmutableMap<String, Object> schema = ImmutableMap.of(
-                   "type", "object",
-                   "properties", ImmutableMap.of(
-                       "issue_type", ImmutableMap.of(
-                           "type", "string",
-                           "enum", ImmutableList.of("Pothole", "Broken Streetlight", "Damaged Pipe", "Other")
-                       ),
-                       "severity", ImmutableMap.of(
-                           "type", "string",
-                           "enum", ImmutableList.of("Low", "Medium", "High")
-                       ),
-                       "description", ImmutableMap.of(
-                           "type", "string",
-                           "description", "Detailed description of the infrastructure issue"
-                       ),
-                       "location", ImmutableMap.of(
-                           "type", "string",
-                           "description", "Location or landmark visible in the image"
-                       )
-                   ),
-                   "required", ImmutableList.of("issue_type", "severity", "description", "location")
-               );
-
-               // response to use JSON schema
-               GenerateContentConfig config = GenerateContentConfig.builder()
-                       .responseMimeType("application/json")
-                       .candidateCount(1)
-                       .responseJsonSchema(schema)
-                       .build();
-
-               // Concat the prompt together with the image data in content object
-               Content content = Content.fromParts(
-                   Part.fromText(prompt),
-                   Part.fromBytes(imgBytes, "image/jpeg")
-               );
-               
-               GenerateContentResponse response = client.models.generateContent(
-                   modelId,
-                   content,
-                   config
-               );
-               
-               String jsonResponse = response.text();
-               Log.d("GeminiAPI", "Response: " + jsonResponse);
-               
-               // Hide loading indicator
-               if (getActivity() != null) {
-                   getActivity().runOnUiThread(() -> {
-                       if(loadingIndicator != null) loadingIndicator.setVisibility(View.GONE);
-                       if(loadingText != null) loadingText.setVisibility(View.GONE);
-                   });
+        Context appContext = requireContext().getApplicationContext();
+        GeminiService.getExecutor().execute(() ->{
+           String mimeType = modelImages.get(0).getMimeType();
+           List<byte[]> images = new ArrayList<>(modelImages.size());
+           try {
+               for (ImagePreparer.PreparedImage modelImage : modelImages) {
+                   images.add(getBytesFromUri(modelImage.getUri()));
                }
-               
-               // Parse JSON and autofill form
-               parseAndAutofillForm(jsonResponse);
-           }
-           catch (java.net.UnknownHostException | java.net.SocketTimeoutException e){
-               Log.e("GeminiAPI", "Network error: " + e.getMessage(), e);
-               if (getActivity() != null) {
-                   getActivity().runOnUiThread(() -> {
-                       if(loadingIndicator != null) loadingIndicator.setVisibility(View.GONE);
-                       if(loadingText != null) loadingText.setVisibility(View.GONE);
-                       Toast.makeText(requireContext(), 
-                           "Network error: Please check your internet connection", 
-                           Toast.LENGTH_LONG).show();
-                   });
+           } catch (Exception e) {
+               // Model failures end in the policy's fallback; only reading the local copies can fail here
+               Log.e("GeminiAPI", "Could not read prepared photo", e);
+               showError("AI analysis failed: " + e.getMessage());
+               return;
+           } finally {
+               for (ImagePreparer.PreparedImage modelImage : modelImages) {
+                   modelImage.delete();
                }
            }
-           catch (Exception e){
-               Log.e("GeminiAPI", "Error calling Gemini API: " + e.getMessage(), e);
-               e.printStackTrace();
-               if (getActivity() != null) {
-                   getActivity().runOnUiThread(() -> {
-                       if(loadingIndicator != null) loadingIndicator.setVisibility(View.GONE);
-                       if(loadingText != null) loadingText.setVisibility(View.GONE);
-                       Toast.makeText(requireContext(), 
-                           "AI analysis failed: " + e.getMessage(), 
-                           Toast.LENGTH_LONG).show();
-                   });
+
+           // json schema for structured output for parsing and auto fill in to the ui
+           Map<String, Object> schema = GeminiService.CLASSIFICATION_SCHEMA;
+
+           // Same image bytes + same model/prompt/schema = same answer, only uncached photos go to the model
+           ClassificationCache cache = ClassificationCache.getInstance(appContext);
+           String version = GeminiService.CLASSIFICATION_MODEL + "/" + Integer.toHexString((prompt + schema).hashCode());
+           String[] imageShas = new String[images.size()];
+           String[] results = new String[images.size()];
+           List<Integer> uncached = new ArrayList<>();
+           for (int i = 0; i < images.size(); i++) {
+               imageShas[i] = ContentHash.sha256Hex(images.get(i));
+               results[i] = cache.get(ClassificationCache.key(imageShas[i], version));
+               if (results[i] == null) uncached.add(i);
+           }
+
+           if (uncached.isEmpty()) {
+               Log.d("GeminiAPI", "Classification cache hit");
+           } else {
+               List<byte[]> toSend = new ArrayList<>(uncached.size());
+               for (int i : uncached) toSend.add(images.get(i));
+               // Structured JSON output through the shared client, within the deadline; a slow
+               // model falls back to older answers for these photos, if any, and never blocks the form
+               AiRequestPolicy policy = toSend.size() == 1 ? CLASSIFICATION_POLICY : BATCH_CLASSIFICATION_POLICY;
+               AiRequestPolicy.Result<List<String>> result = policy.execute(
+                       () -> toSend.size() == 1
+                               ? Collections.singletonList(GeminiService.classifyImage(toSend.get(0), mimeType, prompt, schema))
+                               : GeminiService.classifyImages(toSend, mimeType, prompt, schema),
+                       () -> {
+                           List<String> older = new ArrayList<>();
+                           for (int i : uncached) older.add(cache.findByImage(imageShas[i]));
+                           return older;
+                       });
+               Log.d("GeminiAPI", "Response (" + result.source + ", " + result.latencyMs + "ms): " + result.value);
+               for (int j = 0; j < uncached.size(); j++) {
+                   int i = uncached.get(j);
+                   results[i] = result.value.get(j);
+                   if (!result.isFallback() && GeminiService.isClassificationJson(results[i])) {
+                       cache.put(ClassificationCache.key(imageShas[i], version), results[i]);
+                   }
                }
            }
-        }).start();
+
+           String jsonResponse = GeminiService.mergeClassifications(results);
+           if (jsonResponse == null) {
+               showError(preFilledType != null
+                       ? "AI analysis is unavailable right now. Type and severity were suggested from the photo, please check them and add a description."
+                       : "AI analysis is unavailable right now. Please fill in the details yourself.");
+               return;
+           }
+           
+           // Hide loading indicator
+           if (getActivity() != null) {
+               getActivity().runOnUiThread(() -> {
+                   if(loadingIndicator != null) loadingIndicator.setVisibility(View.GONE);
+                   if(loadingText != null) loadingText.setVisibility(View.GONE);
+               });
+           }
+           
+           // Parse JSON and autofill form
+           parseAndAutofillForm(jsonResponse);
+        });
     }
 
     private void parseAndAutofillForm(String jsonResponse) {
@@ -403,19 +765,21 @@ public class ReportIssueFragment extends Fragment {
             // Update UI on main thread
             if (getActivity() != null) {
                 getActivity().runOnUiThread(() -> {
-                    // Set issue type spinner
-                    if (!issueType.isEmpty()) {
+                    // Set issue type spinner, refining the on-device guess but not the user's choice
+                    if (!issueType.isEmpty() && canAutofill(typeSpinner, preFilledType)) {
                         int typePosition = getSpinnerPosition(typeSpinner, issueType);
                         if (typePosition >= 0) {
                             typeSpinner.setSelection(typePosition);
+                            preFilledType = issueType;
                         }
                     }
                     
                     // Set severity spinner
-                    if (!severity.isEmpty()) {
+                    if (!severity.isEmpty() && canAutofill(severitySpinner, preFilledSeverity)) {
                         int severityPosition = getSpinnerPosition(severitySpinner, severity);
                         if (severityPosition >= 0) {
                             severitySpinner.setSelection(severityPosition);
+                            preFilledSeverity = severity;
                         }
                     }
                     
@@ -428,7 +792,7 @@ public class ReportIssueFragment extends Fragment {
                     // Only use AI location if it's still the default
                     if (!location.isEmpty() && locationTextView != null) {
                         String currentLocation = locationTextView.getText().toString();
-                        if (currentLocation.equals("Default Location (Kuala Lumpur)") && !isManualLocation) {
+                        if (currentLocation.equals(DEFAULT_LOCATION) && !isManualLocation) {
                             // Only update if still default and not manually set
                             // Don't use AI location, keep GPS location
                         }
@@ -512,12 +876,12 @@ public class ReportIssueFragment extends Fragment {
             
             descriptionEditText.addTextChangedListener(formWatcher);
             
-            submitButton.setOnClickListener(v -> submitTicket());
+            submitButton.setOnClickListener(v -> confirmSubmit());
         }
     }
     
     private void validateForm() {
-        boolean hasImage = selectedImageUri != null;
+        boolean hasImage = !selectedImageUris.isEmpty();
         boolean hasType = typeSpinner.getSelectedItemPosition() > 0;
         boolean hasSeverity = severitySpinner.getSelectedItemPosition() > 0;
         
@@ -539,27 +903,32 @@ public class ReportIssueFragment extends Fragment {
             return;
         }
         
-        if (isManualLocation) {
-            return; // Don't override manual location
+        if (isManualLocation || isPhotoLocation) {
+            return; // Don't override manual or photo location
         }
         
         try {
             fusedLocationClient.getLastLocation()
                 .addOnSuccessListener(requireActivity(), location -> {
+                    if (isPhotoLocation) {
+                        return; // The photo's GPS arrived first, skip geocoding the device position
+                    }
                     if (location != null) {
                         // Got location, convert to address
-                        getAddressFromLocation(location.getLatitude(), location.getLongitude());
+                        getAddressFromLocation(location.getLatitude(), location.getLongitude(), false);
                     } else {
                         // No location available, show default
                         if (locationTextView != null && !isManualLocation) {
-                            locationTextView.setText("Default Location (Kuala Lumpur)");
+                            setCoordinates(null, null);
+                            locationTextView.setText(DEFAULT_LOCATION);
                         }
                     }
                 })
                 .addOnFailureListener(e -> {
                     Log.e("Location", "Failed to get location: " + e.getMessage());
-                    if (locationTextView != null && !isManualLocation) {
-                        locationTextView.setText("Default Location (Kuala Lumpur)");
+                    if (locationTextView != null && !isManualLocation && !isPhotoLocation) {
+                        setCoordinates(null, null);
+                        locationTextView.setText(DEFAULT_LOCATION);
                     }
                 });
         } catch (SecurityException e) {
@@ -567,7 +936,8 @@ public class ReportIssueFragment extends Fragment {
         }
     }
     
-    private void getAddressFromLocation(double latitude, double longitude) {
+    // fromPhoto: coordinates came from the photo's EXIF, which wins over the device position
+    private void getAddressFromLocation(double latitude, double longitude, boolean fromPhoto) {
         new Thread(() -> {
             try {
                 android.location.Geocoder geocoder = new android.location.Geocoder(requireContext(), java.util.Locale.getDefault());
@@ -598,7 +968,8 @@ public class ReportIssueFragment extends Fragment {
                     
                     String locationStr = finalAddress;
                     requireActivity().runOnUiThread(() -> {
-                        if (locationTextView != null && !isManualLocation) {
+                        if (locationTextView != null && !isManualLocation && (fromPhoto || !isPhotoLocation)) {
+                            setCoordinates(latitude, longitude);
                             locationTextView.setText(locationStr);
                         }
                     });
@@ -606,7 +977,8 @@ public class ReportIssueFragment extends Fragment {
                     // No address found, use coordinates
                     String coordsStr = String.format("%.4f, %.4f", latitude, longitude);
                     requireActivity().runOnUiThread(() -> {
-                        if (locationTextView != null && !isManualLocation) {
+                        if (locationTextView != null && !isManualLocation && (fromPhoto || !isPhotoLocation)) {
+                            setCoordinates(latitude, longitude);
                             locationTextView.setText(coordsStr);
                         }
                     });
@@ -635,6 +1007,7 @@ public class ReportIssueFragment extends Fragment {
         builder.setPositiveButton("OK", (dialog, which) -> {
             String manualLocation = input.getText().toString().trim();
             if (!manualLocation.isEmpty()) {
+                setCoordinates(null, null); // The typed place isn't where any GPS fix was
                 locationTextView.setText(manualLocation);
                 isManualLocation = true;
                 Toast.makeText(requireContext(), "Location set manually", Toast.LENGTH_SHORT).show();
@@ -645,6 +1018,7 @@ public class ReportIssueFragment extends Fragment {
         
         builder.setNeutralButton("Use GPS", (dialog, which) -> {
             isManualLocation = false;
+            isPhotoLocation = false;
             autoDetectLocation();
             Toast.makeText(requireContext(), "Detecting location...", Toast.LENGTH_SHORT).show();
         });
@@ -652,6 +1026,12 @@ public class ReportIssueFragment extends Fragment {
         builder.show();
     }
     
+    // Set before the location text, whose change re-runs the duplicate lookup
+    private void setCoordinates(Double latitude, Double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
     private boolean hasLocationPermission() {
         return ContextCompat.checkSelfPermission(requireContext(), 
             Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
@@ -685,50 +1065,31 @@ public class ReportIssueFragment extends Fragment {
         Log.d("ReportIssue", "Submitting - Type: " + issueType + ", Severity: " + severity + 
               ", Location: " + location + ", Reporter ID: " + reporterId);
         
-        SupabaseManager.submitTicket(issueType, severity, location, description, reporterId, 
-            new SupabaseManager.TicketCallback() {
-                @Override
-                public void onSuccess(String ticketUuid) {
-                    Log.d("ReportIssue", "Ticket created successfully with ID: " + ticketUuid);
-                    if (selectedImageUri != null) {
-                        uploadTicketImage(ticketUuid, reporterId);
-                    } else {
-                        onSubmitSuccess();
-                    }
-                }
+        // Renditions already made for classification move to the worker, which now owns them
+        List<List<File>> preparedFiles = new ArrayList<>(selectedImageUris.size());
+        for (Uri uri : selectedImageUris) {
+            List<ImagePreparer.PreparedImage> prepared = preparedUploads.remove(uri);
+            List<File> files = null;
+            if (prepared != null) {
+                files = new ArrayList<>(prepared.size());
+                for (ImagePreparer.PreparedImage image : prepared) files.add(image.getFile());
+            }
+            preparedFiles.add(files);
+        }
 
-                @Override
-                public void onError(String message) {
-                    Log.e("ReportIssue", "Ticket submission failed: " + message);
-                    showError("Failed to submit ticket: " + message);
-                    resetSubmitButton();
-                }
-            });
+        // Hand the whole submission to WorkManager so the user can leave right away;
+        // it waits for network, retries, and notifies when done
+        TicketSubmissionWorker.enqueue(requireContext(), issueType, severity, location, latitude, longitude,
+                description, reporterId, new ArrayList<>(selectedImageUris), preparedFiles);
+        requestNotificationPermissionIfNeeded();
+        onSubmitSuccess();
     }
-    
-    private void uploadTicketImage(String ticketUuid, String uploadedBy) {
-        try {
-            byte[] imageData = getBytesFromUri(selectedImageUri);
-            String fileName = "image_" + System.currentTimeMillis() + ".jpg";
-            
-            SupabaseManager.uploadTicketImage(ticketUuid, imageData, fileName, uploadedBy,
-                new SupabaseManager.TicketCallback() {
-                    @Override
-                    public void onSuccess(String filePath) {
-                        onSubmitSuccess();
-                    }
 
-                    @Override
-                    public void onError(String message) {
-                        showError("Ticket submitted but image upload failed: " + message);
-                        onSubmitSuccess();
-                    }
-                });
-                
-        } catch (Exception e) {
-            Log.e("ReportIssue", "Error reading image: " + e.getMessage(), e);
-            showError("Error reading image file");
-            onSubmitSuccess();
+    private void requestNotificationPermissionIfNeeded() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            notificationPermissionLauncher.launch(Manifest.permission.POST_NOTIFICATIONS);
         }
     }
     
@@ -739,7 +1100,7 @@ public class ReportIssueFragment extends Fragment {
                 if (loadingText != null) loadingText.setVisibility(View.GONE);
                 
                 Toast.makeText(requireContext(), 
-                    "Ticket submitted successfully!", 
+                    "Report queued. We'll notify you once it's submitted.", 
                     Toast.LENGTH_LONG).show();
                 
                 resetForm();
@@ -775,11 +1136,21 @@ public class ReportIssueFragment extends Fragment {
     private void resetForm() {
         typeSpinner.setSelection(0);
         severitySpinner.setSelection(0);
+        preFilledType = null;
+        preFilledSeverity = null;
         descriptionEditText.setText("");
-        locationTextView.setText("Default Location (Kuala Lumpur)");
+        setCoordinates(null, null);
+        locationTextView.setText(DEFAULT_LOCATION);
         previewImageView.setVisibility(View.GONE);
-        selectedImageUri = null;
+        selectedImageUris.clear();
+        for (Uri uri : new ArrayList<>(preparedUploads.keySet())) {
+            discardPrepared(uri);
+        }
+        updatePhotoStrip();
         capturedImageUri = null;
+        duplicatesByPhoto.clear();
+        photoHashes.clear();
+        isPhotoLocation = false;
         
         if (submitButton != null) {
             submitButton.setEnabled(false);
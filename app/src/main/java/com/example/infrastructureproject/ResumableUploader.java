@@ -0,0 +1,292 @@
+package com.example.infrastructureproject;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.util.Base64;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * TUS (resumable upload protocol 1.0.0) client for Supabase Storage.
+ * The upload URL is saved to SharedPreferences and the server tracks the
+ * offset, so an upload interrupted by a dropped connection or an app restart
+ * continues from the last byte the server kept instead of starting over.
+ * Dropped connections, 429 and 5xx answers are retried here with backoff;
+ * other failures are thrown as "HTTP nnn: ..." like SupabaseManager's requests.
+ *
+ * The endpoint is injectable so it can be pointed at a local tus server for testing.
+ * Calls are blocking; run them on a background thread.
+ */
+public class ResumableUploader {
+    private static final String TAG = "ResumableUploader";
+    private static final String PREFS_NAME = "resumable_uploads";
+    private static final String TUS_VERSION = "1.0.0";
+
+    // Supabase Storage requires every chunk but the last to be exactly 6 MB, so a
+    // prepared photo (~500 KB) goes up in one request; smaller chunks are only for
+    // other tus servers, e.g. the local one the tests use
+    public static final int SUPABASE_CHUNK_SIZE = 6 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_BASE_DELAY_MS = 1000;
+
+    /**
+     * Where the upload URL of each unfinished upload is kept between runs.
+     */
+    interface UploadStore {
+        String get(String key);
+        void put(String key, String uploadUrl);
+        void remove(String key);
+    }
+
+    interface SourceOpener {
+        InputStream open(Uri source) throws IOException;
+    }
+
+    private final UploadStore store;
+    private final SourceOpener opener;
+    private final String endpoint;
+    private final String apiKey;
+    private final int chunkSize;
+    private final long retryBaseDelayMs;
+
+    public ResumableUploader(Context context, String endpoint, String apiKey, int chunkSize) {
+        this(prefsStore(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)),
+                context.getApplicationContext().getContentResolver()::openInputStream,
+                endpoint, apiKey, chunkSize, RETRY_BASE_DELAY_MS);
+    }
+
+    ResumableUploader(UploadStore store, SourceOpener opener, String endpoint, String apiKey, int chunkSize,
+                      long retryBaseDelayMs) {
+        this.store = store;
+        this.opener = opener;
+        this.endpoint = endpoint;
+        this.apiKey = apiKey;
+        this.chunkSize = chunkSize;
+        this.retryBaseDelayMs = retryBaseDelayMs;
+    }
+
+    public static ResumableUploader forSupabase(Context context) {
+        return new ResumableUploader(context, BuildConfig.SUPABASE_URL + "/storage/v1/upload/resumable",
+                BuildConfig.SUPABASE_KEY, SUPABASE_CHUNK_SIZE);
+    }
+
+    private static UploadStore prefsStore(SharedPreferences prefs) {
+        return new UploadStore() {
+            @Override
+            public String get(String key) {
+                return prefs.getString(key, null);
+            }
+
+            @Override
+            public void put(String key, String uploadUrl) {
+                prefs.edit().putString(key, uploadUrl).apply();
+            }
+
+            @Override
+            public void remove(String key) {
+                prefs.edit().remove(key).apply();
+            }
+        };
+    }
+
+    /**
+     * Upload (or resume uploading) a file of known length to bucket/objectPath.
+     * Progress is reported on the calling thread.
+     */
+    public void upload(Uri source, long length, String bucket, String objectPath, String contentType,
+                       String accessToken, SupabaseManager.UploadProgressListener progressListener) throws Exception {
+        String key = key(bucket, objectPath, length);
+        int attempt = 0;
+
+        while (true) {
+            try {
+                String uploadUrl = store.get(key);
+                long offset = -1;
+                if (uploadUrl != null) {
+                    offset = fetchOffset(uploadUrl, accessToken);
+                    if (offset < 0) {
+                        // Expired or unknown on the server, start a new upload
+                        Log.d(TAG, "Stored upload no longer valid, recreating: " + objectPath);
+                        uploadUrl = null;
+                    } else {
+                        Log.d(TAG, "Resuming " + objectPath + " at " + offset + "/" + length);
+                    }
+                }
+                if (uploadUrl == null) {
+                    uploadUrl = createUpload(length, bucket, objectPath, contentType, accessToken);
+                    offset = 0;
+                    store.put(key, uploadUrl);
+                }
+
+                while (offset < length) {
+                    offset = sendChunk(uploadUrl, source, offset, length, accessToken, progressListener);
+                    attempt = 0; // Progress was made, reset the retry budget
+                }
+                store.remove(key);
+                return;
+            } catch (Exception e) {
+                if (!SupabaseManager.isTransientError(e) || ++attempt > MAX_RETRIES) {
+                    // Keep the stored URL so a later run can still resume
+                    throw e;
+                }
+                long delay = retryBaseDelayMs << (attempt - 1);
+                Log.w(TAG, "Upload interrupted, retrying in " + delay + "ms: " + e.getMessage());
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Forget any saved progress for this object, e.g. when the report is abandoned.
+     */
+    public void discard(String bucket, String objectPath, long length) {
+        store.remove(key(bucket, objectPath, length));
+    }
+
+    private static String key(String bucket, String objectPath, long length) {
+        return bucket + "/" + objectPath + ":" + length;
+    }
+
+    private String createUpload(long length, String bucket, String objectPath, String contentType,
+                                String accessToken) throws Exception {
+        HttpURLConnection conn = openConnection(endpoint, "POST", accessToken);
+        try {
+            conn.setRequestProperty("Upload-Length", String.valueOf(length));
+            conn.setRequestProperty("Upload-Metadata",
+                    "bucketName " + base64(bucket)
+                            + ",objectName " + base64(objectPath)
+                            + ",contentType " + base64(contentType));
+            // Re-creating after an expired upload must overwrite the partial object
+            conn.setRequestProperty("x-upsert", "true");
+            conn.setFixedLengthStreamingMode(0);
+            conn.setDoOutput(true);
+            conn.getOutputStream().close();
+
+            int code = conn.getResponseCode();
+            String location = conn.getHeaderField("Location");
+            if (code != 201 || location == null) {
+                throw httpError(conn, code, "could not create resumable upload");
+            }
+            // Location may be relative to the endpoint
+            return new URL(new URL(endpoint), location).toString();
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    // Returns the server's offset, or -1 if the upload no longer exists
+    private long fetchOffset(String uploadUrl, String accessToken) throws Exception {
+        HttpURLConnection conn = openConnection(uploadUrl, "HEAD", accessToken);
+        try {
+            int code = conn.getResponseCode();
+            if (code == 404 || code == 410 || code == 403) {
+                return -1;
+            }
+            String offset = conn.getHeaderField("Upload-Offset");
+            if (code < 200 || code >= 300 || offset == null) {
+                throw httpError(conn, code, "offset lookup failed");
+            }
+            return Long.parseLong(offset);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    // Send one chunk starting at offset, returns the offset acknowledged by the server
+    private long sendChunk(String uploadUrl, Uri source, long offset, long length, String accessToken,
+                           SupabaseManager.UploadProgressListener progressListener) throws Exception {
+        long chunkLength = Math.min(chunkSize, length - offset);
+        // HttpURLConnection has no PATCH, tus servers accept the override header
+        HttpURLConnection conn = openConnection(uploadUrl, "POST", accessToken);
+        try {
+            conn.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+            conn.setRequestProperty("Content-Type", "application/offset+octet-stream");
+            conn.setRequestProperty("Upload-Offset", String.valueOf(offset));
+            conn.setFixedLengthStreamingMode(chunkLength);
+            conn.setDoOutput(true);
+
+            try (InputStream in = opener.open(source);
+                 OutputStream os = conn.getOutputStream()) {
+                if (in == null) throw new IOException("Cannot open " + source);
+                skipFully(in, offset);
+
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long sent = 0;
+                int lastPercent = -1;
+                while (sent < chunkLength) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, chunkLength - sent));
+                    if (read == -1) throw new IOException("Source ended early at " + (offset + sent));
+                    os.write(buffer, 0, read);
+                    sent += read;
+                    int percent = (int) ((offset + sent) * 100 / length);
+                    if (progressListener != null && percent != lastPercent) {
+                        lastPercent = percent;
+                        progressListener.onProgress(offset + sent, length);
+                    }
+                }
+            }
+
+            int code = conn.getResponseCode();
+            String newOffset = conn.getHeaderField("Upload-Offset");
+            if (code == 409) {
+                // Offset mismatch, the outer retry re-reads it from the server
+                throw new IOException("Upload offset conflict");
+            }
+            if (code < 200 || code >= 300 || newOffset == null) {
+                throw httpError(conn, code, "chunk upload failed");
+            }
+            return Long.parseLong(newOffset);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    // Same "HTTP nnn: ..." shape as SupabaseManager, so callers classify failures alike
+    private static Exception httpError(HttpURLConnection conn, int code, String what) {
+        String body = "";
+        try (InputStream err = conn.getErrorStream()) {
+            if (err != null) {
+                byte[] bytes = new byte[512];
+                int read = err.read(bytes);
+                if (read > 0) {
+                    body = " " + new String(bytes, 0, read, StandardCharsets.UTF_8);
+                }
+            }
+        } catch (IOException ignored) {
+            // The status code says enough
+        }
+        return new Exception("HTTP " + code + ": " + what + body);
+    }
+
+    private HttpURLConnection openConnection(String urlString, String method, String accessToken) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(urlString).openConnection();
+        conn.setRequestMethod(method);
+        conn.setRequestProperty("apikey", apiKey);
+        conn.setRequestProperty("Authorization", "Bearer " + accessToken);
+        conn.setRequestProperty("Tus-Resumable", TUS_VERSION);
+        return conn;
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() == -1) throw new IOException("Source shorter than offset");
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private static String base64(String value) {
+        return Base64.encodeToString(value.getBytes(StandardCharsets.UTF_8), Base64.NO_WRAP);
+    }
+}
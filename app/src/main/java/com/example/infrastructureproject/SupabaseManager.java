@@ -1,12 +1,21 @@
 package com.example.infrastructureproject;
 
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
+import com.example.infrastructureproject.utils.ContentHash;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -22,9 +31,24 @@ public class SupabaseManager {
     private static final String SUPABASE_KEY = BuildConfig.SUPABASE_KEY;
     private static final ExecutorService executor = Executors.newSingleThreadExecutor();
     private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final String TICKET_IMAGES_BUCKET = "ticket-images";
+    // Objects are stored by content: sha256/ab/abcdef....jpg
+    private static final String CONTENT_PATH_PREFIX = "sha256/";
     
-    // Simple in-memory session
+    // Session, kept in memory and mirrored to app-private preferences after init(),
+    // so background submissions can refresh it after the process was restarted
+    private static final String SESSION_PREFS = "supabase_session";
+    private static final String PREF_ACCESS_TOKEN = "access_token";
+    private static final String PREF_REFRESH_TOKEN = "refresh_token";
+    private static final String PREF_EXPIRES_AT = "expires_at";
+    private static final String PREF_USER_ID = "user_id";
+    // Refresh this long before the access token expires
+    private static final long REFRESH_MARGIN_MS = 60_000;
+    private static final Object sessionLock = new Object();
+    private static SharedPreferences sessionPrefs;
     private static String accessToken = null;
+    private static String refreshToken = null;
+    private static long expiresAtMillis = 0;
     private static String currentFullName = null;
     private static String currentUserId = null;
 
@@ -147,9 +171,8 @@ public class SupabaseManager {
                     return;
                 }
                 
-                accessToken = authJson.getString("access_token");
-                String userId = authJson.getJSONObject("user").getString("id");
-                currentUserId = userId;
+                saveSession(authJson);
+                String userId = currentUserId;
 
                 // 2. Fetch Role and Full Name
                 String queryUrl = SUPABASE_URL + "/rest/v1/profiles?id=eq." + userId + "&select=role,full_name";
@@ -231,10 +254,110 @@ public class SupabaseManager {
         });
     }
     
+    /**
+     * Attach the session to app-private storage and restore a saved one.
+     * Safe to call more than once.
+     */
+    public static void init(Context context) {
+        synchronized (sessionLock) {
+            if (sessionPrefs != null) return;
+            sessionPrefs = context.getApplicationContext().getSharedPreferences(SESSION_PREFS, Context.MODE_PRIVATE);
+            if (accessToken == null) {
+                accessToken = sessionPrefs.getString(PREF_ACCESS_TOKEN, null);
+                refreshToken = sessionPrefs.getString(PREF_REFRESH_TOKEN, null);
+                expiresAtMillis = sessionPrefs.getLong(PREF_EXPIRES_AT, 0);
+                currentUserId = sessionPrefs.getString(PREF_USER_ID, null);
+            } else {
+                persistSession();
+            }
+        }
+    }
+
+    // Takes a /auth/v1/token response, from a password login or a refresh
+    private static void saveSession(JSONObject authJson) throws Exception {
+        synchronized (sessionLock) {
+            accessToken = authJson.getString("access_token");
+            refreshToken = authJson.optString("refresh_token", refreshToken);
+            expiresAtMillis = System.currentTimeMillis() + authJson.optLong("expires_in", 3600) * 1000;
+            JSONObject user = authJson.optJSONObject("user");
+            if (user != null) {
+                currentUserId = user.getString("id");
+            }
+            persistSession();
+        }
+    }
+
+    private static void persistSession() {
+        if (sessionPrefs == null) return;
+        sessionPrefs.edit()
+                .putString(PREF_ACCESS_TOKEN, accessToken)
+                .putString(PREF_REFRESH_TOKEN, refreshToken)
+                .putLong(PREF_EXPIRES_AT, expiresAtMillis)
+                .putString(PREF_USER_ID, currentUserId)
+                .apply();
+    }
+
+    /**
+     * Blocking. The current access token, refreshed first if it is about to
+     * expire. Throws "HTTP 401: ..." when there is no usable session.
+     */
+    static String getValidAccessToken() throws Exception {
+        synchronized (sessionLock) {
+            if (accessToken == null) {
+                throw new Exception("HTTP 401: not logged in");
+            }
+            if (System.currentTimeMillis() < expiresAtMillis - REFRESH_MARGIN_MS) {
+                return accessToken;
+            }
+            return refreshSession(accessToken);
+        }
+    }
+
+    /**
+     * Blocking. Exchange the refresh token for a new access token after the
+     * server rejected staleToken; returns at once if another caller already
+     * replaced it. A rejected refresh throws "HTTP 401: ...", a network
+     * failure its IOException.
+     */
+    static String refreshSession(String staleToken) throws Exception {
+        synchronized (sessionLock) {
+            if (accessToken != null && !accessToken.equals(staleToken)) {
+                return accessToken;
+            }
+            if (refreshToken == null) {
+                throw new Exception("HTTP 401: session expired");
+            }
+            String authUrl = SUPABASE_URL + "/auth/v1/token?grant_type=refresh_token";
+            JSONObject body = new JSONObject();
+            body.put("refresh_token", refreshToken);
+            String response;
+            try {
+                response = makeHttpRequest("POST", authUrl, body.toString(), null);
+            } catch (Exception e) {
+                if (isTransientError(e)) {
+                    throw e;
+                }
+                // Revoked or already used refresh token, only a new login helps
+                Log.w(TAG, "Session refresh rejected: " + e.getMessage());
+                throw new Exception("HTTP 401: session expired");
+            }
+            saveSession(new JSONObject(response));
+            return accessToken;
+        }
+    }
+
     public static void logout() {
-        accessToken = null;
-        currentFullName = null;
-        currentUserId = null;
+        synchronized (sessionLock) {
+            accessToken = null;
+            refreshToken = null;
+            expiresAtMillis = 0;
+            currentFullName = null;
+            currentUserId = null;
+            if (sessionPrefs != null) {
+                sessionPrefs.edit().clear().apply();
+            }
+        }
+        TicketManager.getInstance().clear();
     }
     
     public static String getAccessToken() {
@@ -249,150 +372,308 @@ public class SupabaseManager {
         return currentUserId;
     }
 
-    // Ticket submission callback
-    public interface TicketCallback {
-        void onSuccess(String ticketId);
-        void onError(String message);
+    // Generate ticket ID (T + timestamp + random)
+    public static String newTicketId() {
+        return "T" + System.currentTimeMillis() + ((int)(Math.random() * 1000));
     }
 
-    // Submit a new ticket to Supabase
-    public static void submitTicket(String issueType, String severity, String location, 
-                                   String description, String reporterId, TicketCallback callback) {
-        executor.execute(() -> {
-            try {
-                // Check if user is logged in
-                Log.d(TAG, "=== TICKET SUBMISSION DEBUG ===");
-                Log.d(TAG, "Access Token: " + (accessToken != null ? "EXISTS (length: " + accessToken.length() + ")" : "NULL"));
-                Log.d(TAG, "Reporter ID: " + reporterId);
-                Log.d(TAG, "Current User ID: " + currentUserId);
-                Log.d(TAG, "Current Full Name: " + currentFullName);
-                
-                if (accessToken == null || reporterId == null) {
-                    Log.e(TAG, "SUBMISSION BLOCKED - Missing credentials");
-                    postTicketError(callback, "You must be logged in to submit a ticket. Please log in again.");
-                    return;
-                }
-                
-                // Generate ticket ID (T + timestamp + random)
-                String ticketId = "T" + System.currentTimeMillis() + ((int)(Math.random() * 1000));
-                
-                String ticketsUrl = SUPABASE_URL + "/rest/v1/tickets?select=*";
-                JSONObject ticketBody = new JSONObject();
-                ticketBody.put("ticket_id", ticketId);
-                ticketBody.put("reporter_id", reporterId);
-                ticketBody.put("issue_type", issueType);
-                ticketBody.put("severity", severity);
-                ticketBody.put("status", "Pending");
-                ticketBody.put("location", location);
-                ticketBody.put("description", description);
-                
-                Log.d(TAG, "Request URL: " + ticketsUrl);
-                Log.d(TAG, "Request Body: " + ticketBody.toString());
-                
-                String response = makeHttpRequest("POST", ticketsUrl, ticketBody.toString(), accessToken);
-                
-                Log.d(TAG, "Response: " + (response != null ? response : "NULL"));
-                Log.d(TAG, "Response length: " + (response != null ? response.length() : 0));
-                
-                // Check if response is empty
-                if (response == null || response.trim().isEmpty()) {
-                    Log.e(TAG, "EMPTY RESPONSE FROM SERVER");
-                    postTicketError(callback, "Empty response from server. Possible causes:\n1. Not logged in\n2. Session expired\n3. Internet connection issue\n4. RLS policy blocking insert\n\nPlease logout and login again.");
-                    return;
-                }
-                
-                // Parse response to get the created ticket UUID
-                JSONArray responseArray = new JSONArray(response);
-                if (responseArray.length() > 0) {
-                    JSONObject createdTicket = responseArray.getJSONObject(0);
-                    String createdId = createdTicket.getString("id");
-                    mainHandler.post(() -> callback.onSuccess(createdId));
-                } else {
-                    postTicketError(callback, "Ticket created but no ID returned");
-                }
-                
-            } catch (Exception e) {
-                Log.e(TAG, "Submit Ticket Error", e);
-                String errorMsg = e.getMessage();
-                if (errorMsg != null && errorMsg.contains("HTTP 401")) {
-                    postTicketError(callback, "Authentication failed. Please log in again.");
-                } else if (errorMsg != null && errorMsg.contains("HTTP 400")) {
-                    postTicketError(callback, "Invalid data. Check that all fields are filled correctly.");
-                } else if (errorMsg != null && errorMsg.contains("HTTP 403")) {
-                    postTicketError(callback, "Permission denied. Check Row Level Security policies in Supabase.");
-                } else {
-                    postTicketError(callback, "Failed to submit ticket: " + errorMsg);
-                }
+    /**
+     * Blocking insert, returns the new ticket's UUID. For background callers
+     * that pass their own token (see TicketSubmissionWorker).
+     */
+    static String insertTicket(String ticketId, String issueType, String severity, String location,
+                               Double latitude, Double longitude, String description, String reporterId,
+                               String token) throws Exception {
+        String ticketsUrl = SUPABASE_URL + "/rest/v1/tickets?select=*";
+        JSONObject ticketBody = new JSONObject();
+        ticketBody.put("ticket_id", ticketId);
+        ticketBody.put("reporter_id", reporterId);
+        ticketBody.put("issue_type", issueType);
+        ticketBody.put("severity", severity);
+        ticketBody.put("status", "Pending");
+        ticketBody.put("location", location);
+        // Coordinates let duplicate detection search nearby; absent for typed-in locations
+        if (latitude != null && longitude != null) {
+            ticketBody.put("latitude", latitude.doubleValue());
+            ticketBody.put("longitude", longitude.doubleValue());
+        }
+        ticketBody.put("description", description);
+        
+        Log.d(TAG, "Request URL: " + ticketsUrl);
+        Log.d(TAG, "Request Body: " + ticketBody.toString());
+        
+        String response = makeHttpRequest("POST", ticketsUrl, ticketBody.toString(), token);
+        
+        Log.d(TAG, "Response: " + (response != null ? response : "NULL"));
+        Log.d(TAG, "Response length: " + (response != null ? response.length() : 0));
+        
+        // Check if response is empty
+        if (response == null || response.trim().isEmpty()) {
+            Log.e(TAG, "EMPTY RESPONSE FROM SERVER");
+            throw new Exception("Empty response from server. Possible causes:\n1. Not logged in\n2. Session expired\n3. Internet connection issue\n4. RLS policy blocking insert\n\nPlease logout and login again.");
+        }
+        
+        // Parse response to get the created ticket UUID
+        JSONArray responseArray = new JSONArray(response);
+        if (responseArray.length() > 0) {
+            JSONObject createdTicket = responseArray.getJSONObject(0);
+            return createdTicket.getString("id");
+        }
+        throw new Exception("Ticket created but no ID returned");
+    }
+
+    /**
+     * UUID of the ticket with this client-generated ticket_id, or null if it
+     * was never created. Lets a retried submission skip a duplicate insert.
+     */
+    static String findTicketUuid(String ticketId, String token) throws Exception {
+        String url = SUPABASE_URL + "/rest/v1/tickets?ticket_id=eq." + ticketId + "&select=id";
+        String response = makeHttpRequest("GET", url, null, token);
+        JSONArray rows = new JSONArray(response);
+        return rows.length() > 0 ? rows.getJSONObject(0).getString("id") : null;
+    }
+
+    // Network problems and server-side errors are worth retrying, bad input or auth is not
+    static boolean isTransientError(Exception e) {
+        if (e instanceof IOException) {
+            return true;
+        }
+        String message = e.getMessage();
+        return message != null && (message.startsWith("HTTP 5") || message.startsWith("HTTP 429"));
+    }
+
+    static String describeSubmitError(Exception e) {
+        String errorMsg = e.getMessage();
+        if (errorMsg != null && errorMsg.contains("HTTP 401")) {
+            return "Authentication failed. Please log in again.";
+        } else if (errorMsg != null && errorMsg.contains("HTTP 400")) {
+            return "Invalid data. Check that all fields are filled correctly.";
+        } else if (errorMsg != null && errorMsg.contains("HTTP 403")) {
+            return "Permission denied. Check Row Level Security policies in Supabase.";
+        } else {
+            return "Failed to submit ticket: " + errorMsg;
+        }
+    }
+
+    /**
+     * Upload progress. totalBytes is -1 when the length is unknown (chunked upload).
+     */
+    public interface UploadProgressListener {
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
+    private static final int UPLOAD_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Blocking upload + ticket_images insert, returns the storage path. Objects
+     * are stored under the SHA-256 of their bytes, so identical photos (retries,
+     * resubmissions) share one object and are never uploaded twice. Safe to
+     * repeat for the same ticket: existing objects are skipped, interrupted
+     * uploads resume, and the metadata row is only inserted once.
+     * fileName is kept as the row's display name and upload order.
+     * Optional thumbnail and medium renditions are uploaded first (they are
+     * small), and their paths and the optional perceptual hash go into the row.
+     * Progress is reported on the calling thread.
+     */
+    static String uploadTicketImageBlocking(Context context, Uri imageUri, Uri thumbUri, Uri mediumUri,
+                                            Long phash, String ticketUuid, String fileName, String contentType,
+                                            String uploadedBy, String token,
+                                            UploadProgressListener progressListener) throws Exception {
+        ContentResolver resolver = context.getContentResolver();
+        String filePath = contentPath(resolver, imageUri, fileName);
+        // The row is inserted last, so an existing one means an earlier attempt finished this photo
+        if (imageMetadataExists(ticketUuid, filePath, token)) {
+            return filePath;
+        }
+
+        String thumbPath = null;
+        if (thumbUri != null) {
+            thumbPath = contentPath(resolver, thumbUri, fileName);
+            uploadObjectBlocking(context, thumbUri, thumbPath, contentType, token, null);
+        }
+        String mediumPath = null;
+        if (mediumUri != null) {
+            mediumPath = contentPath(resolver, mediumUri, fileName);
+            uploadObjectBlocking(context, mediumUri, mediumPath, contentType, token, null);
+        }
+
+        long size = uploadObjectBlocking(context, imageUri, filePath, contentType, token, progressListener);
+        saveImageMetadata(ticketUuid, filePath, fileName, uploadedBy, size, contentType,
+                thumbPath, mediumPath, phash, token);
+        return filePath;
+    }
+
+    // Content-addressed path for the object's bytes, keeping fileName's extension
+    private static String contentPath(ContentResolver resolver, Uri uri, String fileName) throws Exception {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new Exception("Cannot open image");
+            return contentPath(ContentHash.sha256Hex(in), fileName);
+        }
+    }
+
+    private static String contentPath(String sha256Hex, String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot > 0 ? fileName.substring(dot) : "";
+        // Two-character fan-out keeps any one storage folder small
+        return CONTENT_PATH_PREFIX + sha256Hex.substring(0, 2) + "/" + sha256Hex + extension;
+    }
+
+    /**
+     * Upload one object to the ticket-images bucket unless it is already there
+     * (resumable when the size is known). Returns the object's size in bytes,
+     * or what was sent if the size was unknown.
+     */
+    private static long uploadObjectBlocking(Context context, Uri uri, String filePath, String contentType,
+                                             String token, UploadProgressListener progressListener) throws Exception {
+        ContentResolver resolver = context.getContentResolver();
+        long length = queryContentLength(resolver, uri);
+        if (objectExists(filePath, token)) {
+            Log.d(TAG, "Object already stored, skipping upload: " + filePath);
+            if (progressListener != null && length > 0) {
+                progressListener.onProgress(length, length);
             }
-        });
+            return Math.max(length, 0);
+        }
+        if (length >= 0) {
+            ResumableUploader.forSupabase(context).upload(uri, length, TICKET_IMAGES_BUCKET, filePath,
+                    contentType, token, progressListener);
+            return length;
+        }
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new Exception("Cannot open image");
+            return streamToStorage(filePath, in, length, contentType, token, progressListener);
+        }
     }
 
-    // Upload ticket image to Supabase Storage
-    public static void uploadTicketImage(String ticketUuid, byte[] imageData, String fileName, 
-                                         String uploadedBy, TicketCallback callback) {
-        executor.execute(() -> {
-            try {
-                // 1. Upload to storage bucket
-                String bucketName = "ticket-images";
-                String filePath = ticketUuid + "/" + fileName;
-                String storageUrl = SUPABASE_URL + "/storage/v1/object/" + bucketName + "/" + filePath;
-                
-                HttpURLConnection conn = null;
-                try {
-                    URL url = new URL(storageUrl);
-                    conn = (HttpURLConnection) url.openConnection();
-                    conn.setRequestMethod("POST");
-                    conn.setRequestProperty("apikey", SUPABASE_KEY);
-                    conn.setRequestProperty("Authorization", "Bearer " + accessToken);
-                    conn.setRequestProperty("Content-Type", "image/jpeg");
-                    conn.setDoOutput(true);
-                    
-                    try(OutputStream os = conn.getOutputStream()) {
-                        os.write(imageData);
-                        os.flush();
-                    }
-                    
-                    int code = conn.getResponseCode();
-                    if (code < 200 || code >= 300) {
-                        throw new Exception("Image upload failed with code: " + code);
+    /**
+     * Forget the saved resumable-upload progress of a photo file, once the
+     * report went through or was given up. Best effort.
+     */
+    static void discardResumableUpload(Context context, Uri uri, String fileName) {
+        try {
+            ContentResolver resolver = context.getContentResolver();
+            long length = queryContentLength(resolver, uri);
+            if (length < 0) return; // Only known lengths go through the resumable path
+            ResumableUploader.forSupabase(context).discard(TICKET_IMAGES_BUCKET,
+                    contentPath(resolver, uri, fileName), length);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not discard upload progress for " + uri, e);
+        }
+    }
+
+    // Objects are shared between tickets, so a row is identified by ticket and path
+    private static boolean imageMetadataExists(String ticketUuid, String filePath, String token) throws Exception {
+        String url = SUPABASE_URL + "/rest/v1/ticket_images?ticket_id=eq." + ticketUuid
+                + "&path=eq." + filePath + "&select=id";
+        return new JSONArray(makeHttpRequest("GET", url, null, token)).length() > 0;
+    }
+
+    // HEAD the object; 400/404 mean it is not stored yet, other failures are errors worth retrying
+    private static boolean objectExists(String filePath, String token) throws Exception {
+        String objectUrl = SUPABASE_URL + "/storage/v1/object/" + TICKET_IMAGES_BUCKET + "/" + filePath;
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(objectUrl).openConnection();
+            conn.setRequestMethod("HEAD");
+            conn.setRequestProperty("apikey", SUPABASE_KEY);
+            conn.setRequestProperty("Authorization", "Bearer " + token);
+            int code = conn.getResponseCode();
+            if (code >= 200 && code < 300) {
+                return true;
+            }
+            if (code == 400 || code == 404) {
+                return false;
+            }
+            throw new Exception("HTTP " + code + ": object lookup failed");
+        } finally {
+            if (conn != null) conn.disconnect();
+        }
+    }
+
+    private static long queryContentLength(ContentResolver resolver, Uri uri) {
+        try (AssetFileDescriptor afd = resolver.openAssetFileDescriptor(uri, "r")) {
+            return afd != null ? afd.getLength() : AssetFileDescriptor.UNKNOWN_LENGTH;
+        } catch (Exception e) {
+            return AssetFileDescriptor.UNKNOWN_LENGTH;
+        }
+    }
+
+    // POST the stream to the ticket-images bucket through a fixed-size buffer, returns bytes sent
+    private static long streamToStorage(String filePath, InputStream in, long length, String contentType,
+                                        String token, UploadProgressListener progressListener) throws Exception {
+        String storageUrl = SUPABASE_URL + "/storage/v1/object/" + TICKET_IMAGES_BUCKET + "/" + filePath;
+        HttpURLConnection conn = null;
+        try {
+            URL url = new URL(storageUrl);
+            conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("apikey", SUPABASE_KEY);
+            conn.setRequestProperty("Authorization", "Bearer " + token);
+            conn.setRequestProperty("Content-Type", contentType);
+            conn.setDoOutput(true);
+            if (length >= 0) {
+                conn.setFixedLengthStreamingMode(length);
+            } else {
+                conn.setChunkedStreamingMode(UPLOAD_BUFFER_SIZE);
+            }
+
+            long sent = 0;
+            int lastPercent = -1;
+            byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+            try (OutputStream os = conn.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    os.write(buffer, 0, read);
+                    sent += read;
+                    if (progressListener != null) {
+                        // Only post when the percentage moves (or every buffer if length is unknown)
+                        int percent = length > 0 ? (int) (sent * 100 / length) : -1;
+                        if (percent != lastPercent || length <= 0) {
+                            lastPercent = percent;
+                            progressListener.onProgress(sent, length);
+                        }
                     }
-                    
-                } finally {
-                    if (conn != null) conn.disconnect();
                 }
-                
-                // 2. Insert metadata into ticket_images table
-                String imagesUrl = SUPABASE_URL + "/rest/v1/ticket_images";
-                JSONObject imageBody = new JSONObject();
-                imageBody.put("ticket_id", ticketUuid);
-                imageBody.put("bucket", bucketName);
-                imageBody.put("path", filePath);
-                imageBody.put("filename", fileName);
-                imageBody.put("uploaded_by", uploadedBy);
-                
-                JSONObject metadata = new JSONObject();
-                metadata.put("size", imageData.length);
-                metadata.put("contentType", "image/jpeg");
-                imageBody.put("metadata", metadata);
-                
-                Log.d(TAG, "Saving image metadata - ticket_id: " + ticketUuid);
-                Log.d(TAG, "Image path: " + filePath);
-                Log.d(TAG, "Full metadata: " + imageBody.toString());
-                
-                String metadataResponse = makeHttpRequest("POST", imagesUrl, imageBody.toString(), accessToken);
-                Log.d(TAG, "Image metadata save response: " + (metadataResponse != null ? metadataResponse : "NULL"));
-                
-                mainHandler.post(() -> callback.onSuccess(filePath));
-                
-            } catch (Exception e) {
-                Log.e(TAG, "Upload Image Error", e);
-                postTicketError(callback, "Failed to upload image: " + e.getMessage());
+                os.flush();
             }
-        });
+
+            int code = conn.getResponseCode();
+            if (code < 200 || code >= 300) {
+                throw new Exception("Image upload failed with code: " + code);
+            }
+            return sent;
+        } finally {
+            if (conn != null) conn.disconnect();
+        }
     }
 
-    private static void postTicketError(TicketCallback callback, String message) {
-        mainHandler.post(() -> callback.onError(message));
+    // Insert metadata into ticket_images table
+    private static void saveImageMetadata(String ticketUuid, String filePath, String fileName,
+                                          String uploadedBy, long size, String contentType,
+                                          String thumbPath, String mediumPath, Long phash,
+                                          String token) throws Exception {
+        String imagesUrl = SUPABASE_URL + "/rest/v1/ticket_images";
+        JSONObject imageBody = new JSONObject();
+        imageBody.put("ticket_id", ticketUuid);
+        imageBody.put("bucket", TICKET_IMAGES_BUCKET);
+        imageBody.put("path", filePath);
+        imageBody.put("filename", fileName);
+        imageBody.put("uploaded_by", uploadedBy);
+        if (thumbPath != null) imageBody.put("thumb_path", thumbPath);
+        if (mediumPath != null) imageBody.put("medium_path", mediumPath);
+        if (phash != null) imageBody.put("phash", phash.longValue());
+
+        JSONObject metadata = new JSONObject();
+        metadata.put("size", size);
+        metadata.put("contentType", contentType);
+        imageBody.put("metadata", metadata);
+
+        Log.d(TAG, "Saving image metadata - ticket_id: " + ticketUuid);
+        Log.d(TAG, "Image path: " + filePath);
+        Log.d(TAG, "Full metadata: " + imageBody.toString());
+
+        String metadataResponse = makeHttpRequest("POST", imagesUrl, imageBody.toString(), token);
+        Log.d(TAG, "Image metadata save response: " + (metadataResponse != null ? metadataResponse : "NULL"));
     }
 
     public static String makeHttpRequest(String method, String urlString, String jsonBody, String token) throws Exception {
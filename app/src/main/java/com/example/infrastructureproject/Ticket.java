@@ -1,6 +1,9 @@
 package com.example.infrastructureproject;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class Ticket implements Serializable {
     private String id;
@@ -12,6 +15,12 @@ public class Ticket implements Serializable {
     private String dateTime;
     private String imageName;
     private String imageUrl; // Full URL to image in Supabase Storage
+    private String thumbnailUrl; // Small rendition for lists, null for older uploads
+    private String mediumUrl; // Medium rendition for detail screens, null for older uploads
+    private Long imageHash; // dHash of the photo for duplicate detection, null if unknown
+    private Double latitude; // Where the issue is, null when only a typed-in location is known
+    private Double longitude;
+    private List<TicketPhoto> photos = Collections.emptyList(); // All photos, the first one is imageUrl
     private String reporterId; // User ID of reporter from Supabase
     private String username;
     private TicketStatus status;
@@ -19,6 +28,11 @@ public class Ticket implements Serializable {
     private String assignedTo; // Engineer assigned to
     private String councilNotes; // Additional notes from council
 
+    // Primitive sort keys, kept in sync by the setters so list ordering never re-parses strings
+    private long createdAtMillis; // Creation time (epoch millis), 0 if unknown
+    private int severityRank;
+    private int statusRank;
+
     public enum TicketStatus {
         PENDING,
         ACCEPTED,
@@ -39,6 +53,8 @@ public class Ticket implements Serializable {
         this.username = "Anonymous";
         this.status = TicketStatus.PENDING;
         this.reason = "";
+        this.severityRank = rankSeverity(severity);
+        this.statusRank = rankStatus(status);
     }
 
     // Getters and setters
@@ -52,7 +68,10 @@ public class Ticket implements Serializable {
     public void setType(String type) { this.type = type; }
 
     public String getSeverity() { return severity; }
-    public void setSeverity(String severity) { this.severity = severity; }
+    public void setSeverity(String severity) {
+        this.severity = severity;
+        this.severityRank = rankSeverity(severity);
+    }
 
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
@@ -69,6 +88,26 @@ public class Ticket implements Serializable {
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 
+    // Renditions fall back to the original when the upload predates them
+    public String getThumbnailUrl() { return thumbnailUrl != null ? thumbnailUrl : imageUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public String getMediumUrl() { return mediumUrl != null ? mediumUrl : imageUrl; }
+    public boolean hasMediumRendition() { return mediumUrl != null; }
+    public void setMediumUrl(String mediumUrl) { this.mediumUrl = mediumUrl; }
+    public Long getImageHash() { return imageHash; }
+    public void setImageHash(Long imageHash) { this.imageHash = imageHash; }
+    public boolean hasCoordinates() { return latitude != null && longitude != null; }
+    public Double getLatitude() { return latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setCoordinates(Double latitude, Double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+    public List<TicketPhoto> getPhotos() { return photos; }
+    public void setPhotos(List<TicketPhoto> photos) {
+        this.photos = Collections.unmodifiableList(new ArrayList<>(photos));
+    }
+
     public String getReporterId() { return reporterId; }
     public void setReporterId(String reporterId) { this.reporterId = reporterId; }
 
@@ -76,7 +115,56 @@ public class Ticket implements Serializable {
     public void setUsername(String username) { this.username = username; }
 
     public TicketStatus getStatus() { return status; }
-    public void setStatus(TicketStatus status) { this.status = status; }
+    public void setStatus(TicketStatus status) {
+        this.status = status;
+        this.statusRank = rankStatus(status);
+    }
+
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public void setCreatedAtMillis(long createdAtMillis) { this.createdAtMillis = createdAtMillis; }
+
+    // Higher rank = more severe (High=3, Medium=2, Low=1, unknown=0)
+    public int getSeverityRank() { return severityRank; }
+
+    // Lower rank = earlier in the workflow (PENDING first, SPAM last)
+    public int getStatusRank() { return statusRank; }
+
+    // Unassigned = still waiting for the council to hand it to an engineer
+    public boolean isUnassigned() {
+        return status == TicketStatus.PENDING
+                && (assignedTo == null || assignedTo.isEmpty() || assignedTo.equalsIgnoreCase("null"));
+    }
+
+    private static int rankSeverity(String severity) {
+        if (severity == null) return 0;
+        switch (severity.toLowerCase()) {
+            case "high":
+                return 3;
+            case "medium":
+                return 2;
+            case "low":
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private static int rankStatus(TicketStatus status) {
+        if (status == null) return 0;
+        switch (status) {
+            case PENDING:
+                return 0;
+            case UNDER_REVIEW:
+                return 1;
+            case ACCEPTED:
+                return 2;
+            case REJECTED:
+                return 3;
+            case SPAM:
+            default:
+                return 4;
+        }
+    }
     
     // Get display-friendly status text
     public String getStatusDisplayText() {
@@ -3,6 +3,7 @@ package com.example.infrastructureproject;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.os.Looper;
 import android.view.LayoutInflater;
@@ -12,18 +13,34 @@ import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketViewHolder> {
 
+    // How many rows ahead of the scroll direction get their thumbnails fetched
+    private static final int PRELOAD_AHEAD_ROWS = 6;
+
     private Context context;
     private List<Ticket> tickets;
     private OnTicketActionListener listener;
     private boolean isEngineerMode;
     private boolean isCouncilMode;
+    private final int thumbnailSizePx; // ivTicketImage bounds, used as the Glide override size
+    private final ObjectKey thumbnailSignature;
 
     public interface OnTicketActionListener {
         void onAccept(Ticket ticket, int position);
@@ -47,6 +64,42 @@ public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketView
         this.listener = listener;
         this.isEngineerMode = isEngineerMode;
         this.isCouncilMode = isCouncilMode;
+        this.thumbnailSizePx = context.getResources().getDimensionPixelSize(R.dimen.ticket_thumbnail_size);
+        // Keeps list thumbnails in their own cache entries, separate from full-size detail images
+        this.thumbnailSignature = new ObjectKey("ticket-thumb-" + thumbnailSizePx);
+    }
+
+    /**
+     * Preload card thumbnails for the next rows in the scroll direction.
+     * Call once after the adapter is set on the RecyclerView.
+     */
+    public void attachPreloader(RecyclerView recyclerView) {
+        ListPreloader.PreloadModelProvider<String> modelProvider = new ListPreloader.PreloadModelProvider<String>() {
+            @NonNull
+            @Override
+            public List<String> getPreloadItems(int position) {
+                if (position < 0 || position >= tickets.size()) {
+                    return Collections.emptyList();
+                }
+                String imageUrl = tickets.get(position).getThumbnailUrl();
+                if (imageUrl == null || imageUrl.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                return Collections.singletonList(imageUrl);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String imageUrl) {
+                return thumbnailRequest(imageUrl);
+            }
+        };
+
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(
+                Glide.with(context),
+                modelProvider,
+                new FixedPreloadSizeProvider<>(thumbnailSizePx, thumbnailSizePx),
+                PRELOAD_AHEAD_ROWS));
     }
 
     public void setTickets(List<Ticket> tickets) {
@@ -135,9 +188,11 @@ public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketView
             tvSeverity.setBackgroundResource(severityBg);
 
             // Set ticket image from URL or fallback to drawable
-            if (ticket.getImageUrl() != null && !ticket.getImageUrl().isEmpty()) {
-                loadImageThumbnail(ticket.getImageUrl(), ivTicketImage);
+            if (ticket.getThumbnailUrl() != null && !ticket.getThumbnailUrl().isEmpty()) {
+                loadImageThumbnail(ticket.getThumbnailUrl(), ivTicketImage);
             } else {
+                // Cancel any in-flight load left over from the recycled row
+                Glide.with(context).clear(ivTicketImage);
                 // Fallback to drawable for old tickets
                 int imageResource = context.getResources().getIdentifier(
                         ticket.getImageName(),
@@ -237,13 +292,21 @@ public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketView
 
     // Load image thumbnail from Supabase URL with caching
     private void loadImageThumbnail(String imageUrl, ImageView imageView) {
-        // Use Glide for automatic disk and memory caching
-        // This prevents repeated downloads from Supabase and saves egress bandwidth
-        com.bumptech.glide.Glide.with(imageView.getContext())
+        thumbnailRequest(imageUrl).into(imageView);
+    }
+
+    // Shared by bind and preload so both hit the same memory/disk cache entry.
+    // Decoded at the card size in RGB_565 (half the memory, fine for a small
+    // photo) and only the small resource is kept on disk.
+    private RequestBuilder<Drawable> thumbnailRequest(String imageUrl) {
+        return Glide.with(context)
                 .load(imageUrl)
+                .override(thumbnailSizePx, thumbnailSizePx)
+                .centerCrop()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .signature(thumbnailSignature)
                 .placeholder(R.drawable.ic_image_placeholder)
                 .error(R.drawable.ic_image_placeholder)
-                .diskCacheStrategy(com.bumptech.glide.load.engine.DiskCacheStrategy.ALL)
-                .into(imageView);
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE);
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
 
 
 
@@ -17,6 +18,7 @@ public class TicketDetailActivity extends AppCompatActivity {
 
     // UI Components
     private ImageView ivTicketImage;
+    private RecyclerView rvPhotoGallery;
     private TextView tvTicketId;
     private TextView tvType;
     private TextView tvSeverity;
@@ -26,6 +28,8 @@ public class TicketDetailActivity extends AppCompatActivity {
     private TextView tvDateTime;
     private ImageView ivClose;
 
+    private static final String STATE_TICKET = "ticket_state";
+
     private Ticket ticket;
 
     private boolean isEngineerView = false;
@@ -58,14 +62,67 @@ public class TicketDetailActivity extends AppCompatActivity {
         }
 
         initializeViews();
-        setupTicketData();
-        setupListeners();
+
+        // Resolve the ticket by ID from the in-process store
+        ticket = TicketManager.getInstance().getTicketById(getIntent().getStringExtra("ticket_id"));
+        // After process death the store is empty - use the saved compact copy
+        if (ticket == null && savedInstanceState != null) {
+            TicketParcel saved = savedInstanceState.getParcelable(STATE_TICKET);
+            if (saved != null) {
+                ticket = saved.getTicket();
+            }
+        }
+
+        if (ticket != null) {
+            setupTicketData();
+            setupListeners();
+        } else {
+            loadTicketFromServer();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (ticket != null) {
+            outState.putParcelable(STATE_TICKET, new TicketParcel(ticket));
+        }
+    }
+
+    // Last resort when the ticket is neither in the store nor in saved state
+    private void loadTicketFromServer() {
+        String dbId = getIntent().getStringExtra("db_id");
+        if (dbId == null || dbId.isEmpty()) {
+            Toast.makeText(this, "Error: Ticket not found", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        TicketRepository.getTicketByDbId(dbId, new TicketRepository.FetchTicketCallback() {
+            @Override
+            public void onSuccess(Ticket loaded) {
+                runOnUiThread(() -> {
+                    if (isFinishing()) return;
+                    ticket = loaded;
+                    setupTicketData();
+                    setupListeners();
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                runOnUiThread(() -> {
+                    Toast.makeText(TicketDetailActivity.this, "Error loading ticket: " + message, Toast.LENGTH_SHORT).show();
+                    finish();
+                });
+            }
+        });
     }
 
     private void initializeViews() {
         if (isEngineerView) {
             // Engineer view
             ivTicketImage = findViewById(R.id.ivTicketImage);
+            rvPhotoGallery = findViewById(R.id.rvPhotoGallery);
             ivBack = findViewById(R.id.ivBack);
             tvTicketId = findViewById(R.id.tvTicketId);
             tvType = findViewById(R.id.tvType);
@@ -86,6 +143,7 @@ public class TicketDetailActivity extends AppCompatActivity {
         } else {
             // Citizen view
             ivTicketImage = findViewById(R.id.ivTicketImageLarge);
+            rvPhotoGallery = findViewById(R.id.rvPhotoGallery);
             tvTicketId = findViewById(R.id.tvTicketId);
             tvType = findViewById(R.id.tvType);
             tvSeverity = findViewById(R.id.tvSeverity);
@@ -100,37 +158,10 @@ public class TicketDetailActivity extends AppCompatActivity {
     }
 
     private void setupTicketData() {
-        // Get ticket data from intent
-        String ticketId = getIntent().getStringExtra("ticket_id");
-        String type = getIntent().getStringExtra("type");
-        String severity = getIntent().getStringExtra("severity");
-        String location = getIntent().getStringExtra("location");
-        String dateTime = getIntent().getStringExtra("date_time");
-        String description = getIntent().getStringExtra("description");
-        String imageName = getIntent().getStringExtra("image_name");
-        String imageUrl = getIntent().getStringExtra("image_url"); // Get image URL
-        String status = getIntent().getStringExtra("status");
-        String reason = getIntent().getStringExtra("reason");
-        String username = getIntent().getStringExtra("username");
-        String assignedTo = getIntent().getStringExtra("assigned_to");
-        String councilNotes = getIntent().getStringExtra("council_notes");
-        String dbId = getIntent().getStringExtra("db_id");
-
-        // Create ticket object
-        ticket = new Ticket(ticketId, type, severity, location, description, dateTime, imageName);
-        if (imageUrl != null && !imageUrl.isEmpty()) {
-            ticket.setImageUrl(imageUrl);
-        }
-        if (status != null && !status.isEmpty()) {
-            try {
-                ticket.setStatus(Ticket.TicketStatus.valueOf(status));
-            } catch (IllegalArgumentException e) {
-                ticket.setStatus(Ticket.TicketStatus.PENDING);
-            }
-        }
-        if (reason != null && !reason.isEmpty()) {
-            ticket.setReason(reason);
-        }
+        String username = ticket.getUsername();
+        String assignedTo = ticket.getAssignedTo();
+        String councilNotes = ticket.getCouncilNotes();
+        String dbId = ticket.getDbId() != null ? ticket.getDbId() : getIntent().getStringExtra("db_id");
 
         // Set ticket data
         tvTicketId.setText(ticket.getId());
@@ -190,9 +221,13 @@ public class TicketDetailActivity extends AppCompatActivity {
     }
 
     private void setTicketImage() {
+        // Tapping a thumbnail shows that photo in the main image
+        PhotoGalleryAdapter.bindTicketPhotos(rvPhotoGallery, ticket.getPhotos(),
+                position -> loadImageFromUrl(ticket.getPhotos().get(position).getMediumUrl()));
+
         // First try to load from URL if available
-        if (ticket.getImageUrl() != null && !ticket.getImageUrl().isEmpty()) {
-            loadImageFromUrl(ticket.getImageUrl());
+        if (ticket.getMediumUrl() != null && !ticket.getMediumUrl().isEmpty()) {
+            loadImageFromUrl(ticket.getMediumUrl());
             return;
         }
         
@@ -1,14 +1,30 @@
 package com.example.infrastructureproject;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * In-process ticket store addressed by ticket ID.
+ * Screens hand each other ticket IDs and look the tickets up here,
+ * instead of serializing whole tickets into Intents or Bundles.
+ */
 public class TicketManager {
+    // Well above one dashboard load; the least recently stored tickets go first
+    static final int MAX_TICKETS = 500;
+
     private static TicketManager instance;
-    private List<Ticket> allTickets;
+    // Keyed by ticket ID, keeps insertion order for getAllTickets()
+    private final Map<String, Ticket> ticketsById;
 
-    private TicketManager() {
-        allTickets = new ArrayList<>();
+    TicketManager() {
+        ticketsById = new LinkedHashMap<String, Ticket>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Ticket> eldest) {
+                return size() > MAX_TICKETS;
+            }
+        };
         // Mock data removed - now using real Supabase data
         // Tickets are now loaded from Supabase via TicketRepository
     }
@@ -20,14 +36,14 @@ public class TicketManager {
         return instance;
     }
 
-    public List<Ticket> getAllTickets() {
-        return new ArrayList<>(allTickets);
+    public synchronized List<Ticket> getAllTickets() {
+        return new ArrayList<>(ticketsById.values());
     }
 
-    public void addTicket(Ticket ticket) {
+    public synchronized void addTicket(Ticket ticket) {
         // Generate ID if not set
         if (ticket.getId() == null || ticket.getId().isEmpty()) {
-            ticket.setId("TKT" + String.format("%03d", allTickets.size() + 1));
+            ticket.setId("TKT" + String.format("%03d", ticketsById.size() + 1));
         }
 
         // Ensure ticket has PENDING status
@@ -35,31 +51,51 @@ public class TicketManager {
             ticket.setStatus(Ticket.TicketStatus.PENDING);
         }
 
-        allTickets.add(ticket);
+        ticketsById.put(ticket.getId(), ticket);
     }
 
-    public void updateTicket(Ticket updatedTicket) {
-        for (int i = 0; i < allTickets.size(); i++) {
-            if (allTickets.get(i).getId().equals(updatedTicket.getId())) {
-                allTickets.set(i, updatedTicket);
-                break;
+    /**
+     * Add or replace tickets freshly loaded from Supabase.
+     * Replaced tickets move to the end so a refresh counts as recent use.
+     */
+    public synchronized void putTickets(List<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            if (ticket.getId() != null && !ticket.getId().isEmpty()) {
+                ticketsById.remove(ticket.getId());
+                ticketsById.put(ticket.getId(), ticket);
             }
         }
     }
 
-    public Ticket getTicketById(String ticketId) {
-        for (Ticket ticket : allTickets) {
-            if (ticket.getId().equals(ticketId)) {
-                return ticket;
+    public synchronized void updateTicket(Ticket updatedTicket) {
+        if (ticketsById.containsKey(updatedTicket.getId())) {
+            ticketsById.put(updatedTicket.getId(), updatedTicket);
+        }
+    }
+
+    public synchronized Ticket getTicketById(String ticketId) {
+        if (ticketId == null) return null;
+        return ticketsById.get(ticketId);
+    }
+
+    /**
+     * Resolve IDs in order. IDs that are no longer in the store are skipped.
+     */
+    public synchronized List<Ticket> getTicketsByIds(List<String> ticketIds) {
+        List<Ticket> tickets = new ArrayList<>();
+        for (String ticketId : ticketIds) {
+            Ticket ticket = ticketsById.get(ticketId);
+            if (ticket != null) {
+                tickets.add(ticket);
             }
         }
-        return null;
+        return tickets;
     }
 
     // Get tickets by status for filtering
-    public List<Ticket> getTicketsByStatus(Ticket.TicketStatus status) {
+    public synchronized List<Ticket> getTicketsByStatus(Ticket.TicketStatus status) {
         List<Ticket> filtered = new ArrayList<>();
-        for (Ticket ticket : allTickets) {
+        for (Ticket ticket : ticketsById.values()) {
             if (ticket.getStatus() == status) {
                 filtered.add(ticket);
             }
@@ -68,9 +104,9 @@ public class TicketManager {
     }
 
     // Get tickets count by status
-    public int getTicketCountByStatus(Ticket.TicketStatus status) {
+    public synchronized int getTicketCountByStatus(Ticket.TicketStatus status) {
         int count = 0;
-        for (Ticket ticket : allTickets) {
+        for (Ticket ticket : ticketsById.values()) {
             if (ticket.getStatus() == status) {
                 count++;
             }
@@ -79,17 +115,17 @@ public class TicketManager {
     }
 
     // Get total tickets count
-    public int getTotalTicketCount() {
-        return allTickets.size();
+    public synchronized int getTotalTicketCount() {
+        return ticketsById.size();
     }
 
     // Delete ticket by ID
-    public void deleteTicket(String ticketId) {
-        for (int i = 0; i < allTickets.size(); i++) {
-            if (allTickets.get(i).getId().equals(ticketId)) {
-                allTickets.remove(i);
-                break;
-            }
-        }
+    public synchronized void deleteTicket(String ticketId) {
+        ticketsById.remove(ticketId);
+    }
+
+    // Forget every ticket, e.g. on logout so the next user never sees them
+    public synchronized void clear() {
+        ticketsById.clear();
     }
 }
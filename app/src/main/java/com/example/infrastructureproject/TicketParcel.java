@@ -0,0 +1,114 @@
+package com.example.infrastructureproject;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact Parcelable form of a Ticket, only used to restore screens after
+ * process death (onSaveInstanceState). Normal navigation passes ticket IDs
+ * and reads tickets from {@link TicketManager}.
+ */
+public class TicketParcel implements Parcelable {
+
+    private final Ticket ticket;
+
+    public TicketParcel(Ticket ticket) {
+        this.ticket = ticket;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    protected TicketParcel(Parcel in) {
+        ticket = new Ticket(
+                in.readString(), // id
+                in.readString(), // type
+                in.readString(), // severity
+                in.readString(), // location
+                in.readString(), // description
+                in.readString(), // dateTime
+                in.readString()  // imageName
+        );
+        ticket.setDbId(in.readString());
+        ticket.setImageUrl(in.readString());
+        ticket.setReporterId(in.readString());
+        ticket.setUsername(in.readString());
+        ticket.setReason(in.readString());
+        ticket.setAssignedTo(in.readString());
+        ticket.setCouncilNotes(in.readString());
+        int status = in.readInt();
+        ticket.setStatus(status >= 0 ? Ticket.TicketStatus.values()[status] : null);
+        ticket.setCreatedAtMillis(in.readLong());
+        ticket.setThumbnailUrl(in.readString());
+        ticket.setMediumUrl(in.readString());
+        ticket.setImageHash(in.readInt() == 1 ? in.readLong() : null);
+        int photoCount = in.readInt();
+        List<TicketPhoto> photos = new ArrayList<>(photoCount);
+        for (int i = 0; i < photoCount; i++) {
+            photos.add(new TicketPhoto(in.readString(), in.readString(), in.readString()));
+        }
+        ticket.setPhotos(photos);
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(ticket.getId());
+        dest.writeString(ticket.getType());
+        dest.writeString(ticket.getSeverity());
+        dest.writeString(ticket.getLocation());
+        dest.writeString(ticket.getDescription());
+        dest.writeString(ticket.getDateTime());
+        dest.writeString(ticket.getImageName());
+        dest.writeString(ticket.getDbId());
+        dest.writeString(ticket.getImageUrl());
+        dest.writeString(ticket.getReporterId());
+        dest.writeString(ticket.getUsername());
+        dest.writeString(ticket.getReason());
+        dest.writeString(ticket.getAssignedTo());
+        dest.writeString(ticket.getCouncilNotes());
+        dest.writeInt(ticket.getStatus() != null ? ticket.getStatus().ordinal() : -1);
+        dest.writeLong(ticket.getCreatedAtMillis());
+        dest.writeString(renditionOrNull(ticket.getThumbnailUrl()));
+        dest.writeString(renditionOrNull(ticket.getMediumUrl()));
+        if (ticket.getImageHash() != null) {
+            dest.writeInt(1);
+            dest.writeLong(ticket.getImageHash());
+        } else {
+            dest.writeInt(0);
+        }
+        List<TicketPhoto> photos = ticket.getPhotos();
+        dest.writeInt(photos.size());
+        for (TicketPhoto photo : photos) {
+            dest.writeString(photo.getUrl());
+            dest.writeString(photo.hasThumbnail() ? photo.getThumbnailUrl() : null);
+            dest.writeString(photo.hasMedium() ? photo.getMediumUrl() : null);
+        }
+    }
+
+    // The rendition getters fall back to imageUrl; store null in that case so it stays a fallback
+    private String renditionOrNull(String renditionUrl) {
+        return Objects.equals(renditionUrl, ticket.getImageUrl()) ? null : renditionUrl;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<TicketParcel> CREATOR = new Creator<TicketParcel>() {
+        @Override
+        public TicketParcel createFromParcel(Parcel in) {
+            return new TicketParcel(in);
+        }
+
+        @Override
+        public TicketParcel[] newArray(int size) {
+            return new TicketParcel[size];
+        }
+    };
+}
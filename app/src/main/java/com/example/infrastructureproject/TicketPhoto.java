@@ -0,0 +1,27 @@
+package com.example.infrastructureproject;
+
+import java.io.Serializable;
+
+/**
+ * One photo attached to a ticket (a ticket_images row), with its renditions.
+ */
+public class TicketPhoto implements Serializable {
+    private final String url; // Full URL to the original in Supabase Storage
+    private final String thumbnailUrl; // null for older uploads
+    private final String mediumUrl; // null for older uploads
+
+    public TicketPhoto(String url, String thumbnailUrl, String mediumUrl) {
+        this.url = url;
+        this.thumbnailUrl = thumbnailUrl;
+        this.mediumUrl = mediumUrl;
+    }
+
+    public String getUrl() { return url; }
+
+    // Renditions fall back to the original when the upload predates them
+    public String getThumbnailUrl() { return thumbnailUrl != null ? thumbnailUrl : url; }
+    public String getMediumUrl() { return mediumUrl != null ? mediumUrl : url; }
+
+    boolean hasThumbnail() { return thumbnailUrl != null; }
+    boolean hasMedium() { return mediumUrl != null; }
+}
@@ -4,6 +4,8 @@ import android.graphics.Bitmap;
 import android.util.Base64;
 import android.util.Log;
 
+import com.example.infrastructureproject.utils.ImageHasher;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -13,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
 
 public class TicketRepository {
     private static final String TAG = "TicketRepository";
@@ -186,6 +189,7 @@ public class TicketRepository {
                     // Set database ID and status
                     ticket.setDbId(dbId);
                     ticket.setStatus(parseStatus(status));
+                    ticket.setCreatedAtMillis(parseTimestamp(createdAt));
                     
                     // Set engineer's reason (for accepted/rejected tickets)
                     String engineerNotes = ticketJson.optString("engineer_notes", "");
@@ -199,15 +203,15 @@ public class TicketRepository {
                     ticket.setReporterId(reporterId);
                     ticket.setUsername(reporterName);
 
-                    // Fetch image URL for this ticket
-                    String imageUrl = getTicketImageUrl(dbId);
-                    if (imageUrl != null && !imageUrl.isEmpty()) {
-                        ticket.setImageUrl(imageUrl);
-                    }
+                    // Fetch image URLs (original + renditions) for this ticket
+                    loadTicketImages(ticket, dbId);
                     
                     tickets.add(ticket);
                 }
                 
+                // Screens hand each other ticket IDs and resolve them from the store
+                TicketManager.getInstance().putTickets(tickets);
+                
                 if (callback != null) {
                     callback.onSuccess(tickets);
                 }
@@ -222,13 +226,18 @@ public class TicketRepository {
     }
     
     /**
-     * Get the image URL for a ticket from ticket_images table
+     * Set the image URLs for a ticket from the ticket_images table: every photo
+     * with its thumbnail and medium renditions when the upload has them. The
+     * first photo (in upload order) is also the ticket's primary image.
      */
-    private static String getTicketImageUrl(String ticketDbId) {
+    private static void loadTicketImages(Ticket ticket, String ticketDbId) {
         try {
-            String url = BuildConfig.SUPABASE_URL + "/rest/v1/ticket_images?ticket_id=eq." + ticketDbId + "&select=path";
+            // select=* so this still works before 09_image_renditions.sql is applied;
+            // file names carry the upload time and index (paths are content hashes)
+            String url = BuildConfig.SUPABASE_URL + "/rest/v1/ticket_images?ticket_id=eq." + ticketDbId
+                    + "&select=*&order=filename.asc";
             
-            Log.d(TAG, "Fetching image for ticket ID: " + ticketDbId);
+            Log.d(TAG, "Fetching images for ticket ID: " + ticketDbId);
             Log.d(TAG, "Query URL: " + url);
             
             String response = SupabaseManager.makeHttpRequest(
@@ -243,20 +252,29 @@ public class TicketRepository {
             JSONArray imagesArray = new JSONArray(response);
             Log.d(TAG, "Number of images found: " + imagesArray.length());
             
-            if (imagesArray.length() > 0) {
-                JSONObject imageObj = imagesArray.getJSONObject(0);
+            List<TicketPhoto> photos = new ArrayList<>();
+            for (int i = 0; i < imagesArray.length(); i++) {
+                JSONObject imageObj = imagesArray.getJSONObject(i);
                 String imagePath = imageObj.optString("path", "");
-                Log.d(TAG, "Image path from database: " + imagePath);
-                
-                if (!imagePath.isEmpty()) {
-                    // Return full public URL
-                    String imageUrl = BuildConfig.SUPABASE_URL + "/storage/v1/object/public/ticket-images/" + imagePath;
-                    Log.d(TAG, "Constructed image URL: " + imageUrl);
-                    return imageUrl;
-                } else {
+                if (imagePath.isEmpty()) {
                     Log.w(TAG, "Image path is empty for ticket " + ticketDbId);
+                    continue;
                 }
-            } else {
+                TicketPhoto photo = new TicketPhoto(publicImageUrl(imagePath),
+                        optionalImageUrl(imageObj, "thumb_path"),
+                        optionalImageUrl(imageObj, "medium_path"));
+                if (photos.isEmpty()) {
+                    ticket.setImageUrl(photo.getUrl());
+                    ticket.setThumbnailUrl(optionalImageUrl(imageObj, "thumb_path"));
+                    ticket.setMediumUrl(optionalImageUrl(imageObj, "medium_path"));
+                    if (imageObj.has("phash") && !imageObj.isNull("phash")) {
+                        ticket.setImageHash(imageObj.getLong("phash"));
+                    }
+                }
+                photos.add(photo);
+            }
+            ticket.setPhotos(photos);
+            if (photos.isEmpty()) {
                 Log.d(TAG, "No image record found in ticket_images table for ticket " + ticketDbId);
             }
         } catch (Exception e) {
@@ -264,7 +282,61 @@ public class TicketRepository {
             Log.e(TAG, "Error fetching image URL for ticket " + ticketDbId, e);
             Log.e(TAG, "Error details: " + e.getMessage());
         }
-        return null;
+    }
+
+    // Public URL for an optional rendition column, null when the row has none
+    private static String optionalImageUrl(JSONObject imageObj, String column) {
+        String path = imageObj.optString(column, "");
+        return path.isEmpty() || "null".equals(path) ? null : publicImageUrl(path);
+    }
+
+    // Full public URL for a path in the ticket-images bucket
+    static String publicImageUrl(String imagePath) {
+        return BuildConfig.SUPABASE_URL + "/storage/v1/object/public/ticket-images/" + imagePath;
+    }
+
+    /**
+     * Open tickets whose photo hash is within ImageHasher.DUPLICATE_THRESHOLD bits
+     * of imageHash and near latitude/longitude, closest first, using the
+     * find_similar_tickets RPC. excludeDbId (may be null) leaves out the ticket being viewed.
+     */
+    public static void findLikelyDuplicates(long imageHash, double latitude, double longitude, String excludeDbId,
+                                            DuplicatesCallback callback) {
+        new Thread(() -> {
+            try {
+                JSONObject params = new JSONObject();
+                params.put("hash_param", imageHash);
+                params.put("lat_param", latitude);
+                params.put("lng_param", longitude);
+                params.put("max_distance_param", ImageHasher.DUPLICATE_THRESHOLD);
+                params.put("exclude_ticket_param", excludeDbId != null ? excludeDbId : JSONObject.NULL);
+
+                String url = BuildConfig.SUPABASE_URL + "/rest/v1/rpc/find_similar_tickets";
+                String response = SupabaseManager.makeHttpRequest(
+                    "POST",
+                    url,
+                    params.toString(),
+                    SupabaseManager.getAccessToken()
+                );
+
+                JSONArray rows = new JSONArray(response);
+                List<DuplicateMatch> matches = new ArrayList<>();
+                for (int i = 0; i < rows.length(); i++) {
+                    JSONObject row = rows.getJSONObject(i);
+                    matches.add(new DuplicateMatch(
+                        row.optString("ticket_id", ""),
+                        row.optString("issue_type", ""),
+                        row.optString("location", ""),
+                        parseStatus(row.optString("status", "pending")),
+                        row.optInt("distance", 0)
+                    ));
+                }
+                if (callback != null) callback.onSuccess(matches);
+            } catch (Exception e) {
+                Log.e(TAG, "Error finding likely duplicates", e);
+                if (callback != null) callback.onError("Error: " + e.getMessage());
+            }
+        }).start();
     }
     
     /**
@@ -293,6 +365,7 @@ public class TicketRepository {
                 Ticket ticket = new Ticket(ticketId, type, severity, location, description, formattedDate, "");
                 ticket.setDbId(dbId);
                 ticket.setStatus(parseStatus(t.optString("status", "Pending")));
+                ticket.setCreatedAtMillis(parseTimestamp(createdAt));
                 ticket.setAssignedTo(t.optString("assigned_engineer_name", ""));
                 ticket.setCouncilNotes(t.optString("council_notes", ""));
                 // Set engineer's reason for accept/reject
@@ -302,6 +375,9 @@ public class TicketRepository {
                 }
                 String reporterId = t.optString("reporter_id", "");
                 ticket.setReporterId(reporterId);
+                if (!t.isNull("latitude") && !t.isNull("longitude")) {
+                    ticket.setCoordinates(t.getDouble("latitude"), t.getDouble("longitude"));
+                }
                 // Reporter full name if available from join
                 JSONObject profile = t.optJSONObject("profiles");
                 if (profile != null) {
@@ -309,8 +385,8 @@ public class TicketRepository {
                 } else {
                     ticket.setUsername(getReporterName(reporterId));
                 }
-                String imageUrl = getTicketImageUrl(dbId);
-                if (imageUrl != null) ticket.setImageUrl(imageUrl);
+                loadTicketImages(ticket, dbId);
+                TicketManager.getInstance().addTicket(ticket);
                 if (callback != null) callback.onSuccess(ticket);
             } catch (Exception e) {
                 Log.e(TAG, "Error fetching ticket by id", e);
@@ -351,31 +427,34 @@ public class TicketRepository {
                     String dbId = ticketJson.optString("id", "");
                     String reporterId = ticketJson.optString("reporter_id", "");
                     
-                    // Get image URL from ticket_images table
-                    String imageUrl = getTicketImageUrl(dbId);
-                    
                     // Get reporter's full name from profiles table
                     String reporterName = getReporterName(reporterId);
                     
+                    String createdAt = ticketJson.optString("created_at", "");
                     Ticket ticket = new Ticket(
                         ticketJson.optString("ticket_id", ""),
                         ticketJson.optString("issue_type", ""),
+                        ticketJson.optString("severity", "Low"),
                         ticketJson.optString("location", ""),
-                        formatDate(ticketJson.optString("created_at", "")),
                         ticketJson.optString("description", ""),
-                        ticketJson.optString("severity", "Low"),
+                        formatDate(createdAt),
                         ""
                     );
                     
                     ticket.setDbId(dbId);
                     ticket.setStatus(parseStatus(ticketJson.optString("status", "pending")));
-                    ticket.setImageUrl(imageUrl);
+                    ticket.setCreatedAtMillis(parseTimestamp(createdAt));
+                    ticket.setAssignedTo(ticketJson.optString("assigned_engineer_name", ""));
+                    loadTicketImages(ticket, dbId);
                     ticket.setReporterId(reporterId);
                     ticket.setUsername(reporterName);
                     
                     tickets.add(ticket);
                 }
                 
+                // Screens hand each other ticket IDs and resolve them from the store
+                TicketManager.getInstance().putTickets(tickets);
+                
                 if (callback != null) {
                     callback.onSuccess(tickets);
                 }
@@ -570,6 +649,7 @@ public class TicketRepository {
                     );
                     ticket.setDbId(dbId);
                     ticket.setStatus(parseStatus(status));
+                    ticket.setCreatedAtMillis(parseTimestamp(createdAt));
                     // Assignment metadata for engineer view
                     ticket.setAssignedTo(ticketJson.optString("assigned_engineer_name", ""));
                     ticket.setCouncilNotes(ticketJson.optString("council_notes", ""));
@@ -584,11 +664,8 @@ public class TicketRepository {
                     String reporterName = getReporterName(reporterId);
                     ticket.setUsername(reporterName);
                     
-                    // Fetch image URL
-                    String imageUrl = getTicketImageUrl(dbId);
-                    if (imageUrl != null && !imageUrl.isEmpty()) {
-                        ticket.setImageUrl(imageUrl);
-                    }
+                    // Fetch image URLs (original + renditions)
+                    loadTicketImages(ticket, dbId);
                     
                     allTickets.add(ticket);
                     
@@ -653,6 +730,8 @@ public class TicketRepository {
                     avgResponse = "< 2 hours"; // Default
                 }
                 
+                TicketManager.getInstance().putTickets(allTickets);
+                
                 if (callback != null) {
                     callback.onSuccess(allTickets, newToday, thisWeek, highPriority, avgResponse);
                 }
@@ -866,6 +945,19 @@ public class TicketRepository {
         }
     }
     
+    // created_at is stored in UTC, e.g. 2025-01-02T10:30:00.123456+00:00
+    static long parseTimestamp(String isoDate) {
+        if (isoDate == null || isoDate.length() < 19) return 0L;
+        try {
+            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+            inputFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            Date date = inputFormat.parse(isoDate.substring(0, 19));
+            return date != null ? date.getTime() : 0L;
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+    
     private static Ticket.TicketStatus parseStatus(String status) {
         switch (status.toLowerCase()) {
             case "accepted":
@@ -924,6 +1016,11 @@ public class TicketRepository {
         void onError(String message);
     }
 
+    public interface DuplicatesCallback {
+        void onSuccess(List<DuplicateMatch> matches);
+        void onError(String message);
+    }
+
     /**
      * Engineer processes a ticket (Accept / Reject / Spam)
      * - Updates ticket status in tickets table
@@ -982,6 +1079,30 @@ public class TicketRepository {
         }).start();
     }
     
+    // Likely duplicate ticket, distance = differing bits between the two photo hashes
+    public static class DuplicateMatch {
+        private String ticketId;
+        private String issueType;
+        private String location;
+        private Ticket.TicketStatus status;
+        private int distance;
+        
+        public DuplicateMatch(String ticketId, String issueType, String location,
+                              Ticket.TicketStatus status, int distance) {
+            this.ticketId = ticketId;
+            this.issueType = issueType;
+            this.location = location;
+            this.status = status;
+            this.distance = distance;
+        }
+        
+        public String getTicketId() { return ticketId; }
+        public String getIssueType() { return issueType; }
+        public String getLocation() { return location; }
+        public Ticket.TicketStatus getStatus() { return status; }
+        public int getDistance() { return distance; }
+    }
+    
     // Engineer data class
     public static class Engineer {
         private String id;
@@ -1084,6 +1205,31 @@ public class TicketRepository {
         }).start();
     }
     
+    /**
+     * Set a ticket's issue type, e.g. after AI re-classification of old reports
+     */
+    public static void updateIssueType(String ticketDbId, String issueType, AssignTicketCallback callback) {
+        new Thread(() -> {
+            try {
+                JSONObject updateData = new JSONObject();
+                updateData.put("issue_type", issueType);
+                
+                String url = BuildConfig.SUPABASE_URL + "/rest/v1/tickets?id=eq." + ticketDbId;
+                String response = SupabaseManager.makeHttpRequest("PATCH", url, updateData.toString(), SupabaseManager.getAccessToken());
+                // No rows back means the ticket is gone or the policy did not allow the update
+                if (response == null || new JSONArray(response).length() == 0) {
+                    throw new Exception("Ticket not updated");
+                }
+                
+                Log.d(TAG, "Ticket issue type set to " + issueType);
+                if (callback != null) callback.onSuccess();
+            } catch (Exception e) {
+                Log.e(TAG, "Error updating issue type", e);
+                if (callback != null) callback.onError("Error: " + e.getMessage());
+            }
+        }).start();
+    }
+    
     /**
      * Mark ticket as SPAM - called when council marks as spam
      * Citizens see: status = Rejected, reason = "Marked as Spam by the Council"
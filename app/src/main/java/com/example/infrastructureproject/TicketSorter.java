@@ -0,0 +1,119 @@
+package com.example.infrastructureproject;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.appcompat.app.AlertDialog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sort orders for ticket lists. Comparators only read the precomputed
+ * sort keys on {@link Ticket} (epoch millis, severity rank, status rank),
+ * and sorting happens on a background thread.
+ */
+public class TicketSorter {
+
+    public enum SortOrder {
+        NEWEST("Newest first"),
+        OLDEST("Oldest first"),
+        SEVERITY("High severity, oldest first"),
+        OLDEST_UNASSIGNED("Oldest unassigned first");
+
+        private final String label;
+
+        SortOrder(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public interface SortCallback {
+        void onSorted(List<Ticket> sorted);
+    }
+
+    public interface SortOrderListener {
+        void onSortOrderSelected(SortOrder order);
+    }
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Final tie-breaker so equal keys always land in the same order
+    private static final Comparator<Ticket> BY_ID = (a, b) -> compareIds(a.getId(), b.getId());
+    private static final Comparator<Ticket> BY_CREATED_ASC =
+            (a, b) -> Long.compare(a.getCreatedAtMillis(), b.getCreatedAtMillis());
+
+    private static final Comparator<Ticket> NEWEST = BY_CREATED_ASC.reversed().thenComparing(BY_ID);
+    private static final Comparator<Ticket> OLDEST = BY_CREATED_ASC.thenComparing(BY_ID);
+    private static final Comparator<Ticket> SEVERITY =
+            ((Comparator<Ticket>) (a, b) -> Integer.compare(b.getSeverityRank(), a.getSeverityRank()))
+                    .thenComparing(BY_CREATED_ASC)
+                    .thenComparing(BY_ID);
+    private static final Comparator<Ticket> OLDEST_UNASSIGNED =
+            ((Comparator<Ticket>) (a, b) -> Boolean.compare(b.isUnassigned(), a.isUnassigned()))
+                    .thenComparing((a, b) -> Integer.compare(a.getStatusRank(), b.getStatusRank()))
+                    .thenComparing(BY_CREATED_ASC)
+                    .thenComparing(BY_ID);
+
+    public static Comparator<Ticket> comparatorFor(SortOrder order) {
+        switch (order) {
+            case OLDEST:
+                return OLDEST;
+            case SEVERITY:
+                return SEVERITY;
+            case OLDEST_UNASSIGNED:
+                return OLDEST_UNASSIGNED;
+            case NEWEST:
+            default:
+                return NEWEST;
+        }
+    }
+
+    /**
+     * Sort a copy of the given tickets off the main thread and deliver it on the main thread.
+     * The input list is not modified.
+     */
+    public static void sortAsync(List<Ticket> tickets, SortOrder order, SortCallback callback) {
+        final List<Ticket> copy = new ArrayList<>(tickets);
+        executor.execute(() -> {
+            // List.sort is a stable merge sort, so the multi-key order is deterministic
+            copy.sort(comparatorFor(order));
+            mainHandler.post(() -> callback.onSorted(copy));
+        });
+    }
+
+    /**
+     * Show a single-choice dialog for picking the sort order.
+     */
+    public static void showSortDialog(Context context, SortOrder current, SortOrderListener listener) {
+        SortOrder[] orders = SortOrder.values();
+        String[] labels = new String[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            labels[i] = orders[i].getLabel();
+        }
+
+        new AlertDialog.Builder(context)
+                .setTitle("Sort tickets")
+                .setSingleChoiceItems(labels, current.ordinal(), (dialog, which) -> {
+                    dialog.dismiss();
+                    listener.onSortOrderSelected(orders[which]);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private static int compareIds(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,513 @@
+package com.example.infrastructureproject;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.infrastructureproject.utils.ImageHasher;
+import com.example.infrastructureproject.utils.ImagePreparer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submits a ticket in the background: prepares each photo and its thumbnail and
+ * medium renditions, creates the ticket, uploads the photos a few at a time and
+ * inserts their ticket_images rows. Runs only with network, retries with backoff,
+ * survives the report screen (and the process) going away, and reports overall
+ * and per-photo progress through WorkManager and a notification.
+ *
+ * Every step is safe to repeat: the ticket_id is generated once at enqueue time
+ * and looked up before inserting, uploads resume, photos that already have their
+ * row are skipped, and prepared photos are kept in app storage until all are up.
+ *
+ * No access token is stored with the work. Each run takes the current session
+ * from SupabaseManager, and a 401 refreshes it and runs the steps again.
+ */
+public class TicketSubmissionWorker extends Worker {
+    private static final String TAG = "TicketSubmissionWorker";
+
+    public static final String TAG_SUBMISSION = "ticket_submission";
+
+    // Input
+    private static final String KEY_TICKET_ID = "ticket_id";
+    private static final String KEY_ISSUE_TYPE = "issue_type";
+    private static final String KEY_SEVERITY = "severity";
+    private static final String KEY_LOCATION = "location";
+    private static final String KEY_LATITUDE = "latitude";
+    private static final String KEY_LONGITUDE = "longitude";
+    private static final String KEY_DESCRIPTION = "description";
+    private static final String KEY_REPORTER_ID = "reporter_id";
+    private static final String KEY_IMAGE_URIS = "image_uris";
+    private static final String KEY_IMAGE_FILE_NAMES = "image_file_names";
+    private static final String KEY_PREPARED_PATHS = "prepared_paths";
+    private static final String KEY_PREPARED_MEDIUM_PATHS = "prepared_medium_paths";
+    private static final String KEY_PREPARED_THUMB_PATHS = "prepared_thumb_paths";
+
+    // Progress and output
+    public static final String KEY_STAGE = "stage";
+    public static final String KEY_PERCENT = "percent";
+    public static final String KEY_PHOTO_PERCENTS = "photo_percents";
+    public static final String KEY_TICKET_UUID = "ticket_uuid";
+    public static final String KEY_ERROR = "error";
+
+    public static final String STAGE_PREPARING = "preparing";
+    public static final String STAGE_CREATING = "creating";
+    public static final String STAGE_UPLOADING = "uploading";
+
+    /**
+     * What is stored per photo: the upload copy, then the medium and thumbnail renditions.
+     */
+    public static final List<ImagePreparer.Options> RENDITIONS = Collections.unmodifiableList(Arrays.asList(
+            ImagePreparer.UPLOAD_OPTIONS, ImagePreparer.MEDIUM_OPTIONS, ImagePreparer.THUMBNAIL_OPTIONS));
+
+    private static final String CHANNEL_ID = "ticket_submissions";
+    private static final String PENDING_DIR = "pending_uploads";
+    private static final int MAX_ATTEMPTS = 5;
+    // Enough to keep the link busy without starving each upload of bandwidth
+    private static final int MAX_PARALLEL_UPLOADS = 3;
+
+    // Per-photo upload progress, written from the upload threads
+    private long[] photoBytesSent;
+    private long[] photoBytesTotal;
+    private int lastReportedPercent = -1;
+
+    public TicketSubmissionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queue a report for submission and return the work ID to observe.
+     * imageUris may be empty for reports without a photo; the first one is the
+     * ticket's main image. preparedFiles holds, per photo, the {@link #RENDITIONS}
+     * files the caller already made (or null); the worker takes those files over
+     * instead of decoding the original again. latitude and longitude are null
+     * when the location was typed in.
+     */
+    public static UUID enqueue(Context context, String issueType, String severity, String location,
+                               Double latitude, Double longitude, String description, String reporterId,
+                               List<Uri> imageUris, List<List<File>> preparedFiles) {
+        String ticketId = SupabaseManager.newTicketId();
+        Data.Builder input = new Data.Builder()
+                .putString(KEY_TICKET_ID, ticketId)
+                .putString(KEY_ISSUE_TYPE, issueType)
+                .putString(KEY_SEVERITY, severity)
+                .putString(KEY_LOCATION, location)
+                .putString(KEY_DESCRIPTION, description)
+                .putString(KEY_REPORTER_ID, reporterId);
+        if (latitude != null && longitude != null) {
+            input.putDouble(KEY_LATITUDE, latitude);
+            input.putDouble(KEY_LONGITUDE, longitude);
+        }
+        if (!imageUris.isEmpty()) {
+            String[] uris = new String[imageUris.size()];
+            String[] fileNames = new String[imageUris.size()];
+            String[] preparedPaths = new String[imageUris.size()];
+            String[] mediumPaths = new String[imageUris.size()];
+            String[] thumbPaths = new String[imageUris.size()];
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < uris.length; i++) {
+                uris[i] = imageUris.get(i).toString();
+                // Fixed up front so a retried upload targets the same object;
+                // the index keeps path order equal to the order the photos were added
+                fileNames[i] = "image_" + now + "_" + i + ImagePreparer.UPLOAD_OPTIONS.format.getExtension();
+                List<File> prepared = i < preparedFiles.size() ? preparedFiles.get(i) : null;
+                preparedPaths[i] = preparedPath(prepared, 0);
+                mediumPaths[i] = preparedPath(prepared, 1);
+                thumbPaths[i] = preparedPath(prepared, 2);
+            }
+            input.putStringArray(KEY_IMAGE_URIS, uris);
+            input.putStringArray(KEY_IMAGE_FILE_NAMES, fileNames);
+            input.putStringArray(KEY_PREPARED_PATHS, preparedPaths);
+            input.putStringArray(KEY_PREPARED_MEDIUM_PATHS, mediumPaths);
+            input.putStringArray(KEY_PREPARED_THUMB_PATHS, thumbPaths);
+        }
+
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(TicketSubmissionWorker.class)
+                .setInputData(input.build())
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .addTag(TAG_SUBMISSION)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork("submit-" + ticketId, ExistingWorkPolicy.KEEP, request);
+        return request.getId();
+    }
+
+    private static String preparedPath(List<File> prepared, int rendition) {
+        File file = prepared != null && rendition < prepared.size() ? prepared.get(rendition) : null;
+        return file != null ? file.getPath() : "";
+    }
+
+    // Null when that photo has no handed-over file
+    private static File handedOver(String[] paths, int index) {
+        String path = paths != null && index < paths.length ? paths[index] : "";
+        return path.isEmpty() ? null : new File(path);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        Data input = getInputData();
+        String ticketId = input.getString(KEY_TICKET_ID);
+        String[] imageUris = input.getStringArray(KEY_IMAGE_URIS);
+        String[] fileNames = input.getStringArray(KEY_IMAGE_FILE_NAMES);
+        String[] preparedPaths = input.getStringArray(KEY_PREPARED_PATHS);
+        String[] mediumPaths = input.getStringArray(KEY_PREPARED_MEDIUM_PATHS);
+        String[] thumbPaths = input.getStringArray(KEY_PREPARED_THUMB_PATHS);
+        int photoCount = imageUris != null ? imageUris.length : 0;
+        int notificationId = ticketId != null ? ticketId.hashCode() : 0;
+
+        List<PendingPhoto> photos = new ArrayList<>(photoCount);
+        for (int i = 0; i < photoCount; i++) {
+            File[] handedOver = { handedOver(preparedPaths, i), handedOver(mediumPaths, i), handedOver(thumbPaths, i) };
+            photos.add(new PendingPhoto(context, ticketId, i, Uri.parse(imageUris[i]), fileNames[i], handedOver));
+        }
+        try {
+            // 1. Prepare each photo and its renditions once; later attempts reuse the files.
+            // One at a time: decoding is memory heavy and uploads can't start before the ticket exists anyway
+            for (int i = 0; i < photoCount; i++) {
+                reportProgress(notificationId, STAGE_PREPARING, photoCount > 1
+                        ? "Preparing photo " + (i + 1) + " of " + photoCount + "..."
+                        : "Preparing photo...");
+                photos.get(i).prepare(context);
+            }
+
+            // 2. and 3. need the session; an expired token is refreshed once and the steps repeated
+            SupabaseManager.init(context);
+            String token = SupabaseManager.getValidAccessToken();
+            String ticketUuid;
+            try {
+                ticketUuid = createAndUpload(context, input, photos, token, notificationId);
+            } catch (Exception e) {
+                if (!isUnauthorized(e)) {
+                    throw e;
+                }
+                Log.w(TAG, "Session rejected, refreshing and trying again");
+                token = SupabaseManager.refreshSession(token);
+                ticketUuid = createAndUpload(context, input, photos, token, notificationId);
+            }
+
+            for (PendingPhoto photo : photos) {
+                photo.discardUploads(context);
+                photo.delete();
+            }
+
+            notifyResult(notificationId, "Report submitted",
+                    "Your " + input.getString(KEY_ISSUE_TYPE) + " report was submitted successfully.");
+            return Result.success(new Data.Builder().putString(KEY_TICKET_UUID, ticketUuid).build());
+
+        } catch (Exception e) {
+            if (SupabaseManager.isTransientError(e) && getRunAttemptCount() + 1 < MAX_ATTEMPTS) {
+                Log.w(TAG, "Submission attempt " + getRunAttemptCount() + " failed, will retry", e);
+                reportProgress(notificationId, null, "Waiting for a better connection...");
+                return Result.retry();
+            }
+
+            Log.e(TAG, "Submission failed", e);
+            for (PendingPhoto photo : photos) {
+                photo.discardUploads(context);
+                photo.delete();
+            }
+            String message = SupabaseManager.describeSubmitError(e);
+            notifyResult(notificationId, "Report not submitted", message);
+            return Result.failure(new Data.Builder().putString(KEY_ERROR, message).build());
+        }
+    }
+
+    private String createAndUpload(Context context, Data input, List<PendingPhoto> photos, String token,
+                                   int notificationId) throws Exception {
+        String ticketId = input.getString(KEY_TICKET_ID);
+        String reporterId = input.getString(KEY_REPORTER_ID);
+        boolean hasCoordinates = input.hasKeyWithValueOfType(KEY_LATITUDE, Double.class)
+                && input.hasKeyWithValueOfType(KEY_LONGITUDE, Double.class);
+        Double latitude = hasCoordinates ? input.getDouble(KEY_LATITUDE, 0) : null;
+        Double longitude = hasCoordinates ? input.getDouble(KEY_LONGITUDE, 0) : null;
+
+        // 2. Create the ticket unless an earlier attempt already did
+        reportProgress(notificationId, STAGE_CREATING, "Submitting report...");
+        String ticketUuid = SupabaseManager.findTicketUuid(ticketId, token);
+        if (ticketUuid == null) {
+            ticketUuid = SupabaseManager.insertTicket(ticketId,
+                    input.getString(KEY_ISSUE_TYPE), input.getString(KEY_SEVERITY),
+                    input.getString(KEY_LOCATION), latitude, longitude, input.getString(KEY_DESCRIPTION),
+                    reporterId, token);
+        }
+
+        // 3. Upload the photos, a few in parallel, each inserting its ticket_images row
+        if (!photos.isEmpty()) {
+            uploadPhotos(context, photos, ticketUuid, reporterId, token, notificationId);
+        }
+        return ticketUuid;
+    }
+
+    private static boolean isUnauthorized(Exception e) {
+        String message = e.getMessage();
+        return message != null && message.startsWith("HTTP 401");
+    }
+
+    // Upload on at most MAX_PARALLEL_UPLOADS threads; the first failure cancels the rest
+    private void uploadPhotos(Context context, List<PendingPhoto> photos, String ticketUuid,
+                              String reporterId, String token, int notificationId) throws Exception {
+        int count = photos.size();
+        photoBytesSent = new long[count];
+        photoBytesTotal = new long[count];
+        lastReportedPercent = -1;
+        reportUploadProgress(notificationId);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(MAX_PARALLEL_UPLOADS, count));
+        try {
+            List<Future<?>> uploads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                PendingPhoto photo = photos.get(i);
+                uploads.add(pool.submit(() -> {
+                    SupabaseManager.uploadTicketImageBlocking(context, Uri.fromFile(photo.prepared),
+                            Uri.fromFile(photo.thumb), Uri.fromFile(photo.medium),
+                            hashOrNull(context, photo.prepared), ticketUuid, photo.fileName,
+                            ImagePreparer.UPLOAD_OPTIONS.format.getMimeType(), reporterId, token,
+                            (bytesSent, totalBytes) -> onPhotoProgress(notificationId, index, bytesSent, totalBytes));
+                    // Photos finished by an earlier attempt report no bytes, mark them done
+                    onPhotoProgress(notificationId, index, 1, 1);
+                    return null;
+                }));
+            }
+            for (Future<?> upload : uploads) {
+                try {
+                    upload.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private synchronized void onPhotoProgress(int notificationId, int index, long bytesSent, long totalBytes) {
+        photoBytesSent[index] = bytesSent;
+        photoBytesTotal[index] = totalBytes;
+        reportUploadProgress(notificationId);
+    }
+
+    // Aggregate over all photos; only publishes when the overall percentage moves
+    private synchronized void reportUploadProgress(int notificationId) {
+        int count = photoBytesSent.length;
+        int[] photoPercents = new int[count];
+        int percentSum = 0;
+        for (int i = 0; i < count; i++) {
+            photoPercents[i] = photoBytesTotal[i] > 0 ? (int) (photoBytesSent[i] * 100 / photoBytesTotal[i]) : 0;
+            percentSum += photoPercents[i];
+        }
+        int percent = percentSum / count;
+        if (percent == lastReportedPercent) {
+            return;
+        }
+        lastReportedPercent = percent;
+
+        setProgressAsync(new Data.Builder()
+                .putString(KEY_STAGE, STAGE_UPLOADING)
+                .putInt(KEY_PERCENT, percent)
+                .putIntArray(KEY_PHOTO_PERCENTS, photoPercents)
+                .build());
+        String text = count > 1
+                ? "Uploading " + count + " photos... " + percent + "%"
+                : "Uploading photo... " + percent + "%";
+        notify(notificationId, progressNotification(text).setProgress(100, percent, false));
+    }
+
+    // Duplicate detection is best effort, never fail the submission over it
+    private static Long hashOrNull(Context context, File image) {
+        try {
+            return ImageHasher.dHash(context, Uri.fromFile(image));
+        } catch (Exception e) {
+            Log.w(TAG, "Could not hash photo", e);
+            return null;
+        }
+    }
+
+    /**
+     * One photo of the report and its prepared files in app storage, named after
+     * the ticket_id and photo index so every attempt finds the same files.
+     */
+    private static class PendingPhoto {
+        final Uri source;
+        final String fileName;
+        // RENDITIONS made on the report screen (entries may be null), moved into place instead of preparing again
+        final File[] handedOver;
+        final File prepared;
+        final File thumb;
+        final File medium;
+
+        PendingPhoto(Context context, String ticketId, int index, Uri source, String fileName, File[] handedOver) {
+            this.source = source;
+            this.fileName = fileName;
+            this.handedOver = handedOver;
+            File dir = new File(context.getFilesDir(), PENDING_DIR);
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            String base = ticketId + "_" + index;
+            String extension = ImagePreparer.UPLOAD_OPTIONS.format.getExtension();
+            this.prepared = new File(dir, base + extension);
+            this.thumb = new File(dir, base + "_thumb" + extension);
+            this.medium = new File(dir, base + "_medium" + extension);
+        }
+
+        // In RENDITIONS order
+        File[] targets() {
+            return new File[] { prepared, medium, thumb };
+        }
+
+        void prepare(Context context) throws IOException {
+            File[] targets = targets();
+            for (int i = 0; i < targets.length; i++) {
+                File file = handedOver[i];
+                if (file != null && file.exists()) {
+                    // Same filesystem, so this is a rename rather than a copy
+                    if (targets[i].exists() || !file.renameTo(targets[i])) {
+                        file.delete();
+                    }
+                }
+            }
+            prepareMissing(context, source, targets);
+        }
+
+        // Saved upload URLs are keyed by the files' content, so do this before deleting them
+        void discardUploads(Context context) {
+            for (File file : targets()) {
+                if (file.exists()) {
+                    SupabaseManager.discardResumableUpload(context, Uri.fromFile(file), fileName);
+                }
+            }
+        }
+
+        void delete() {
+            for (File file : targets()) {
+                if (file.exists() && !file.delete()) {
+                    Log.w(TAG, "Could not delete " + file);
+                }
+            }
+        }
+    }
+
+    // All missing RENDITIONS from one decode of the original. Written to temp files and
+    // renamed, so an interrupted attempt never leaves a half-written file behind
+    private static void prepareMissing(Context context, Uri source, File[] targets) throws IOException {
+        List<ImagePreparer.Options> options = new ArrayList<>();
+        List<File> partials = new ArrayList<>();
+        List<File> missing = new ArrayList<>();
+        for (int i = 0; i < targets.length; i++) {
+            if (!targets[i].exists()) {
+                options.add(RENDITIONS.get(i));
+                partials.add(new File(targets[i].getPath() + ".tmp"));
+                missing.add(targets[i]);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        ImagePreparer.prepareRenditions(context, source, options, partials);
+        for (int i = 0; i < missing.size(); i++) {
+            if (!partials.get(i).renameTo(missing.get(i))) {
+                throw new IOException("Could not store prepared photo");
+            }
+        }
+    }
+
+    // Indeterminate stages before the upload, which reports through reportUploadProgress
+    private void reportProgress(int notificationId, String stage, String text) {
+        if (stage != null) {
+            setProgressAsync(new Data.Builder()
+                    .putString(KEY_STAGE, stage)
+                    .putInt(KEY_PERCENT, 0)
+                    .build());
+        }
+        notify(notificationId, progressNotification(text).setProgress(0, 0, true));
+    }
+
+    private NotificationCompat.Builder progressNotification(String text) {
+        return baseNotification("Submitting report", text)
+                .setOngoing(true)
+                .setOnlyAlertOnce(true)
+                .setSmallIcon(android.R.drawable.stat_sys_upload);
+    }
+
+    private void notifyResult(int notificationId, String title, String text) {
+        notify(notificationId, baseNotification(title, text)
+                .setAutoCancel(true)
+                .setSmallIcon(android.R.drawable.stat_sys_upload_done));
+    }
+
+    private NotificationCompat.Builder baseNotification(String title, String text) {
+        Context context = getApplicationContext();
+        Intent intent = new Intent(context, CitizenDashboardActivity.class)
+                .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        return new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setContentTitle(title)
+                .setContentText(text)
+                .setStyle(new NotificationCompat.BigTextStyle().bigText(text))
+                .setContentIntent(contentIntent)
+                .setPriority(NotificationCompat.PRIORITY_LOW);
+    }
+
+    private void notify(int notificationId, NotificationCompat.Builder builder) {
+        Context context = getApplicationContext();
+        // Notifications are optional; progress is still available through WorkManager
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        ensureChannel(context);
+        NotificationManagerCompat.from(context).notify(notificationId, builder.build());
+    }
+
+    private static void ensureChannel(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID,
+                    "Report submissions", NotificationManager.IMPORTANCE_LOW);
+            channel.setDescription("Progress and results of submitted reports");
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+    }
+}
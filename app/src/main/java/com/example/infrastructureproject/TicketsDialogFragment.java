@@ -16,19 +16,39 @@ import androidx.recyclerview.widget.RecyclerView;
 
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class TicketsDialogFragment extends DialogFragment {
 
     public static final String TAG = "TicketsDialogFragment";
     private static final String ARG_REPORT_TYPE = "report_type";
-    private static final String ARG_TICKETS = "tickets";
+    private static final String ARG_TICKET_IDS = "ticket_ids";
+    private static final String STATE_TICKETS = "tickets_state";
+    // Upper bound on tickets kept in saved state, to stay well clear of the binder limit
+    private static final int MAX_SAVED_TICKETS = 100;
+
+    private static final String STATE_LOADED_COUNT = "loaded_count_state";
+
+    private List<Ticket> filteredTickets = new ArrayList<>();
+    private List<String> ticketIds = new ArrayList<>();
+    private String reportTypeString = "Unknown";
+    private TextView dialogTitle;
+    private TicketAdapter adapter;
+    private int loadedCount;
 
     public static TicketsDialogFragment newInstance(String reportType, List<Ticket> tickets) {
         TicketsDialogFragment fragment = new TicketsDialogFragment();
         Bundle args = new Bundle();
         args.putString(ARG_REPORT_TYPE, reportType);
-        args.putSerializable(ARG_TICKETS, new ArrayList<>(tickets));
+        // Only IDs go into the arguments; tickets are resolved from TicketManager
+        ArrayList<String> ticketIds = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            ticketIds.add(ticket.getId());
+        }
+        TicketManager.getInstance().putTickets(tickets);
+        args.putStringArrayList(ARG_TICKET_IDS, ticketIds);
         fragment.setArguments(args);
         return fragment;
     }
@@ -43,21 +63,35 @@ public class TicketsDialogFragment extends DialogFragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        String reportTypeString = getArguments() != null ? getArguments().getString(ARG_REPORT_TYPE, "Unknown") : "Unknown";
-        List<Ticket> allTickets = getArguments() != null ? 
-            (List<Ticket>) getArguments().getSerializable(ARG_TICKETS) : new ArrayList<>();
+        reportTypeString = getArguments() != null ? getArguments().getString(ARG_REPORT_TYPE, "Unknown") : "Unknown";
+        ticketIds = getArguments() != null ? getArguments().getStringArrayList(ARG_TICKET_IDS) : null;
+        if (ticketIds == null) {
+            ticketIds = new ArrayList<>();
+        }
+        List<Ticket> allTickets = TicketManager.getInstance().getTicketsByIds(ticketIds);
 
-        // 1. Set the dialog title
-        TextView dialogTitle = view.findViewById(R.id.dialogTitle);
-        dialogTitle.setText(reportTypeString + " Reports");
+        dialogTitle = view.findViewById(R.id.dialogTitle);
 
         // 2. Setup RecyclerView
         RecyclerView recyclerView = view.findViewById(R.id.recyclerViewTickets);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         recyclerView.setHasFixedSize(true); // Optimize RecyclerView performance
 
-        // Get tickets from arguments instead of TicketManager
-        List<Ticket> filteredTickets = filterTickets(allTickets, reportTypeString);
+        filteredTickets = new ArrayList<>(filterTickets(allTickets, reportTypeString));
+        int loaded = allTickets.size();
+
+        // After process death the store is empty - fall back to the saved compact copies
+        if (allTickets.isEmpty() && !ticketIds.isEmpty() && savedInstanceState != null) {
+            ArrayList<TicketParcel> saved = savedInstanceState.getParcelableArrayList(STATE_TICKETS);
+            if (saved != null) {
+                for (TicketParcel parcel : saved) {
+                    filteredTickets.add(parcel.getTicket());
+                }
+                TicketManager.getInstance().putTickets(filteredTickets);
+            }
+            // Saved state is capped at MAX_SAVED_TICKETS, a cut list counts as partly loaded
+            loaded = savedInstanceState.getInt(STATE_LOADED_COUNT, filteredTickets.size());
+        }
 
         // 3. Create the Adapter with display-only listener
         TicketAdapter.OnTicketActionListener displayOnlyListener = new TicketAdapter.OnTicketActionListener() {
@@ -71,37 +105,95 @@ public class TicketsDialogFragment extends DialogFragment {
             public void onDelete(Ticket ticket, int position) { /* Do nothing */ }
             @Override
             public void onView(Ticket ticket, int position) {
-                // Open ticket details activity
+                // Open ticket details activity - the detail screen resolves the ticket by ID
                 android.content.Intent intent = new android.content.Intent(getContext(), TicketDetailActivity.class);
                 intent.putExtra("ticket_id", ticket.getId());
-                intent.putExtra("type", ticket.getType());
-                intent.putExtra("severity", ticket.getSeverity());
-                intent.putExtra("location", ticket.getLocation());
-                intent.putExtra("date_time", ticket.getDateTime());
-                intent.putExtra("description", ticket.getDescription());
-                intent.putExtra("image_name", ticket.getImageName());
-                intent.putExtra("image_url", ticket.getImageUrl()); // Pass image URL
-                intent.putExtra("status", ticket.getStatus().toString());
                 intent.putExtra("db_id", ticket.getDbId()); // Pass database ID for delete
                 intent.putExtra("citizen_view", true);
-                if (ticket.getReason() != null) {
-                    intent.putExtra("reason", ticket.getReason());
-                }
                 startActivity(intent);
                 dismiss();
             }
         };
 
-        TicketAdapter adapter = new TicketAdapter(getContext(), displayOnlyListener);
+        adapter = new TicketAdapter(getContext(), displayOnlyListener);
         adapter.setTickets(filteredTickets);
 
         recyclerView.setAdapter(adapter);
+        adapter.attachPreloader(recyclerView);
+
+        // 1. Set the dialog title, and fetch any reports the ticket store no longer holds
+        updateTitle(loaded);
+        if (loaded < ticketIds.size()) {
+            fetchMissingTickets();
+        }
 
         // 4. Set Close Button Listener
         Button closeButton = view.findViewById(R.id.closeButton);
         closeButton.setOnClickListener(v -> dismiss());
     }
 
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        int count = Math.min(filteredTickets.size(), MAX_SAVED_TICKETS);
+        ArrayList<TicketParcel> parcels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parcels.add(new TicketParcel(filteredTickets.get(i)));
+        }
+        outState.putParcelableArrayList(STATE_TICKETS, parcels);
+        outState.putInt(STATE_LOADED_COUNT, count < filteredTickets.size() ? count : loadedCount);
+    }
+
+    /**
+     * Shows "N of M" in the title while some of the reports could not be loaded.
+     */
+    private void updateTitle(int loaded) {
+        loadedCount = loaded;
+        if (loaded < ticketIds.size()) {
+            dialogTitle.setText(reportTypeString + " Reports (" + loaded + " of " + ticketIds.size() + " loaded)");
+        } else {
+            dialogTitle.setText(reportTypeString + " Reports");
+        }
+    }
+
+    /**
+     * Re-fetches the user's tickets when the ticket store evicted some of the requested
+     * ones or the dialog was restored from capped saved state.
+     */
+    private void fetchMissingTickets() {
+        String userId = SupabaseManager.getCurrentUserId();
+        if (userId == null) {
+            return;
+        }
+        TicketRepository.getUserTickets(userId, new TicketRepository.FetchTicketsCallback() {
+            @Override
+            public void onSuccess(List<Ticket> tickets) {
+                Set<String> requested = new HashSet<>(ticketIds);
+                List<Ticket> found = new ArrayList<>();
+                for (Ticket ticket : tickets) {
+                    if (requested.contains(ticket.getId())) {
+                        found.add(ticket);
+                    }
+                }
+                TicketManager.getInstance().putTickets(found);
+                List<Ticket> resolved = TicketManager.getInstance().getTicketsByIds(ticketIds);
+
+                if (getActivity() == null) return;
+                getActivity().runOnUiThread(() -> {
+                    if (getView() == null) return;
+                    filteredTickets = new ArrayList<>(filterTickets(resolved, reportTypeString));
+                    adapter.setTickets(filteredTickets);
+                    updateTitle(resolved.size());
+                });
+            }
+
+            @Override
+            public void onError(String message) {
+                // Keep what is shown, the title already says how many reports are missing
+            }
+        });
+    }
+
     @Override
     public void onStart() {
         super.onStart();
@@ -0,0 +1,167 @@
+package com.example.infrastructureproject.utils;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline, hedging and fallback for a blocking model call. The call gets a
+ * hard deadline; if it has not answered by the recent p90 latency, an
+ * identical second (hedged) request is sent and whichever answers first wins.
+ * When both miss the deadline or fail, the fallback value is returned instead,
+ * so a slow model never holds up the screen waiting on it.
+ *
+ * Outcomes and latencies are counted in {@link AppMetrics} under "ai.<name>":
+ * ok, hedged, hedge_won, timeout, error and latency_ms.
+ */
+public class AiRequestPolicy {
+    private static final String TAG = "AiRequestPolicy";
+
+    // Attempts run here so waiting callers never starve their own executor
+    private static final ExecutorService attempts = Executors.newCachedThreadPool();
+
+    private static final int LATENCY_SAMPLES = 50;
+    // Too few samples for a percentile, hedge after this instead
+    private static final int MIN_SAMPLES = 10;
+
+    private final String name;
+    private final long deadlineMs;
+    private final long defaultHedgeDelayMs;
+    private final boolean hedge;
+
+    // Ring buffer of recent successful latencies
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount = 0;
+    private int latencyNext = 0;
+
+    public interface Call<T> {
+        T run() throws Exception;
+    }
+
+    public interface Fallback<T> {
+        // May return null when there is nothing better than leaving the form alone
+        T get();
+    }
+
+    public enum Source { MODEL, HEDGE, FALLBACK }
+
+    public static class Result<T> {
+        public final T value;
+        public final Source source;
+        public final long latencyMs;
+
+        Result(T value, Source source, long latencyMs) {
+            this.value = value;
+            this.source = source;
+            this.latencyMs = latencyMs;
+        }
+
+        public boolean isFallback() { return source == Source.FALLBACK; }
+    }
+
+    /**
+     * @param name                metrics name, e.g. "gemini.classification"
+     * @param deadlineMs          total time allowed for the call, hedge included
+     * @param defaultHedgeDelayMs hedge delay until there are enough samples for a p90
+     * @param hedge               whether to send the second request at all
+     */
+    public AiRequestPolicy(String name, long deadlineMs, long defaultHedgeDelayMs, boolean hedge) {
+        this.name = name;
+        this.deadlineMs = deadlineMs;
+        this.defaultHedgeDelayMs = defaultHedgeDelayMs;
+        this.hedge = hedge;
+    }
+
+    /**
+     * Blocking, must not be called on the main thread.
+     */
+    public <T> Result<T> execute(Call<T> call, Fallback<T> fallback) {
+        String metric = "ai." + name;
+        long start = clockMs();
+        long deadline = start + deadlineMs;
+        CompletionService<T> completion = new ExecutorCompletionService<>(attempts);
+        Future<T> primary = completion.submit(call::run);
+        Future<T> hedged = null;
+        int pending = 1;
+
+        try {
+            long hedgeAt = start + hedgeDelayMs();
+            while (pending > 0) {
+                long now = clockMs();
+                if (now >= deadline) break;
+                boolean canHedge = hedge && hedged == null && hedgeAt < deadline;
+                long waitUntil = canHedge ? Math.min(hedgeAt, deadline) : deadline;
+
+                Future<T> done = completion.poll(Math.max(0, waitUntil - now), TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    if (canHedge && clockMs() >= hedgeAt) {
+                        Log.d(TAG, name + ": no answer after " + (hedgeAt - start) + "ms, hedging");
+                        AppMetrics.increment(metric + ".hedged");
+                        hedged = completion.submit(call::run);
+                        pending++;
+                    }
+                    continue;
+                }
+                pending--;
+                try {
+                    T value = done.get();
+                    long latency = clockMs() - start;
+                    recordLatency(latency);
+                    AppMetrics.increment(metric + ".ok");
+                    AppMetrics.add(metric + ".latency_ms", latency);
+                    boolean hedgeWon = done == hedged;
+                    if (hedgeWon) {
+                        AppMetrics.increment(metric + ".hedge_won");
+                    }
+                    return new Result<>(value, hedgeWon ? Source.HEDGE : Source.MODEL, latency);
+                } catch (ExecutionException e) {
+                    // The other attempt may still answer
+                    Log.e(TAG, name + " attempt failed", e.getCause());
+                    AppMetrics.increment(metric + ".error");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            primary.cancel(true);
+            if (hedged != null) {
+                hedged.cancel(true);
+            }
+        }
+
+        long latency = clockMs() - start;
+        if (latency >= deadlineMs) {
+            Log.w(TAG, name + " missed its " + deadlineMs + "ms deadline");
+            AppMetrics.increment(metric + ".timeout");
+        }
+        return new Result<>(fallback != null ? fallback.get() : null, Source.FALLBACK, latency);
+    }
+
+    // Monotonic milliseconds; only differences within one call are used
+    private static long clockMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    // p90 of recent successful calls, the point after which waiting longer rarely pays off
+    synchronized long hedgeDelayMs() {
+        if (latencyCount < MIN_SAMPLES) {
+            return defaultHedgeDelayMs;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(latencyCount * 0.9) - 1];
+    }
+
+    synchronized void recordLatency(long latencyMs) {
+        latencies[latencyNext] = latencyMs;
+        latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+    }
+}
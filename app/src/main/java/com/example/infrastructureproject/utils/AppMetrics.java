@@ -0,0 +1,83 @@
+package com.example.infrastructureproject.utils;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters for cache hit rates and similar health numbers.
+ * Counters are named "<area>.<event>", e.g. "glide.memory.hit". Cheap enough to
+ * call from decode and network threads. A summary is logged under the
+ * "AppMetrics" tag every {@link #LOG_EVERY_EVENTS} cache lookups, and
+ * {@link #snapshot()} returns the current values for anything that wants to show them.
+ */
+public class AppMetrics {
+    private static final String TAG = "AppMetrics";
+    private static final int LOG_EVERY_EVENTS = 200;
+
+    private static final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private static final AtomicLong lookups = new AtomicLong();
+
+    private AppMetrics() {
+    }
+
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    public static void add(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public static long get(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Record one lookup in the named cache, counted as "<cache>.hit" or "<cache>.miss".
+     */
+    public static void recordLookup(String cache, boolean hit) {
+        increment(cache + (hit ? ".hit" : ".miss"));
+        if (lookups.incrementAndGet() % LOG_EVERY_EVENTS == 0) {
+            logSummary();
+        }
+    }
+
+    // Fraction of lookups that hit, 0 when the cache was never queried
+    public static double hitRate(String cache) {
+        long hits = get(cache + ".hit");
+        long total = hits + get(cache + ".miss");
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    // All counters, sorted by name
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().get());
+        }
+        return values;
+    }
+
+    public static void logSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Long> entry : snapshot().entrySet()) {
+            String name = entry.getKey();
+            summary.append(name).append('=').append(entry.getValue());
+            if (name.endsWith(".hit")) {
+                String cache = name.substring(0, name.length() - ".hit".length());
+                summary.append(String.format(Locale.US, " (%.0f%%)", hitRate(cache) * 100));
+            }
+            summary.append(", ");
+        }
+        if (summary.length() > 0) {
+            summary.setLength(summary.length() - 2);
+        }
+        Log.i(TAG, summary.toString());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.infrastructureproject.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persistent LRU cache of Gemini image classification results (the structured
+ * issue_type/severity/description/location JSON). Keys combine the SHA-256 of
+ * the image bytes sent to the model with a version string for the model,
+ * prompt and schema, so re-picking the same photo answers instantly while a
+ * prompt change never serves stale results.
+ *
+ * Stored as one small JSON file in app storage, rewritten in the background
+ * after each change. Lookups and hit rate are recorded as "gemini.classification".
+ */
+public class ClassificationCache {
+    private static final String TAG = "ClassificationCache";
+    private static final String FILE_NAME = "classification_cache.json";
+    static final int MAX_ENTRIES = 100;
+
+    private static ClassificationCache instance;
+
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, String> entries =
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    private ClassificationCache(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    ClassificationCache(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * The first call reads the cache file; make it off the main thread.
+     */
+    public static synchronized ClassificationCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ClassificationCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public static String key(String imageSha256, String version) {
+        return imageSha256 + ":" + version;
+    }
+
+    // The cached result JSON, or null on a miss
+    public synchronized String get(String key) {
+        String result = entries.get(key);
+        AppMetrics.recordLookup("gemini.classification", result != null);
+        if (result != null) {
+            // Persist the new recency so eviction order survives restarts
+            scheduleSave();
+        }
+        return result;
+    }
+
+    /**
+     * Most recently used result for this image under any model/prompt version,
+     * or null. Only for when a fresh answer can't be had in time.
+     */
+    public synchronized String findByImage(String imageSha256) {
+        String prefix = imageSha256 + ":";
+        String result = null;
+        // Iteration runs from least to most recently used, keep the last match
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                result = entry.getValue();
+            }
+        }
+        return result;
+    }
+
+    public synchronized void put(String key, String resultJson) {
+        entries.put(key, resultJson);
+        scheduleSave();
+    }
+
+    // Blocks until every scheduled write has reached the file
+    void flush() throws InterruptedException {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] data = new byte[(int) file.length()];
+            int offset = 0;
+            int read;
+            while (offset < data.length && (read = in.read(data, offset, data.length - offset)) != -1) {
+                offset += read;
+            }
+            // Saved least recently used first, so re-inserting restores the order
+            JSONArray array = new JSONArray(new String(data, 0, offset, StandardCharsets.UTF_8));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject entry = array.getJSONObject(i);
+                entries.put(entry.getString("key"), entry.getString("result"));
+            }
+        } catch (IOException | JSONException e) {
+            // A corrupt cache only costs a few model calls, start over
+            Log.w(TAG, "Discarding unreadable cache file", e);
+            entries.clear();
+        }
+    }
+
+    private void scheduleSave() {
+        String snapshot = serialize();
+        writer.execute(() -> save(snapshot));
+    }
+
+    // Called with the lock held
+    private String serialize() {
+        JSONArray array = new JSONArray();
+        try {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                array.put(new JSONObject().put("key", entry.getKey()).put("result", entry.getValue()));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to serialize cache", e);
+        }
+        return array.toString();
+    }
+
+    // Write to a temp file and rename, so a crash mid-write never corrupts the cache
+    private void save(String snapshot) {
+        File partial = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(partial)) {
+            out.write(snapshot.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write cache", e);
+            return;
+        }
+        if (!partial.renameTo(file)) {
+            Log.e(TAG, "Failed to replace cache file");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.infrastructureproject.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 64-bit difference hash (dHash) of a photo. The image is shrunk to 9x8
+ * grayscale and each bit records whether a pixel is brighter than its right
+ * neighbour, so re-encoded, resized or slightly recropped copies of the same
+ * scene hash to values a few bits apart. Compare with {@link #hammingDistance}.
+ */
+public class ImageHasher {
+    private static final String TAG = "ImageHasher";
+
+    // Hashes at or below this distance are treated as the same scene
+    public static final int DUPLICATE_THRESHOLD = 10;
+
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+    // Decode at roughly this size before the final shrink; plenty for a 9x8 hash
+    private static final int DECODE_EDGE_PX = 64;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface HashCallback {
+        void onHashed(long hash);
+        void onError(String message);
+    }
+
+    private ImageHasher() {
+    }
+
+    public static void hashAsync(Context context, Uri uri, HashCallback callback) {
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                long hash = dHash(appContext, uri);
+                mainHandler.post(() -> callback.onHashed(hash));
+            } catch (Exception | OutOfMemoryError e) {
+                Log.e(TAG, "Failed to hash image", e);
+                mainHandler.post(() -> callback.onError("Could not hash image: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Blocking, must not be called on the main thread.
+     */
+    public static long dHash(Context context, Uri uri) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image");
+        }
+
+        BitmapFactory.Options decode = new BitmapFactory.Options();
+        decode.inSampleSize = ImagePreparer.calculateInSampleSize(bounds.outWidth, bounds.outHeight, DECODE_EDGE_PX);
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            decoded = BitmapFactory.decodeStream(in, null, decode);
+        }
+        if (decoded == null) {
+            throw new IOException("Failed to decode image");
+        }
+
+        Bitmap small = Bitmap.createScaledBitmap(decoded, HASH_WIDTH, HASH_HEIGHT, true);
+        if (small != decoded) {
+            decoded.recycle();
+        }
+        int[] pixels = new int[HASH_WIDTH * HASH_HEIGHT];
+        small.getPixels(pixels, 0, HASH_WIDTH, 0, 0, HASH_WIDTH, HASH_HEIGHT);
+        small.recycle();
+
+        long hash = 0;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                int left = luminance(pixels[y * HASH_WIDTH + x]);
+                int right = luminance(pixels[y * HASH_WIDTH + x + 1]);
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    public static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static int luminance(int color) {
+        // Integer Rec. 601 luma
+        return (Color.red(color) * 299 + Color.green(color) * 587 + Color.blue(color) * 114) / 1000;
+    }
+}
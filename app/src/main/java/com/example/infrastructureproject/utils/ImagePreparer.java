@@ -0,0 +1,308 @@
+package com.example.infrastructureproject.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shrinks a picked or captured photo before upload: subsampled decode, resize
+ * to a maximum edge, then re-encode (JPEG or WebP) within a size budget.
+ * Re-encoding drops all EXIF/GPS metadata; orientation is applied to the pixels first.
+ * The result is written to a cache file so it can be streamed to storage.
+ * Several renditions of one photo come from a single decode, each scaled from
+ * the next larger bitmap and encoded once.
+ */
+public class ImagePreparer {
+    private static final String TAG = "ImagePreparer";
+
+    // Decoding and encoding are CPU heavy, keep them off the main thread and one at a time
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final String CACHE_DIR = "upload_images";
+
+    public enum Format {
+        JPEG("image/jpeg", ".jpg"),
+        WEBP("image/webp", ".webp");
+
+        private final String mimeType;
+        private final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+
+        public String getMimeType() { return mimeType; }
+        public String getExtension() { return extension; }
+    }
+
+    public static class Options {
+        public final int maxEdgePx;
+        public final int quality;
+        public final int minQuality;
+        public final int maxBytes; // 0 = no size budget
+        public final Format format;
+
+        public Options(int maxEdgePx, int quality, int minQuality, int maxBytes, Format format) {
+            this.maxEdgePx = maxEdgePx;
+            this.quality = quality;
+            this.minQuality = minQuality;
+            this.maxBytes = maxBytes;
+            this.format = format;
+        }
+    }
+
+    // Enough detail for council review while keeping uploads around a few hundred KB
+    public static final Options UPLOAD_OPTIONS = new Options(1600, 85, 55, 500 * 1024, Format.JPEG);
+    // Renditions stored next to the original: list thumbnails and detail screens
+    public static final Options THUMBNAIL_OPTIONS = new Options(240, 75, 50, 25 * 1024, Format.JPEG);
+    public static final Options MEDIUM_OPTIONS = new Options(800, 80, 55, 150 * 1024, Format.JPEG);
+    // Sent to Gemini for classification: a 768px edge fits a single model tile, and
+    // more pixels or quality add request size and latency without a better answer
+    public static final Options MODEL_OPTIONS = new Options(768, 80, 60, 120 * 1024, Format.JPEG);
+
+    public static class PreparedImage {
+        private final File file;
+        private final Format format;
+        private final int width;
+        private final int height;
+
+        PreparedImage(File file, Format format, int width, int height) {
+            this.file = file;
+            this.format = format;
+            this.width = width;
+            this.height = height;
+        }
+
+        public Uri getUri() { return Uri.fromFile(file); }
+        public File getFile() { return file; }
+        public long getLength() { return file.length(); }
+        public String getMimeType() { return format.getMimeType(); }
+        public String getExtension() { return format.getExtension(); }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+
+        /**
+         * Remove the cache file once the upload has finished (or failed for good).
+         */
+        public void delete() {
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file);
+            }
+        }
+    }
+
+    public interface PrepareCallback {
+        void onPrepared(PreparedImage image);
+        void onError(String message);
+    }
+
+    public interface RenditionsCallback {
+        // In the order the options were given
+        void onPrepared(List<PreparedImage> images);
+        void onError(String message);
+    }
+
+    private ImagePreparer() {
+    }
+
+    /**
+     * Prepare on a background thread and deliver the result on the main thread.
+     */
+    public static void prepareAsync(Context context, Uri uri, Options options, PrepareCallback callback) {
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                PreparedImage image = prepare(appContext, uri, options);
+                mainHandler.post(() -> callback.onPrepared(image));
+            } catch (Exception | OutOfMemoryError e) {
+                Log.e(TAG, "Failed to prepare image", e);
+                mainHandler.post(() -> callback.onError("Could not process image: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Several renditions from one decode, on a background thread; delivered on the main thread.
+     */
+    public static void prepareRenditionsAsync(Context context, Uri uri, List<Options> renditions,
+                                              RenditionsCallback callback) {
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                List<File> outFiles = new ArrayList<>(renditions.size());
+                for (Options options : renditions) {
+                    outFiles.add(newCacheFile(appContext, options.format));
+                }
+                List<PreparedImage> images = prepareRenditions(appContext, uri, renditions, outFiles);
+                mainHandler.post(() -> callback.onPrepared(images));
+            } catch (Exception | OutOfMemoryError e) {
+                Log.e(TAG, "Failed to prepare image", e);
+                mainHandler.post(() -> callback.onError("Could not process image: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Blocking version, must not be called on the main thread.
+     */
+    public static PreparedImage prepare(Context context, Uri uri, Options options) throws IOException {
+        return prepare(context, uri, options, newCacheFile(context, options.format));
+    }
+
+    /**
+     * Blocking version writing to a caller-chosen file, e.g. one that must
+     * outlive the cache directory until a background upload finishes.
+     */
+    public static PreparedImage prepare(Context context, Uri uri, Options options, File outFile) throws IOException {
+        return prepareRenditions(context, uri, Collections.singletonList(options),
+                Collections.singletonList(outFile)).get(0);
+    }
+
+    /**
+     * Blocking. Decodes the photo once, at the size the largest rendition needs,
+     * and writes renditions.get(i) to outFiles.get(i). If one fails none are kept.
+     */
+    public static List<PreparedImage> prepareRenditions(Context context, Uri uri, List<Options> renditions,
+                                                        List<File> outFiles) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        int maxEdgePx = 0;
+        for (Options options : renditions) {
+            maxEdgePx = Math.max(maxEdgePx, options.maxEdgePx);
+        }
+
+        // 1. Read bounds only
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image");
+        }
+
+        // 2. Subsampled decode, never smaller than the largest target edge
+        BitmapFactory.Options decode = new BitmapFactory.Options();
+        decode.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, maxEdgePx);
+        Bitmap bitmap;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            bitmap = BitmapFactory.decodeStream(in, null, decode);
+        }
+        if (bitmap == null) {
+            throw new IOException("Failed to decode image");
+        }
+
+        // 3. Exact resize + orientation in one transform, for the largest rendition
+        Bitmap previous = scaleAndRotate(bitmap, maxEdgePx,
+                PhotoMetadata.read(resolver, uri).getRotationDegrees());
+        if (previous != bitmap) {
+            bitmap.recycle();
+        }
+
+        // 4. Largest first, each rendition scaled down from the one before it and encoded once,
+        // stepping quality down until it fits the budget
+        Integer[] order = new Integer[renditions.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(renditions.get(b).maxEdgePx, renditions.get(a).maxEdgePx));
+        PreparedImage[] images = new PreparedImage[order.length];
+        try {
+            for (int index : order) {
+                Options options = renditions.get(index);
+                File outFile = outFiles.get(index);
+                Bitmap scaled = scaleAndRotate(previous, options.maxEdgePx, 0);
+                if (scaled != previous) {
+                    previous.recycle();
+                    previous = scaled;
+                }
+                encodeToFile(scaled, options, outFile);
+                images[index] = new PreparedImage(outFile, options.format, scaled.getWidth(), scaled.getHeight());
+                Log.d(TAG, "Prepared " + bounds.outWidth + "x" + bounds.outHeight + " -> "
+                        + scaled.getWidth() + "x" + scaled.getHeight() + ", " + outFile.length() + " bytes");
+            }
+        } catch (IOException | RuntimeException e) {
+            for (File outFile : outFiles) {
+                outFile.delete();
+            }
+            throw e;
+        } finally {
+            previous.recycle();
+        }
+        return Arrays.asList(images);
+    }
+
+    static int calculateInSampleSize(int width, int height, int maxEdgePx) {
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= maxEdgePx) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    static Bitmap scaleAndRotate(Bitmap source, int maxEdgePx, int rotationDegrees) {
+        int longEdge = Math.max(source.getWidth(), source.getHeight());
+        float scale = longEdge > maxEdgePx ? (float) maxEdgePx / longEdge : 1f;
+        if (scale == 1f && rotationDegrees == 0) {
+            return source;
+        }
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotationDegrees);
+        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat compressFormat(Format format) {
+        if (format == Format.WEBP) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? Bitmap.CompressFormat.WEBP_LOSSY
+                    : Bitmap.CompressFormat.WEBP;
+        }
+        return Bitmap.CompressFormat.JPEG;
+    }
+
+    private static File newCacheFile(Context context, Format format) throws IOException {
+        File dir = new File(context.getCacheDir(), CACHE_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        return new File(dir, "upload_" + UUID.randomUUID() + format.getExtension());
+    }
+
+    private static void encodeToFile(Bitmap bitmap, Options options, File outFile) throws IOException {
+        Bitmap.CompressFormat compressFormat = compressFormat(options.format);
+        int quality = options.quality;
+        while (true) {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile))) {
+                bitmap.compress(compressFormat, quality, out);
+            }
+            if (options.maxBytes <= 0 || outFile.length() <= options.maxBytes || quality <= options.minQuality) {
+                return;
+            }
+            quality = Math.max(options.minQuality, quality - 10);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.infrastructureproject.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Instant issue type and severity guess for a report photo, computed on the
+ * CPU in a few tens of milliseconds and without network. This is a hand-written
+ * heuristic, not a trained model: it scores the issue types from colour and
+ * layout statistics of a tiny thumbnail, a patch standing out in the middle of
+ * grey road surface (Pothole), a thin upright structure against open sky
+ * (Broken Streetlight), rust dominating the lower half (Damaged Pipe). Weak
+ * guesses come back as Other.
+ *
+ * Unvalidated: its thresholds were tuned on the few labelled photos in
+ * res/drawable, the same ones IssuePreClassifierTest checks, and there is no
+ * held-out set, so its accuracy on real reports is unknown. It is only a first
+ * guess; the form is pre-filled when {@link Prediction#isConfident()} and the
+ * Gemini answer replaces it. Time per photo is recorded as
+ * "preclassifier.latency_ms" and compared against {@link #BUDGET_MS}.
+ */
+public class IssuePreClassifier {
+    private static final String TAG = "IssuePreClassifier";
+
+    // Decode + scoring per photo, logged when exceeded
+    public static final long BUDGET_MS = 100;
+    // Below this the best score is no better than a coin toss, say Other
+    private static final float MIN_SCORE = 0.35f;
+    // Lowest confidence that pre-fills the form, set from the tuning photos rather than
+    // measured; a wrong pre-fill costs the user a correction, a missing one nothing
+    public static final float PREFILL_CONFIDENCE = 0.6f;
+    // Share of the lower half that must be grey road surface before a pothole is considered
+    private static final float MIN_GROUND_SHARE = 0.5f;
+    // Share of the top third that must be sky before a pole in it is considered
+    private static final float MIN_SKY_SHARE = 0.6f;
+    private static final int SAMPLE_EDGE = 64;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static class Prediction {
+        public final String issueType;
+        public final String severity;
+        public final float confidence; // 0..1
+
+        Prediction(String issueType, String severity, float confidence) {
+            this.issueType = issueType;
+            this.severity = severity;
+            this.confidence = confidence;
+        }
+
+        // Sure enough to pre-fill the form before Gemini answers; Other always scores 0
+        public boolean isConfident() {
+            return confidence >= PREFILL_CONFIDENCE;
+        }
+
+        // Same shape as the Gemini classification, without description and location
+        public String toJson() {
+            try {
+                return new JSONObject()
+                        .put("issue_type", issueType)
+                        .put("severity", severity)
+                        .toString();
+            } catch (JSONException e) {
+                return "{}";
+            }
+        }
+    }
+
+    public interface PredictionCallback {
+        // Null when the photo could not be decoded
+        void onPrediction(Prediction prediction);
+    }
+
+    private IssuePreClassifier() {
+    }
+
+    /**
+     * Classify on a background thread and deliver the result on the main thread.
+     */
+    public static void classifyAsync(Context context, Uri uri, PredictionCallback callback) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        executor.execute(() -> {
+            Prediction prediction = classify(resolver, uri);
+            mainHandler.post(() -> callback.onPrediction(prediction));
+        });
+    }
+
+    /**
+     * Blocking version, must not be called on the main thread.
+     */
+    public static Prediction classify(ContentResolver resolver, Uri uri) {
+        long start = SystemClock.elapsedRealtime();
+        Bitmap sample;
+        try {
+            sample = decodeSample(resolver, uri);
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            Log.w(TAG, "Could not decode " + uri, e);
+            return null;
+        }
+        if (sample == null) return null;
+
+        int width = sample.getWidth();
+        int height = sample.getHeight();
+        int[] pixels = new int[width * height];
+        sample.getPixels(pixels, 0, width, 0, 0, width, height);
+        sample.recycle();
+        Prediction prediction = score(pixels, width, height);
+
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        AppMetrics.increment("preclassifier.runs");
+        AppMetrics.add("preclassifier.latency_ms", elapsed);
+        if (elapsed > BUDGET_MS) {
+            AppMetrics.increment("preclassifier.over_budget");
+            Log.w(TAG, "Took " + elapsed + "ms, budget is " + BUDGET_MS + "ms");
+        }
+        Log.d(TAG, prediction.issueType + " (" + prediction.confidence + "), " + prediction.severity
+                + " in " + elapsed + "ms");
+        return prediction;
+    }
+
+    // Subsampled decode straight to a tiny bitmap; orientation is applied so "top" means sky
+    private static Bitmap decodeSample(ContentResolver resolver, Uri uri) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+
+        BitmapFactory.Options decode = new BitmapFactory.Options();
+        decode.inSampleSize = ImagePreparer.calculateInSampleSize(bounds.outWidth, bounds.outHeight, SAMPLE_EDGE);
+        decode.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) throw new IOException("Cannot open " + uri);
+            decoded = BitmapFactory.decodeStream(in, null, decode);
+        }
+        if (decoded == null) return null;
+
+        int rotation = PhotoMetadata.read(resolver, uri).getRotationDegrees();
+        Bitmap sample = ImagePreparer.scaleAndRotate(decoded, SAMPLE_EDGE, rotation);
+        if (sample != decoded) {
+            decoded.recycle();
+        }
+        return sample;
+    }
+
+    // pixels are ARGB, row by row, top row first
+    static Prediction score(int[] pixels, int width, int height) {
+        float[] hsv = new float[3];
+        float[] values = new float[pixels.length];
+        float[] groundValues = new float[pixels.length];
+        int top = 0, bottom = 0, groundCount = 0;
+        int sky = 0, water = 0, rust = 0, colourful = 0;
+        int[] darkPerColumn = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                toHsv(pixels[i], hsv);
+                float hue = hsv[0], saturation = hsv[1], value = hsv[2];
+                values[i] = value;
+
+                if (y < height / 3) {
+                    top++;
+                    // Blue sky, or the bright flat grey of an overcast one
+                    if ((hue >= 190 && hue <= 250 && saturation > 0.2f && value > 0.45f)
+                            || (saturation < 0.12f && value > 0.75f)) {
+                        sky++;
+                    } else if (value < 0.35f) {
+                        darkPerColumn[x]++;
+                    }
+                }
+                if (y >= height / 2) {
+                    bottom++;
+                    if (saturation < 0.18f && value > 0.2f && value < 0.8f) {
+                        groundValues[groundCount++] = value;
+                    }
+                    if (hue >= 170 && hue <= 220 && saturation > 0.25f && value > 0.25f) {
+                        water++;
+                    }
+                    if (saturation > 0.35f) {
+                        colourful++;
+                        if (hue >= 10 && hue <= 40 && saturation > 0.45f && value > 0.2f && value < 0.75f) {
+                            rust++;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Share of the lower half that stands out from the typical ground brightness,
+        // in the middle and at the sides; a hole (darker) or a puddle in it (lighter)
+        // shows as a patch in the middle of otherwise even ground
+        float groundShare = bottom > 0 ? (float) groundCount / bottom : 0;
+        int centre = 0, centreOdd = 0, sides = 0, sidesOdd = 0;
+        if (groundCount > 0) {
+            Arrays.sort(groundValues, 0, groundCount);
+            float typical = groundValues[groundCount / 2];
+            for (int y = height / 2; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    boolean odd = Math.abs(values[y * width + x] - typical) > 0.2f;
+                    if (x > width / 4 && x < width * 3 / 4) {
+                        centre++;
+                        if (odd) centreOdd++;
+                    } else {
+                        sides++;
+                        if (odd) sidesOdd++;
+                    }
+                }
+            }
+        }
+        float patch = (centre > 0 ? (float) centreOdd / centre : 0) - (sides > 0 ? (float) sidesOdd / sides : 0);
+
+        float skyShare = top > 0 ? (float) sky / top : 0;
+        float waterShare = bottom > 0 ? (float) water / bottom : 0;
+        float rustShare = bottom > 0 ? (float) rust / bottom : 0;
+        // A pole: a few narrow dark columns cutting through the sky
+        int poleColumns = 0;
+        for (int x = 0; x < width; x++) {
+            if (darkPerColumn[x] > height / 6) poleColumns++;
+        }
+        boolean pole = poleColumns > 0 && poleColumns <= width / 6;
+
+        // Grey ground alone is any road photo, only a patch standing out of it counts
+        float pothole = groundShare >= MIN_GROUND_SHARE && patch > 0.05f
+                ? Math.min(1f, groundShare * 0.4f + Math.min(patch * 4f, 1f) * 0.6f) : 0f;
+        // Likewise open sky alone is any outdoor photo; dark columns only look like a pole
+        // against a mostly clear top, not between bright car roofs or shelves
+        float streetlight = pole && skyShare >= MIN_SKY_SHARE ? Math.min(1f, skyShare * 0.6f + 0.4f) : 0f;
+        // Rust has to dominate the colours: busy colourful scenes (cars, shop shelves) have some
+        // brown too. Blue is no evidence on its own, it is more often a car than water
+        float pipe = colourful > 0 ? Math.min(1f, rustShare * 2.5f) * Math.min(1f, 2f * rust / colourful) : 0f;
+
+        String issueType = "Other";
+        float best = MIN_SCORE;
+        if (pothole > best) { issueType = "Pothole"; best = pothole; }
+        if (streetlight > best) { issueType = "Broken Streetlight"; best = streetlight; }
+        if (pipe > best) { issueType = "Damaged Pipe"; best = pipe; }
+
+        String severity = "Medium";
+        if (issueType.equals("Pothole")) {
+            severity = patch > 0.25f ? "High" : patch > 0.1f ? "Medium" : "Low";
+        } else if (issueType.equals("Damaged Pipe")) {
+            severity = waterShare > 0.3f ? "High" : "Medium";
+        }
+        return new Prediction(issueType, severity, issueType.equals("Other") ? 0f : best);
+    }
+
+    // Same result as Color.colorToHSV: hue 0..360, saturation and value 0..1
+    static void toHsv(int argb, float[] hsv) {
+        int r = (argb >> 16) & 0xff, g = (argb >> 8) & 0xff, b = argb & 0xff;
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        float range = max - min;
+        float hue;
+        if (range == 0) {
+            hue = 0;
+        } else if (max == r) {
+            hue = 60 * ((g - b) / range);
+        } else if (max == g) {
+            hue = 60 * ((b - r) / range) + 120;
+        } else {
+            hue = 60 * ((r - g) / range) + 240;
+        }
+        hsv[0] = hue < 0 ? hue + 360 : hue;
+        hsv[1] = max == 0 ? 0 : range / max;
+        hsv[2] = max / 255f;
+    }
+}
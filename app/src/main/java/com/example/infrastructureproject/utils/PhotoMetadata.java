@@ -0,0 +1,120 @@
+package com.example.infrastructureproject.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Orientation, GPS position and capture time of a photo, read from its EXIF
+ * header in one pass. Only the header is parsed, pixels are never decoded.
+ * Missing or unreadable values are reported as absent, never as an error.
+ */
+public class PhotoMetadata {
+    private static final String TAG = "PhotoMetadata";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private static final PhotoMetadata EMPTY = new PhotoMetadata(0, null, null, 0);
+
+    private final int rotationDegrees;
+    private final Double latitude;
+    private final Double longitude;
+    private final long capturedAtMillis; // 0 if unknown
+
+    public interface MetadataCallback {
+        void onMetadata(PhotoMetadata metadata);
+    }
+
+    private PhotoMetadata(int rotationDegrees, Double latitude, Double longitude, long capturedAtMillis) {
+        this.rotationDegrees = rotationDegrees;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.capturedAtMillis = capturedAtMillis;
+    }
+
+    // Clockwise rotation needed to display the pixels upright
+    public int getRotationDegrees() { return rotationDegrees; }
+    public boolean hasLocation() { return latitude != null && longitude != null; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public boolean hasCaptureTime() { return capturedAtMillis > 0; }
+    public long getCapturedAtMillis() { return capturedAtMillis; }
+
+    /**
+     * Read on a background thread and deliver the result on the main thread.
+     */
+    public static void readAsync(Context context, Uri uri, MetadataCallback callback) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        executor.execute(() -> {
+            PhotoMetadata metadata = read(resolver, uri);
+            mainHandler.post(() -> callback.onMetadata(metadata));
+        });
+    }
+
+    /**
+     * Blocking version, must not be called on the main thread.
+     */
+    public static PhotoMetadata read(ContentResolver resolver, Uri uri) {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) return EMPTY;
+            ExifInterface exif = new ExifInterface(in);
+
+            Double latitude = null;
+            Double longitude = null;
+            float[] latLong = new float[2];
+            // (0, 0) is what some cameras write when they had no fix
+            if (exif.getLatLong(latLong) && (latLong[0] != 0f || latLong[1] != 0f)) {
+                latitude = (double) latLong[0];
+                longitude = (double) latLong[1];
+            }
+            return new PhotoMetadata(rotationDegrees(exif), latitude, longitude, captureTime(exif));
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not read EXIF of " + uri, e);
+            return EMPTY;
+        }
+    }
+
+    private static int rotationDegrees(ExifInterface exif) {
+        switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    // EXIF times have no zone; cameras write local time, so parse in the device's zone
+    private static long captureTime(ExifInterface exif) {
+        String value = exif.getAttribute(ExifInterface.TAG_DATETIME_ORIGINAL);
+        if (value == null) {
+            value = exif.getAttribute(ExifInterface.TAG_DATETIME);
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            Date date = new SimpleDateFormat("yyyy:MM:dd HH:mm:ss", Locale.US).parse(value.trim());
+            return date != null ? date.getTime() : 0;
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+}
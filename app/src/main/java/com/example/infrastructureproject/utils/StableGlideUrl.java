@@ -0,0 +1,74 @@
+package com.example.infrastructureproject.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+
+import java.io.InputStream;
+
+/**
+ * GlideUrl whose cache key ignores the parts of a Supabase Storage URL that
+ * change between requests for the same object: the query string (signed URL
+ * tokens, expiry) and the public/sign access segment. A photo fetched through
+ * a fresh signed URL then hits the memory and disk entries of the earlier one.
+ */
+public class StableGlideUrl extends GlideUrl {
+    private final String cacheKey;
+
+    public StableGlideUrl(String url) {
+        super(url);
+        this.cacheKey = stableKey(url);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    static String stableKey(String url) {
+        int query = url.indexOf('?');
+        String key = query >= 0 ? url.substring(0, query) : url;
+        return key.replace("/storage/v1/object/sign/", "/storage/v1/object/public/");
+    }
+
+    /**
+     * Routes http(s) String models through StableGlideUrl, so call sites can
+     * keep passing plain URL strings. Registered by the app's Glide module.
+     */
+    public static class Loader implements ModelLoader<String, InputStream> {
+        private final ModelLoader<GlideUrl, InputStream> urlLoader;
+
+        Loader(ModelLoader<GlideUrl, InputStream> urlLoader) {
+            this.urlLoader = urlLoader;
+        }
+
+        @Nullable
+        @Override
+        public LoadData<InputStream> buildLoadData(@NonNull String model, int width, int height,
+                                                   @NonNull Options options) {
+            return urlLoader.buildLoadData(new StableGlideUrl(model), width, height, options);
+        }
+
+        @Override
+        public boolean handles(@NonNull String model) {
+            return model.startsWith("http://") || model.startsWith("https://");
+        }
+
+        public static class Factory implements ModelLoaderFactory<String, InputStream> {
+            @NonNull
+            @Override
+            public ModelLoader<String, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+                return new Loader(multiFactory.build(GlideUrl.class, InputStream.class));
+            }
+
+            @Override
+            public void teardown() {
+            }
+        }
+    }
+}
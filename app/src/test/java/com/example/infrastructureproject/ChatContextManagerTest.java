@@ -0,0 +1,130 @@
+package com.example.infrastructureproject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Which messages go into the prompt word for word under the history token budget.
+ */
+public class ChatContextManagerTest {
+    private static final int BUDGET_CHARS =
+            ChatContextManager.HISTORY_TOKEN_BUDGET * ChatContextManager.CHARS_PER_TOKEN;
+
+    // Alternating user/assistant messages with ids 1..count, each of the given length
+    private static List<ChatMessage> conversation(int count, int length) {
+        List<ChatMessage> history = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) text.append('x');
+        for (int i = 1; i <= count; i++) {
+            history.add(new ChatMessage(i, text.toString(), i % 2 == 1));
+        }
+        return history;
+    }
+
+    private static int cost(List<ChatMessage> history, int from) {
+        int total = 0;
+        for (int i = from; i < history.size(); i++) {
+            total += ChatContextManager.formatTurn(history.get(i)).length();
+        }
+        return total;
+    }
+
+    @Test
+    public void shortConversation_isSentWhole() {
+        List<ChatMessage> history = conversation(5, 40);
+        assertEquals(0, ChatContextManager.verbatimStart(history, 0, BUDGET_CHARS));
+    }
+
+    @Test
+    public void longConversation_keepsNewestMessagesWithinBudget() {
+        List<ChatMessage> history = conversation(100, 200);
+
+        int start = ChatContextManager.verbatimStart(history, 0, BUDGET_CHARS);
+
+        assertTrue(start > 0);
+        assertTrue(cost(history, start) <= BUDGET_CHARS);
+        // One more message would not have fitted
+        assertTrue(cost(history, start - 1) > BUDGET_CHARS);
+    }
+
+    @Test
+    public void summaryLengthComesOutOfTheBudget() {
+        List<ChatMessage> history = conversation(100, 200);
+        String summary = new String(new char[2000]).replace('\0', 's');
+
+        int withoutSummary = ChatContextManager.verbatimStart(history, 0, BUDGET_CHARS);
+        int withSummary = ChatContextManager.verbatimStart(history, 0, BUDGET_CHARS - summary.length());
+
+        assertTrue(withSummary > withoutSummary);
+        assertTrue(cost(history, withSummary) + summary.length() <= BUDGET_CHARS);
+    }
+
+    @Test
+    public void newestMessage_isSentEvenOverBudget() {
+        List<ChatMessage> history = conversation(3, 50);
+        history.add(new ChatMessage(4, new String(new char[BUDGET_CHARS * 2]).replace('\0', 'y'), true));
+
+        assertEquals(3, ChatContextManager.verbatimStart(history, 0, BUDGET_CHARS));
+    }
+
+    @Test
+    public void neverReachesBackIntoSummarizedMessages() {
+        List<ChatMessage> history = conversation(10, 20);
+        int summarized = ChatContextManager.summarizedCount(history, 6);
+
+        assertEquals(6, summarized);
+        assertEquals(6, ChatContextManager.verbatimStart(history, summarized, BUDGET_CHARS));
+    }
+
+    @Test
+    public void summarizedCount_followsIdsNotPositions() {
+        // Older pages dropped from the top: the list starts at id 41
+        List<ChatMessage> history = new ArrayList<>();
+        for (long id = 41; id <= 50; id++) {
+            history.add(new ChatMessage(id, "hi", id % 2 == 1));
+        }
+
+        assertEquals(0, ChatContextManager.summarizedCount(history, 0));
+        assertEquals(0, ChatContextManager.summarizedCount(history, 40));
+        assertEquals(5, ChatContextManager.summarizedCount(history, 45));
+        assertEquals(10, ChatContextManager.summarizedCount(history, 99));
+    }
+
+    @Test
+    public void firstQuestion_usesNoContext() {
+        ChatContextManager manager = new ChatContextManager(null, "system");
+
+        manager.buildContent(conversation(1, 20));
+
+        assertFalse(manager.lastRequestUsedContext());
+    }
+
+    @Test
+    public void greeting_isNotContext() {
+        ChatContextManager manager = new ChatContextManager(null, "system");
+        List<ChatMessage> shown = new ArrayList<>();
+        shown.add(ChatMessage.notice("Hello! How can I help you today?"));
+        shown.add(new ChatMessage("How do I report a pothole?", true));
+
+        manager.buildContent(shown);
+
+        assertFalse(manager.lastRequestUsedContext());
+        assertEquals(1, ChatContextManager.conversationTurns(shown).size());
+    }
+
+    @Test
+    public void followUpOrSummary_usesContext() {
+        ChatContextManager manager = new ChatContextManager(null, "system");
+        manager.buildContent(conversation(3, 20));
+        assertTrue(manager.lastRequestUsedContext());
+
+        ChatContextManager restored = new ChatContextManager(null, "system");
+        restored.restoreSummary("The user reported a pothole on Main Street.", 2);
+        restored.buildContent(conversation(3, 20).subList(2, 3));
+        assertTrue(restored.lastRequestUsedContext());
+    }
+}
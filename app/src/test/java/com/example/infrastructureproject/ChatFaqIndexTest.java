@@ -0,0 +1,130 @@
+package com.example.infrastructureproject;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * TF-IDF matching, the curated and learned thresholds, and which model answers get learned.
+ */
+public class ChatFaqIndexTest {
+    private static final String CURATED = "["
+            + "{\"questions\": [\"How do I report an issue?\", \"How do I submit a new report?\"],"
+            + " \"answer\": \"Open the Report tab.\"},"
+            + "{\"questions\": [\"What does pending mean?\", \"What do the ticket statuses mean?\"],"
+            + " \"answer\": \"Pending means received.\"},"
+            + "{\"questions\": [\"Can I delete my account?\"],"
+            + " \"answer\": \"Contact the council.\"}"
+            + "]";
+    private static final String GOOD_ANSWER =
+            "Streetlight outages are usually repaired within five working days of the report.";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static InputStream curated() {
+        return new ByteArrayInputStream(CURATED.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ChatFaqIndex newIndex(String userId) {
+        return new ChatFaqIndex(curated(), new File(folder.getRoot(), ChatFaqIndex.learnedFileName(userId)), userId);
+    }
+
+    @Test
+    public void curatedQuestion_matchesRewordedQuestion() {
+        ChatFaqIndex index = newIndex("u1");
+
+        ChatFaqIndex.Match match = index.match("how can I report issues");
+
+        assertNotNull(match);
+        assertEquals("Open the Report tab.", match.answer);
+        assertTrue(match.curated);
+        assertTrue(match.score >= ChatFaqIndex.CURATED_THRESHOLD);
+    }
+
+    @Test
+    public void unrelatedQuestion_hasNoMatch() {
+        ChatFaqIndex index = newIndex("u1");
+
+        assertNull(index.match("Is the swimming pool open on Sunday?"));
+        // Only stop words, nothing to match on
+        assertNull(index.match("what is it?"));
+    }
+
+    @Test
+    public void rareTermsWeighMoreThanCommonOnes() {
+        ChatFaqIndex index = newIndex("u1");
+
+        // "pending" appears once in the index, "mean" twice
+        ChatFaqIndex.Match match = index.match("pending mean");
+
+        assertNotNull(match);
+        assertEquals("Pending means received.", match.answer);
+    }
+
+    @Test
+    public void learnedAnswer_needsCloserMatchThanCurated() {
+        ChatFaqIndex index = newIndex("u1");
+        index.learn("How long does streetlight repair take?", GOOD_ANSWER);
+
+        ChatFaqIndex.Match exact = index.match("how long does streetlight repair take");
+        assertNotNull(exact);
+        assertEquals(GOOD_ANSWER, exact.answer);
+        assertFalse(exact.curated);
+
+        // Shares some words, enough for a curated entry but not for a learned one
+        assertNull(index.match("streetlight repair cost"));
+    }
+
+    @Test
+    public void learnedAnswers_areKeptPerUser() throws Exception {
+        ChatFaqIndex first = newIndex("user-a");
+        first.learn("How long does streetlight repair take?", GOOD_ANSWER);
+        first.flush();
+
+        assertNotNull(newIndex("user-a").match("how long does streetlight repair take"));
+        assertNull(newIndex("user-b").match("how long does streetlight repair take"));
+    }
+
+    @Test
+    public void learnedFileName_isSafeForAnyUserId() {
+        assertEquals("chat_faq_learned_local.json", ChatFaqIndex.learnedFileName("local"));
+        assertEquals("chat_faq_learned____x.json", ChatFaqIndex.learnedFileName("../x"));
+    }
+
+    @Test
+    public void confidentAnswer_mustFinishNormally() {
+        assertTrue(ChatFaqIndex.isConfidentAnswer(GOOD_ANSWER, true));
+        assertFalse(ChatFaqIndex.isConfidentAnswer(GOOD_ANSWER, false));
+        assertFalse(ChatFaqIndex.isConfidentAnswer(null, true));
+    }
+
+    @Test
+    public void confidentAnswer_rejectsTooShortOrTooLong() {
+        assertFalse(ChatFaqIndex.isConfidentAnswer("Yes, it is.", true));
+        StringBuilder longAnswer = new StringBuilder();
+        while (longAnswer.length() <= ChatFaqIndex.MAX_LEARNED_ANSWER_CHARS) {
+            longAnswer.append("Repairs are scheduled by the council. ");
+        }
+        assertFalse(ChatFaqIndex.isConfidentAnswer(longAnswer.toString(), true));
+    }
+
+    @Test
+    public void confidentAnswer_rejectsHedgingAndQuestionsBack() {
+        assertFalse(ChatFaqIndex.isConfidentAnswer(
+                "I'm not sure how long repairs take in your area, it varies a lot.", true));
+        assertFalse(ChatFaqIndex.isConfidentAnswer(
+                "I don\u2019t know the exact schedule for repairs in your council area.", true));
+        assertFalse(ChatFaqIndex.isConfidentAnswer(
+                "Could you tell me which street the broken streetlight is on, please.", true));
+        assertFalse(ChatFaqIndex.isConfidentAnswer(
+                "Which council area are you in? Repair times differ between areas.", true));
+    }
+}
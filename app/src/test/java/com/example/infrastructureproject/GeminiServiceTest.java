@@ -0,0 +1,110 @@
+package com.example.infrastructureproject;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parsing of batch classification answers and merging the results of one report's photos.
+ */
+public class GeminiServiceTest {
+
+    private static String result(String type, String severity) {
+        return "{\"issue_type\":\"" + type + "\",\"severity\":\"" + severity + "\"}";
+    }
+
+    private static String severityOf(String json) throws JSONException {
+        return new JSONObject(json).getString("severity");
+    }
+
+    private static String typeOf(String json) throws JSONException {
+        return new JSONObject(json).getString("issue_type");
+    }
+
+    @Test
+    public void resultsByImage_followsImageIndexNotAnswerOrder() throws JSONException {
+        String answer = "{\"results\":["
+                + "{\"image_index\":2,\"issue_type\":\"Damaged Pipe\"},"
+                + "{\"image_index\":0,\"issue_type\":\"Pothole\"},"
+                + "{\"image_index\":1,\"issue_type\":\"Other\"}]}";
+
+        List<String> perImage = GeminiService.resultsByImage(answer, 3);
+
+        assertEquals(3, perImage.size());
+        assertEquals("Pothole", typeOf(perImage.get(0)));
+        assertEquals("Other", typeOf(perImage.get(1)));
+        assertEquals("Damaged Pipe", typeOf(perImage.get(2)));
+    }
+
+    @Test
+    public void resultsByImage_leavesMissingImagesNullAndDropsBadIndexes() throws JSONException {
+        String answer = "{\"results\":["
+                + "{\"image_index\":1,\"issue_type\":\"Pothole\"},"
+                + "{\"image_index\":5,\"issue_type\":\"Other\"},"
+                + "{\"image_index\":-1,\"issue_type\":\"Other\"},"
+                + "{\"issue_type\":\"Broken Streetlight\"}]}";
+
+        List<String> perImage = GeminiService.resultsByImage(answer, 3);
+
+        assertNull(perImage.get(0));
+        assertEquals("Pothole", typeOf(perImage.get(1)));
+        assertNull(perImage.get(2));
+    }
+
+    @Test
+    public void resultsByImage_rejectsAnswerWithoutResults() {
+        assertThrows(JSONException.class, () -> GeminiService.resultsByImage("{\"issue_type\":\"Pothole\"}", 2));
+    }
+
+    @Test
+    public void merge_keepsMainPhotoTypeAndRaisesSeverity() throws JSONException {
+        String merged = GeminiService.mergeClassifications(new String[] {
+                result("Pothole", "Low"), result("Other", "High"), result("Pothole", "Medium")});
+
+        assertEquals("Pothole", typeOf(merged));
+        assertEquals("High", severityOf(merged));
+    }
+
+    @Test
+    public void merge_neverLowersSeverity() throws JSONException {
+        String merged = GeminiService.mergeClassifications(new String[] {
+                result("Damaged Pipe", "High"), result("Damaged Pipe", "Low")});
+
+        assertEquals("High", severityOf(merged));
+    }
+
+    @Test
+    public void merge_skipsPhotosWithoutUsableAnswer() throws JSONException {
+        String merged = GeminiService.mergeClassifications(new String[] {
+                null, "not json", "{\"error\":\"quota\"}", result("Broken Streetlight", "Medium")});
+
+        assertEquals("Broken Streetlight", typeOf(merged));
+        assertEquals("Medium", severityOf(merged));
+    }
+
+    @Test
+    public void merge_ignoresUnknownSeverities() throws JSONException {
+        String merged = GeminiService.mergeClassifications(new String[] {
+                result("Pothole", "Medium"), result("Pothole", "Catastrophic")});
+
+        assertEquals("Medium", severityOf(merged));
+    }
+
+    @Test
+    public void merge_returnsNullWhenNothingUsable() {
+        assertNull(GeminiService.mergeClassifications(new String[] {null, "{}", "oops"}));
+        assertNull(GeminiService.mergeClassifications(new String[0]));
+    }
+
+    @Test
+    public void classificationJson_needsIssueType() {
+        assertTrue(GeminiService.isClassificationJson(result("Pothole", "Low")));
+        assertFalse(GeminiService.isClassificationJson("{\"severity\":\"Low\"}"));
+        assertFalse(GeminiService.isClassificationJson("HTTP 500"));
+        assertFalse(GeminiService.isClassificationJson(null));
+    }
+}
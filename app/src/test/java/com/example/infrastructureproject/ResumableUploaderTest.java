@@ -0,0 +1,294 @@
+package com.example.infrastructureproject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the uploader against a minimal in-process tus server that can drop
+ * connections part way through a chunk or answer with an error status.
+ */
+public class ResumableUploaderTest {
+    private static final int CHUNK = 1024;
+    private static final String BUCKET = "ticket-images";
+    private static final String PATH = "sha256/ab/abcdef.jpg";
+
+    private FakeTusServer server;
+    private MemoryStore store;
+    private byte[] source;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeTusServer();
+        store = new MemoryStore();
+        source = new byte[10 * CHUNK + 300];
+        new Random(42).nextBytes(source);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private ResumableUploader newUploader() {
+        return new ResumableUploader(store, uri -> new ByteArrayInputStream(source),
+                server.endpoint(), "key", CHUNK, 1);
+    }
+
+    private void upload(ResumableUploader uploader) throws Exception {
+        uploader.upload(null, source.length, BUCKET, PATH, "image/jpeg", "token", null);
+    }
+
+    @Test
+    public void uploadsInChunksAndForgetsFinishedUpload() throws Exception {
+        upload(newUploader());
+
+        assertArrayEquals(source, server.received());
+        assertEquals(1, server.creates);
+        assertEquals(11, server.chunkOffsets.size());
+        assertTrue(store.entries.isEmpty());
+    }
+
+    @Test
+    public void droppedConnection_resumesFromServerOffset() throws Exception {
+        // Third chunk dies after half of it reached the server
+        server.dropAfterBytes = Collections.singletonList(CHUNK / 2);
+        server.dropOnChunk = 2;
+
+        upload(newUploader());
+
+        assertArrayEquals(source, server.received());
+        assertEquals(1, server.creates);
+        // The retry starts where the server stopped, not at the chunk boundary
+        assertEquals(Long.valueOf(2 * CHUNK), server.chunkOffsets.get(2));
+        assertEquals(Long.valueOf(2 * CHUNK + CHUNK / 2), server.chunkOffsets.get(3));
+    }
+
+    @Test
+    public void newUploaderInstance_resumesStoredUpload() throws Exception {
+        // Every try drops, so the first uploader gives up like a killed process would
+        server.dropAfterBytes = Arrays.asList(CHUNK / 2, 100, 100, 100);
+        server.dropOnChunk = 3;
+        try {
+            upload(newUploader());
+            fail("Expected the upload to give up");
+        } catch (IOException expected) {
+            // Retries exhausted
+        }
+        long keptOffset = server.offset();
+        assertTrue(keptOffset > 3 * CHUNK);
+        assertEquals(1, store.entries.size());
+
+        // After a restart only the store survives
+        server.chunkOffsets.clear();
+        upload(newUploader());
+
+        assertEquals(1, server.creates);
+        assertEquals(Long.valueOf(keptOffset), server.chunkOffsets.get(0));
+        assertArrayEquals(source, server.received());
+        assertTrue(store.entries.isEmpty());
+    }
+
+    @Test
+    public void serverErrorsAreRetried() throws Exception {
+        server.errorStatuses = new ArrayList<>(Arrays.asList(503, 429));
+
+        upload(newUploader());
+
+        assertArrayEquals(source, server.received());
+        assertTrue(server.errorStatuses.isEmpty());
+    }
+
+    @Test
+    public void clientErrorsFailWithStatusAndAreNotRetried() {
+        server.createStatus = 403;
+
+        Exception e = assertThrows(Exception.class, () -> upload(newUploader()));
+
+        assertTrue(e.getMessage(), e.getMessage().startsWith("HTTP 403"));
+        assertEquals(1, server.creates);
+    }
+
+    @Test
+    public void persistentServerErrors_giveUpWithStatus() {
+        server.errorStatuses = new ArrayList<>(Collections.nCopies(10, 500));
+
+        Exception e = assertThrows(Exception.class, () -> upload(newUploader()));
+
+        assertTrue(e.getMessage(), e.getMessage().startsWith("HTTP 500"));
+    }
+
+    @Test
+    public void discard_startsOverWithNewUpload() throws Exception {
+        server.dropAfterBytes = Arrays.asList(100, 100, 100, 100);
+        server.dropOnChunk = 1;
+        assertThrows(IOException.class, () -> upload(newUploader()));
+
+        newUploader().discard(BUCKET, PATH, source.length);
+        assertTrue(store.entries.isEmpty());
+
+        upload(newUploader());
+        assertEquals(2, server.creates);
+        assertArrayEquals(source, server.received());
+    }
+
+    private static class MemoryStore implements ResumableUploader.UploadStore {
+        final Map<String, String> entries = new HashMap<>();
+
+        @Override
+        public String get(String key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public void put(String key, String uploadUrl) {
+            entries.put(key, uploadUrl);
+        }
+
+        @Override
+        public void remove(String key) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Just enough of tus 1.0.0 for one upload at a time: creation, HEAD and PATCH
+     * (sent as POST with X-HTTP-Method-Override). Bytes that arrive before a
+     * dropped connection are kept, like a real tus server does.
+     */
+    private static class FakeTusServer {
+        private final HttpServer http;
+        private ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private int uploadCount;
+
+        volatile int creates;
+        volatile int createStatus = 201;
+        final List<Long> chunkOffsets = Collections.synchronizedList(new ArrayList<>());
+        // PATCH number (from 0) whose requests are cut off, and how many bytes each cut-off try gets in
+        volatile int dropOnChunk = -1;
+        volatile List<Integer> dropAfterBytes = Collections.emptyList();
+        private int drops;
+        // Statuses answered to the next PATCH requests, in order
+        volatile List<Integer> errorStatuses = new ArrayList<>();
+
+        FakeTusServer() throws IOException {
+            http = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            http.createContext("/upload", this::handle);
+            http.start();
+        }
+
+        String endpoint() {
+            return "http://127.0.0.1:" + http.getAddress().getPort() + "/upload";
+        }
+
+        void stop() {
+            http.stop(0);
+        }
+
+        synchronized byte[] received() {
+            return data.toByteArray();
+        }
+
+        synchronized long offset() {
+            return data.size();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String method = exchange.getRequestMethod();
+            String override = exchange.getRequestHeaders().getFirst("X-HTTP-Method-Override");
+            if (override != null) {
+                method = override;
+            }
+            exchange.getResponseHeaders().add("Tus-Resumable", "1.0.0");
+            String path = exchange.getRequestURI().getPath();
+
+            if (method.equals("POST") && path.equals("/upload")) {
+                creates++;
+                if (createStatus != 201) {
+                    respond(exchange, createStatus);
+                    return;
+                }
+                synchronized (this) {
+                    data = new ByteArrayOutputStream();
+                    uploadCount++;
+                }
+                exchange.getResponseHeaders().add("Location", "/upload/" + uploadCount);
+                respond(exchange, 201);
+            } else if (method.equals("HEAD")) {
+                exchange.getResponseHeaders().add("Upload-Offset", String.valueOf(offset()));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            } else if (method.equals("PATCH")) {
+                handlePatch(exchange);
+            } else {
+                respond(exchange, 405);
+            }
+        }
+
+        private void handlePatch(HttpExchange exchange) throws IOException {
+            long requestOffset = Long.parseLong(exchange.getRequestHeaders().getFirst("Upload-Offset"));
+            int chunkIndex = chunkOffsets.size();
+            chunkOffsets.add(requestOffset);
+            if (!errorStatuses.isEmpty()) {
+                drain(exchange.getRequestBody());
+                respond(exchange, errorStatuses.remove(0));
+                return;
+            }
+            if (requestOffset != offset()) {
+                drain(exchange.getRequestBody());
+                respond(exchange, 409);
+                return;
+            }
+
+            InputStream body = exchange.getRequestBody();
+            boolean drop = chunkIndex >= dropOnChunk && dropOnChunk >= 0 && drops < dropAfterBytes.size();
+            int limit = drop ? dropAfterBytes.get(drops++) : Integer.MAX_VALUE;
+            byte[] buffer = new byte[256];
+            int kept = 0;
+            int read;
+            while (kept < limit && (read = body.read(buffer, 0, Math.min(buffer.length, limit - kept))) != -1) {
+                synchronized (this) {
+                    data.write(buffer, 0, read);
+                }
+                kept += read;
+            }
+            if (drop) {
+                // The server closes the socket with no response, as a dropped connection would
+                throw new IOException("Simulated connection drop");
+            }
+            exchange.getResponseHeaders().add("Upload-Offset", String.valueOf(offset()));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }
+
+        private static void respond(HttpExchange exchange, int status) throws IOException {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        }
+
+        private static void drain(InputStream in) throws IOException {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) != -1) {
+                // Discard
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.infrastructureproject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lookup, refresh, bound and clear of the in-process ticket store.
+ */
+public class TicketManagerTest {
+
+    private static Ticket ticket(String id) {
+        return new Ticket(id, "Pothole", "Low", "Somewhere", "", "", null);
+    }
+
+    @Test
+    public void putTickets_replacesExistingEntries() {
+        TicketManager manager = new TicketManager();
+        manager.putTickets(Arrays.asList(ticket("T1"), ticket("T2")));
+
+        Ticket refreshed = ticket("T1");
+        refreshed.setStatus(Ticket.TicketStatus.ACCEPTED);
+        manager.putTickets(Collections.singletonList(refreshed));
+
+        assertEquals(2, manager.getTotalTicketCount());
+        assertSame(refreshed, manager.getTicketById("T1"));
+    }
+
+    @Test
+    public void getTicketsByIds_skipsUnknownIdsAndKeepsOrder() {
+        TicketManager manager = new TicketManager();
+        manager.putTickets(Arrays.asList(ticket("T1"), ticket("T2"), ticket("T3")));
+
+        List<Ticket> found = manager.getTicketsByIds(Arrays.asList("T3", "missing", "T1"));
+        assertEquals(2, found.size());
+        assertEquals("T3", found.get(0).getId());
+        assertEquals("T1", found.get(1).getId());
+    }
+
+    @Test
+    public void store_isBoundedAndDropsLeastRecentlyRefreshed() {
+        TicketManager manager = new TicketManager();
+        List<Ticket> batch = new ArrayList<>();
+        for (int i = 0; i < TicketManager.MAX_TICKETS; i++) {
+            batch.add(ticket("T" + i));
+        }
+        manager.putTickets(batch);
+        // Refreshing T0 makes T1 the oldest entry
+        manager.putTickets(Collections.singletonList(ticket("T0")));
+        manager.putTickets(Collections.singletonList(ticket("new")));
+
+        assertEquals(TicketManager.MAX_TICKETS, manager.getTotalTicketCount());
+        assertNotNull(manager.getTicketById("T0"));
+        assertNull(manager.getTicketById("T1"));
+        assertNotNull(manager.getTicketById("new"));
+    }
+
+    @Test
+    public void clear_forgetsEveryTicket() {
+        TicketManager manager = new TicketManager();
+        manager.putTickets(Arrays.asList(ticket("T1"), ticket("T2")));
+
+        manager.clear();
+
+        assertEquals(0, manager.getTotalTicketCount());
+        assertNull(manager.getTicketById("T1"));
+        assertTrue(manager.getAllTickets().isEmpty());
+    }
+
+    @Test
+    public void logout_clearsSharedStore() {
+        TicketManager.getInstance().putTickets(Collections.singletonList(ticket("T1")));
+
+        SupabaseManager.logout();
+
+        assertNull(TicketManager.getInstance().getTicketById("T1"));
+    }
+}
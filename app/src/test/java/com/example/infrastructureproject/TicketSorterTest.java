@@ -0,0 +1,128 @@
+package com.example.infrastructureproject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sort orders and the precomputed sort keys they read.
+ */
+public class TicketSorterTest {
+
+    private static Ticket ticket(String id, String severity, long createdAt, Ticket.TicketStatus status,
+                                 String assignedTo) {
+        Ticket ticket = new Ticket(id, "Pothole", severity, "Somewhere", "", "", null);
+        ticket.setCreatedAtMillis(createdAt);
+        ticket.setStatus(status);
+        ticket.setAssignedTo(assignedTo);
+        return ticket;
+    }
+
+    private static List<String> sortedIds(List<Ticket> tickets, TicketSorter.SortOrder order) {
+        List<Ticket> copy = new ArrayList<>(tickets);
+        copy.sort(TicketSorter.comparatorFor(order));
+        List<String> ids = new ArrayList<>();
+        for (Ticket ticket : copy) {
+            ids.add(ticket.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void newestAndOldest_orderByCreationTime() {
+        List<Ticket> tickets = Arrays.asList(
+                ticket("T2", "Low", 2_000, Ticket.TicketStatus.PENDING, null),
+                ticket("T1", "Low", 1_000, Ticket.TicketStatus.PENDING, null),
+                ticket("T3", "Low", 3_000, Ticket.TicketStatus.PENDING, null));
+
+        assertEquals(Arrays.asList("T3", "T2", "T1"), sortedIds(tickets, TicketSorter.SortOrder.NEWEST));
+        assertEquals(Arrays.asList("T1", "T2", "T3"), sortedIds(tickets, TicketSorter.SortOrder.OLDEST));
+    }
+
+    @Test
+    public void equalKeys_fallBackToIdInBothDirections() {
+        List<Ticket> tickets = Arrays.asList(
+                ticket("T9", "Low", 1_000, Ticket.TicketStatus.PENDING, null),
+                ticket("T1", "Low", 1_000, Ticket.TicketStatus.PENDING, null),
+                ticket(null, "Low", 1_000, Ticket.TicketStatus.PENDING, null));
+
+        List<String> expected = Arrays.asList(null, "T1", "T9");
+        assertEquals(expected, sortedIds(tickets, TicketSorter.SortOrder.NEWEST));
+        assertEquals(expected, sortedIds(tickets, TicketSorter.SortOrder.OLDEST));
+    }
+
+    @Test
+    public void severity_highestFirstThenOldest() {
+        List<Ticket> tickets = Arrays.asList(
+                ticket("low", "Low", 1_000, Ticket.TicketStatus.PENDING, null),
+                ticket("highNew", "High", 5_000, Ticket.TicketStatus.PENDING, null),
+                ticket("unknown", "Critical", 0, Ticket.TicketStatus.PENDING, null),
+                ticket("highOld", "high", 2_000, Ticket.TicketStatus.PENDING, null),
+                ticket("medium", "Medium", 500, Ticket.TicketStatus.PENDING, null));
+
+        assertEquals(Arrays.asList("highOld", "highNew", "medium", "low", "unknown"),
+                sortedIds(tickets, TicketSorter.SortOrder.SEVERITY));
+    }
+
+    @Test
+    public void oldestUnassigned_putsWaitingTicketsFirst() {
+        List<Ticket> tickets = Arrays.asList(
+                ticket("assigned", "Low", 1_000, Ticket.TicketStatus.PENDING, "Engineer A"),
+                ticket("newUnassigned", "Low", 4_000, Ticket.TicketStatus.PENDING, ""),
+                ticket("review", "Low", 500, Ticket.TicketStatus.UNDER_REVIEW, null),
+                ticket("oldUnassigned", "Low", 3_000, Ticket.TicketStatus.PENDING, "null"),
+                ticket("spam", "Low", 100, Ticket.TicketStatus.SPAM, null));
+
+        assertEquals(Arrays.asList("oldUnassigned", "newUnassigned", "assigned", "review", "spam"),
+                sortedIds(tickets, TicketSorter.SortOrder.OLDEST_UNASSIGNED));
+    }
+
+    @Test
+    public void sortIsDeterministicForAnyInputOrder() {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tickets.add(ticket("T" + (char) ('a' + i), i % 3 == 0 ? "High" : "Low", (i % 4) * 1_000,
+                    Ticket.TicketStatus.PENDING, null));
+        }
+        for (TicketSorter.SortOrder order : TicketSorter.SortOrder.values()) {
+            List<String> first = sortedIds(tickets, order);
+            Collections.reverse(tickets);
+            assertEquals(order.name(), first, sortedIds(tickets, order));
+        }
+    }
+
+    @Test
+    public void setters_keepRankKeysInSync() {
+        Ticket ticket = ticket("T1", "Low", 0, Ticket.TicketStatus.PENDING, null);
+        assertEquals(1, ticket.getSeverityRank());
+        assertEquals(0, ticket.getStatusRank());
+
+        ticket.setSeverity("HIGH");
+        ticket.setStatus(Ticket.TicketStatus.REJECTED);
+        assertEquals(3, ticket.getSeverityRank());
+        assertEquals(3, ticket.getStatusRank());
+
+        ticket.setSeverity(null);
+        assertEquals(0, ticket.getSeverityRank());
+        assertFalse(ticket.isUnassigned());
+    }
+
+    @Test
+    public void parseTimestamp_readsUtcAndIgnoresFraction() {
+        assertEquals(1_735_813_800_000L, TicketRepository.parseTimestamp("2025-01-02T10:30:00.123456+00:00"));
+        assertEquals(1_735_813_800_000L, TicketRepository.parseTimestamp("2025-01-02T10:30:00"));
+    }
+
+    @Test
+    public void parseTimestamp_returnsZeroForMissingOrBadValues() {
+        assertEquals(0L, TicketRepository.parseTimestamp(null));
+        assertEquals(0L, TicketRepository.parseTimestamp(""));
+        assertEquals(0L, TicketRepository.parseTimestamp("2025-01-02"));
+        assertEquals(0L, TicketRepository.parseTimestamp("not a timestamp at all"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.infrastructureproject.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Hedging, the deadline and the fallback of the model call policy, with calls
+ * that sleep to stand in for a slow model.
+ */
+public class AiRequestPolicyTest {
+    // Generous margin for thread scheduling on a busy build machine
+    private static final long SLACK_MS = 500;
+
+    private static String sleepThen(long ms, String value) throws InterruptedException {
+        Thread.sleep(ms);
+        return value;
+    }
+
+    @Test
+    public void fastAnswer_comesFromModelWithoutHedge() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.fast", 2_000, 1_000, true);
+        AtomicInteger calls = new AtomicInteger();
+
+        AiRequestPolicy.Result<String> result = policy.execute(() -> {
+            calls.incrementAndGet();
+            return "answer";
+        }, () -> "fallback");
+
+        assertEquals("answer", result.value);
+        assertEquals(AiRequestPolicy.Source.MODEL, result.source);
+        assertFalse(result.isFallback());
+        assertEquals(1, calls.get());
+        assertEquals(0, AppMetrics.get("ai.test.fast.hedged"));
+    }
+
+    @Test
+    public void slowPrimary_isHedgedAndHedgeWins() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.hedge", 3_000, 100, true);
+        AtomicInteger calls = new AtomicInteger();
+
+        AiRequestPolicy.Result<String> result = policy.execute(
+                () -> calls.incrementAndGet() == 1 ? sleepThen(2_500, "primary") : "hedge",
+                () -> "fallback");
+
+        assertEquals("hedge", result.value);
+        assertEquals(AiRequestPolicy.Source.HEDGE, result.source);
+        assertEquals(2, calls.get());
+        assertTrue(result.latencyMs >= 100);
+        assertTrue(result.latencyMs < 100 + SLACK_MS);
+        assertEquals(1, AppMetrics.get("ai.test.hedge.hedge_won"));
+    }
+
+    @Test
+    public void primaryStillWins_whenItAnswersBeforeTheHedge() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.primary", 3_000, 100, true);
+        AtomicInteger calls = new AtomicInteger();
+
+        AiRequestPolicy.Result<String> result = policy.execute(
+                () -> calls.incrementAndGet() == 1 ? sleepThen(300, "primary") : sleepThen(2_500, "hedge"),
+                () -> "fallback");
+
+        assertEquals("primary", result.value);
+        assertEquals(AiRequestPolicy.Source.MODEL, result.source);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void missedDeadline_returnsFallbackOnTime() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.deadline", 300, 100, true);
+
+        AiRequestPolicy.Result<String> result = policy.execute(() -> sleepThen(5_000, "late"), () -> "fallback");
+
+        assertEquals("fallback", result.value);
+        assertTrue(result.isFallback());
+        assertTrue(result.latencyMs >= 300);
+        assertTrue(result.latencyMs < 300 + SLACK_MS);
+        assertEquals(1, AppMetrics.get("ai.test.deadline.timeout"));
+    }
+
+    @Test
+    public void hedgeDisabled_sendsOneRequest() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.nohedge", 300, 0, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        AiRequestPolicy.Result<String> result = policy.execute(() -> {
+            calls.incrementAndGet();
+            return sleepThen(5_000, "late");
+        }, () -> "fallback");
+
+        assertTrue(result.isFallback());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void failure_returnsFallbackWithoutWaitingForDeadline() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.error", 5_000, 4_000, true);
+
+        AiRequestPolicy.Result<String> result = policy.execute(() -> {
+            throw new Exception("HTTP 500: boom");
+        }, () -> null);
+
+        assertNull(result.value);
+        assertTrue(result.isFallback());
+        assertTrue(result.latencyMs < SLACK_MS);
+        assertEquals(1, AppMetrics.get("ai.test.error.error"));
+        assertEquals(0, AppMetrics.get("ai.test.error.timeout"));
+    }
+
+    @Test
+    public void hedgeDelay_isDefaultUntilEnoughSamplesThenP90() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.p90", 10_000, 777, true);
+        for (int i = 1; i <= 9; i++) {
+            policy.recordLatency(i * 100);
+        }
+        assertEquals(777, policy.hedgeDelayMs());
+
+        for (int i = 10; i <= 20; i++) {
+            policy.recordLatency(i * 100);
+        }
+        // 20 samples of 100..2000ms, the 18th smallest is the p90
+        assertEquals(1800, policy.hedgeDelayMs());
+    }
+
+    @Test
+    public void hedgeDelay_followsRecentLatenciesOnly() {
+        AiRequestPolicy policy = new AiRequestPolicy("test.recent", 10_000, 777, true);
+        for (int i = 0; i < 50; i++) {
+            policy.recordLatency(5_000);
+        }
+        for (int i = 0; i < 50; i++) {
+            policy.recordLatency(200);
+        }
+        assertEquals(200, policy.hedgeDelayMs());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.infrastructureproject.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * LRU order, eviction and the JSON file behind the classification cache.
+ */
+public class ClassificationCacheTest {
+    private static final String V1 = "gemini-v1";
+    private static final String V2 = "gemini-v2";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File cacheFile() {
+        return new File(folder.getRoot(), "classification_cache.json");
+    }
+
+    @Test
+    public void getReturnsStoredResultAndNullOnMiss() {
+        ClassificationCache cache = new ClassificationCache(cacheFile());
+        cache.put(ClassificationCache.key("aaa", V1), "{\"issue_type\":\"Pothole\"}");
+
+        assertEquals("{\"issue_type\":\"Pothole\"}", cache.get(ClassificationCache.key("aaa", V1)));
+        assertNull(cache.get(ClassificationCache.key("aaa", V2)));
+        assertNull(cache.get(ClassificationCache.key("bbb", V1)));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondLimit() {
+        ClassificationCache cache = new ClassificationCache(cacheFile());
+        for (int i = 0; i < ClassificationCache.MAX_ENTRIES; i++) {
+            cache.put(ClassificationCache.key("img" + i, V1), "r" + i);
+        }
+        // Reading img0 makes img1 the least recently used
+        assertNotNull(cache.get(ClassificationCache.key("img0", V1)));
+        cache.put(ClassificationCache.key("new", V1), "new");
+
+        assertNotNull(cache.get(ClassificationCache.key("img0", V1)));
+        assertNull(cache.get(ClassificationCache.key("img1", V1)));
+        assertNotNull(cache.get(ClassificationCache.key("img2", V1)));
+        assertEquals("new", cache.get(ClassificationCache.key("new", V1)));
+    }
+
+    @Test
+    public void findByImage_prefersMostRecentlyUsedVersion() {
+        ClassificationCache cache = new ClassificationCache(cacheFile());
+        cache.put(ClassificationCache.key("aaa", V1), "old");
+        cache.put(ClassificationCache.key("aaa", V2), "new");
+        cache.put(ClassificationCache.key("aaab", V1), "other image");
+        assertEquals("new", cache.findByImage("aaa"));
+
+        cache.get(ClassificationCache.key("aaa", V1));
+        assertEquals("old", cache.findByImage("aaa"));
+        assertNull(cache.findByImage("ccc"));
+    }
+
+    @Test
+    public void reloadKeepsEntriesAndRecency() throws Exception {
+        ClassificationCache cache = new ClassificationCache(cacheFile());
+        for (int i = 0; i < ClassificationCache.MAX_ENTRIES; i++) {
+            cache.put(ClassificationCache.key("img" + i, V1), "r" + i);
+        }
+        cache.get(ClassificationCache.key("img0", V1));
+        cache.flush();
+
+        ClassificationCache reloaded = new ClassificationCache(cacheFile());
+        assertEquals("r5", reloaded.get(ClassificationCache.key("img5", V1)));
+        // Recency survived the restart: img1 is still the first to go
+        reloaded.put(ClassificationCache.key("new", V1), "new");
+        assertNull(reloaded.get(ClassificationCache.key("img1", V1)));
+        assertEquals("r0", reloaded.get(ClassificationCache.key("img0", V1)));
+    }
+
+    @Test
+    public void unreadableFileStartsEmptyAndIsReplaced() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(cacheFile())) {
+            out.write("[{\"key\":".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ClassificationCache cache = new ClassificationCache(cacheFile());
+        assertNull(cache.findByImage("aaa"));
+
+        cache.put(ClassificationCache.key("aaa", V1), "fresh");
+        cache.flush();
+        assertEquals("fresh", new ClassificationCache(cacheFile()).get(ClassificationCache.key("aaa", V1)));
+        assertFalse(new File(cacheFile().getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void missingFileStartsEmpty() throws IOException {
+        ClassificationCache cache = new ClassificationCache(new File(folder.newFolder(), "absent.json"));
+        assertNull(cache.findByImage("aaa"));
+    }
+}
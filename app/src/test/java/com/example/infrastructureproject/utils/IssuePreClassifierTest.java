@@ -0,0 +1,221 @@
+package com.example.infrastructureproject.utils;
+
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Regression checks for the pre-classifier heuristic on the labelled photos in
+ * res/drawable and variants of them (mirrored, cropped, darker and brighter):
+ * {@link IssuePreClassifier#PREFILL_CONFIDENCE} never pre-fills a wrong type.
+ * These are the photos the thresholds were tuned on, so passing says nothing
+ * about accuracy on new photos. Photos are scaled to the same 64 px sample the
+ * app decodes.
+ */
+public class IssuePreClassifierTest {
+    private static final int SAMPLE_EDGE = 64;
+
+    // Photo and the issue type a person would file it under
+    private static final Map<String, String> LABELS = new LinkedHashMap<>();
+    static {
+        LABELS.put("roadhole.jpg", "Pothole");
+        LABELS.put("crisafulli_burst_pipe.jpg", "Damaged Pipe");
+        // Grey ground full of dark shapes, the classic false pothole
+        LABELS.put("nocarpark.jpg", "Other");
+        LABELS.put("tree_falldown.jpg", "Other");
+        LABELS.put("unrelated_cosmetics.jpg", "Other");
+    }
+
+    private static class Sample {
+        final String name;
+        final String label;
+        final int[] pixels;
+        final int width;
+        final int height;
+
+        Sample(String name, String label, BufferedImage image) {
+            BufferedImage scaled = scale(image);
+            this.name = name;
+            this.label = label;
+            this.width = scaled.getWidth();
+            this.height = scaled.getHeight();
+            this.pixels = scaled.getRGB(0, 0, width, height, null, 0, width);
+        }
+
+        IssuePreClassifier.Prediction score() {
+            return IssuePreClassifier.score(pixels, width, height);
+        }
+    }
+
+    // Unit tests run in the module directory under Gradle, the project root in some IDEs
+    private static File drawableDir() {
+        File dir = new File("src/main/res/drawable");
+        return dir.isDirectory() ? dir : new File("app/src/main/res/drawable");
+    }
+
+    private static BufferedImage load(String fileName) throws IOException {
+        BufferedImage image = ImageIO.read(new File(drawableDir(), fileName));
+        assertNotNull("Cannot read " + fileName, image);
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source) {
+        float factor = (float) SAMPLE_EDGE / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, Math.round(source.getWidth() * factor));
+        int height = Math.max(1, Math.round(source.getHeight() * factor));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.drawImage(source.getScaledInstance(width, height, Image.SCALE_AREA_AVERAGING), 0, 0, null);
+        g.dispose();
+        return scaled;
+    }
+
+    // Fractions of the width and height
+    private static BufferedImage crop(BufferedImage image, double left, double top, double right, double bottom) {
+        int x = (int) (left * image.getWidth());
+        int y = (int) (top * image.getHeight());
+        return image.getSubimage(x, y, (int) (right * image.getWidth()) - x, (int) (bottom * image.getHeight()) - y);
+    }
+
+    private static BufferedImage mirror(BufferedImage image) {
+        BufferedImage mirrored = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                mirrored.setRGB(image.getWidth() - 1 - x, y, image.getRGB(x, y));
+            }
+        }
+        return mirrored;
+    }
+
+    private static BufferedImage exposure(BufferedImage image, float factor) {
+        BufferedImage adjusted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                int r = Math.min(255, (int) (((rgb >> 16) & 0xff) * factor));
+                int g = Math.min(255, (int) (((rgb >> 8) & 0xff) * factor));
+                int b = Math.min(255, (int) ((rgb & 0xff) * factor));
+                adjusted.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return adjusted;
+    }
+
+    // How the same scene may come out of another phone or another framing
+    private static List<Sample> variants(String name, String label, BufferedImage image) {
+        List<Sample> samples = new ArrayList<>();
+        samples.add(new Sample(name, label, image));
+        samples.add(new Sample(name + " mirrored", label, mirror(image)));
+        samples.add(new Sample(name + " darker", label, exposure(image, 0.8f)));
+        samples.add(new Sample(name + " brighter", label, exposure(image, 1.2f)));
+        samples.add(new Sample(name + " zoomed", label, crop(image, 0.1, 0.1, 0.9, 0.9)));
+        samples.add(new Sample(name + " no top", label, crop(image, 0, 0.25, 1, 1)));
+        samples.add(new Sample(name + " no right", label, crop(image, 0, 0, 0.8, 1)));
+        samples.add(new Sample(name + " no left", label, crop(image, 0.2, 0, 1, 1)));
+        return samples;
+    }
+
+    private static List<Sample> labelledSamples() throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        for (Map.Entry<String, String> entry : LABELS.entrySet()) {
+            samples.addAll(variants(entry.getKey(), entry.getValue(), load(entry.getKey())));
+        }
+        return samples;
+    }
+
+    @Test
+    public void labelledPhotos_neverPrefillWrongType() throws IOException {
+        List<Sample> samples = labelledSamples();
+        int positives = 0, positivesPrefilled = 0;
+        float worstWrong = 0;
+        List<String> wrongPrefills = new ArrayList<>();
+
+        for (Sample sample : samples) {
+            IssuePreClassifier.Prediction prediction = sample.score();
+            boolean right = prediction.issueType.equals(sample.label);
+            if (!right) worstWrong = Math.max(worstWrong, prediction.confidence);
+            if (prediction.isConfident() && !right) {
+                wrongPrefills.add(sample.name + " as " + prediction.issueType);
+            }
+            if (!sample.label.equals("Other")) {
+                positives++;
+                if (right && prediction.isConfident()) positivesPrefilled++;
+            }
+        }
+        assertTrue("Wrong pre-fills: " + wrongPrefills, wrongPrefills.isEmpty());
+        // The threshold keeps a margin above every wrong guess
+        assertTrue(worstWrong + 0.1f <= IssuePreClassifier.PREFILL_CONFIDENCE);
+        // And still pre-fills most real issues
+        assertTrue(positivesPrefilled >= positives * 3 / 4);
+    }
+
+    @Test
+    public void labelledPhotos_originalsArePrefilledWhenTheyShowAnIssue() throws IOException {
+        for (Map.Entry<String, String> entry : LABELS.entrySet()) {
+            IssuePreClassifier.Prediction prediction = new Sample(entry.getKey(), entry.getValue(),
+                    load(entry.getKey())).score();
+            assertEquals(entry.getKey(), entry.getValue(), prediction.issueType);
+            assertEquals(entry.getKey(), !entry.getValue().equals("Other"), prediction.isConfident());
+        }
+    }
+
+    @Test
+    public void roadWithoutHole_isNotAPothole() throws IOException {
+        BufferedImage road = load("roadhole.jpg");
+        // Cracked asphalt left of the holes, and the far lane on the right
+        List<BufferedImage> plainRoads = new ArrayList<>(Arrays.asList(
+                crop(road, 0, 0.45, 0.35, 1), crop(road, 0.75, 0.3, 1, 0.9)));
+        // Even grey surface with fine texture
+        Random random = new Random(1);
+        BufferedImage tarmac = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < tarmac.getHeight(); y++) {
+            for (int x = 0; x < tarmac.getWidth(); x++) {
+                int grey = 95 + random.nextInt(30);
+                tarmac.setRGB(x, y, (grey << 16) | (grey << 8) | (grey + 4));
+            }
+        }
+        plainRoads.add(tarmac);
+
+        for (BufferedImage plain : plainRoads) {
+            for (Sample sample : variants("plain road", "Other", plain)) {
+                IssuePreClassifier.Prediction prediction = sample.score();
+                assertFalse(sample.name + " scored " + prediction.confidence, prediction.isConfident());
+            }
+        }
+    }
+
+    @Test
+    public void toHsv_matchesAndroidColor() {
+        float[] hsv = new float[3];
+
+        IssuePreClassifier.toHsv(0xffff0000, hsv);
+        assertArrayEquals(new float[] {0f, 1f, 1f}, hsv, 1e-4f);
+        IssuePreClassifier.toHsv(0xff00ff00, hsv);
+        assertArrayEquals(new float[] {120f, 1f, 1f}, hsv, 1e-4f);
+        IssuePreClassifier.toHsv(0xff0000ff, hsv);
+        assertArrayEquals(new float[] {240f, 1f, 1f}, hsv, 1e-4f);
+        IssuePreClassifier.toHsv(0xffff00ff, hsv);
+        assertArrayEquals(new float[] {300f, 1f, 1f}, hsv, 1e-4f);
+        IssuePreClassifier.toHsv(0xff808080, hsv);
+        assertArrayEquals(new float[] {0f, 0f, 128 / 255f}, hsv, 1e-4f);
+        IssuePreClassifier.toHsv(0xff000000, hsv);
+        assertArrayEquals(new float[] {0f, 0f, 0f}, hsv, 1e-4f);
+        // Brown rust: hue between red and yellow
+        IssuePreClassifier.toHsv(0xff8b4513, hsv);
+        assertEquals(25f, hsv[0], 0.1f);
+    }
+}
@@ -0,0 +1,13 @@
+-- Image Renditions
+-- Smaller copies of each ticket photo, generated on-device at upload time.
+-- Lists load the thumbnail, detail screens load the medium copy.
+
+ALTER TABLE ticket_images
+ADD COLUMN IF NOT EXISTS thumb_path TEXT,   -- ~240px long edge
+ADD COLUMN IF NOT EXISTS medium_path TEXT;  -- ~800px long edge
+
+-- Rows uploaded before this migration have no renditions; the app falls back
+-- to the original path when these are NULL.
+
+-- Lookups are always by ticket
+CREATE INDEX IF NOT EXISTS idx_ticket_images_ticket_id ON ticket_images(ticket_id);
@@ -0,0 +1,88 @@
+-- Duplicate Photo Detection
+-- Each ticket image gets a 64-bit difference hash (dHash) computed on-device.
+-- Near-identical photos differ in only a few bits, so "likely duplicates" are
+-- open tickets nearby whose image hash is within a small Hamming distance.
+
+ALTER TABLE ticket_images
+ADD COLUMN IF NOT EXISTS phash BIGINT;
+
+-- Where the issue is, from the photo's GPS or the device when reporting.
+-- NULL for tickets filed before this column or with a typed-in location.
+ALTER TABLE tickets
+ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION,
+ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+-- Hamming distance can't use a B-tree on phash; the lookup narrows by this
+-- bounding-box index instead and compares hashes only for nearby tickets
+DROP INDEX IF EXISTS idx_ticket_images_phash;
+CREATE INDEX IF NOT EXISTS idx_tickets_lat_lng ON tickets(latitude, longitude)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
+
+-- Earlier version matched on the location text
+DROP FUNCTION IF EXISTS find_similar_tickets(BIGINT, INT, TEXT, DOUBLE PRECISION, UUID, INT);
+DROP FUNCTION IF EXISTS parse_lat_lng(TEXT);
+
+-- Open tickets within radius_m_param of (lat, lng) whose photo is within
+-- max_distance_param bits of hash_param, closest first.
+-- Runs as definer so citizens are warned about other people's reports, which
+-- RLS hides from them; the inputs are clamped so it can't be used to list
+-- tickets, and only what the duplicate warning shows is returned.
+CREATE OR REPLACE FUNCTION find_similar_tickets(
+  hash_param BIGINT,
+  lat_param DOUBLE PRECISION,
+  lng_param DOUBLE PRECISION,
+  max_distance_param INT DEFAULT 10,
+  radius_m_param DOUBLE PRECISION DEFAULT 300,
+  exclude_ticket_param UUID DEFAULT NULL,
+  limit_param INT DEFAULT 5
+)
+RETURNS TABLE (
+  ticket_id TEXT,
+  issue_type TEXT,
+  location TEXT,
+  status TEXT,
+  distance INT
+)
+LANGUAGE sql
+STABLE
+SECURITY DEFINER
+SET search_path = public
+AS $$
+  WITH params AS (
+    SELECT
+      LEAST(GREATEST(max_distance_param, 0), 10) AS max_distance,
+      LEAST(GREATEST(radius_m_param, 0), 500) AS radius_m,
+      LEAST(GREATEST(limit_param, 0), 5) AS max_rows
+  ),
+  nearby AS (
+    SELECT t.id, t.ticket_id, t.issue_type, t.location, t.status
+    FROM tickets t, params p
+    WHERE lat_param IS NOT NULL AND lng_param IS NOT NULL
+      -- Bounding box first so idx_tickets_lat_lng does the narrowing
+      AND t.latitude BETWEEN lat_param - degrees(p.radius_m / 6371000)
+                         AND lat_param + degrees(p.radius_m / 6371000)
+      AND t.longitude BETWEEN lng_param - degrees(p.radius_m / (6371000 * cos(radians(lat_param))))
+                          AND lng_param + degrees(p.radius_m / (6371000 * cos(radians(lat_param))))
+      -- Equirectangular approximation, accurate enough at a few hundred metres
+      AND 6371000 * sqrt(
+            power(radians(t.latitude - lat_param), 2)
+            + power(radians(t.longitude - lng_param) * cos(radians((t.latitude + lat_param) / 2)), 2)
+          ) <= p.radius_m
+      AND t.status IN ('Pending', 'UNDER_REVIEW', 'Accepted')
+      AND COALESCE(t.is_spam, FALSE) = FALSE
+      AND (exclude_ticket_param IS NULL OR t.id <> exclude_ticket_param)
+  )
+  -- A ticket with several photos is listed once, at its closest distance
+  SELECT n.ticket_id, n.issue_type, n.location, n.status,
+         MIN(bit_count((ti.phash # hash_param)::BIT(64)))::INT AS distance
+  FROM nearby n
+  JOIN ticket_images ti ON ti.ticket_id = n.id
+  CROSS JOIN params p
+  WHERE ti.phash IS NOT NULL
+    AND bit_count((ti.phash # hash_param)::BIT(64)) <= p.max_distance
+  GROUP BY n.id, n.ticket_id, n.issue_type, n.location, n.status
+  ORDER BY 5, 1
+  LIMIT (SELECT max_rows FROM params);
+$$;
+
+GRANT EXECUTE ON FUNCTION find_similar_tickets(BIGINT, DOUBLE PRECISION, DOUBLE PRECISION, INT, DOUBLE PRECISION, UUID, INT) TO authenticated;
@@ -0,0 +1,19 @@
+-- Content-Addressed Images
+-- New uploads are stored under the SHA-256 of their bytes
+-- (ticket-images/sha256/ab/abcdef...jpg) instead of <ticket uuid>/<file name>.
+-- Identical photos, including retried and resubmitted reports, share one
+-- storage object; each ticket still gets its own ticket_images row.
+-- Older rows keep their per-ticket paths and work unchanged.
+
+-- One row per photo per ticket, so a retried submission can't add a duplicate
+CREATE UNIQUE INDEX IF NOT EXISTS idx_ticket_images_ticket_path
+    ON ticket_images(ticket_id, path);
+
+-- Rows are listed in upload order by file name (image_<time>_<index>.jpg)
+CREATE INDEX IF NOT EXISTS idx_ticket_images_ticket_filename
+    ON ticket_images(ticket_id, filename);
+
+-- Shared objects may back several tickets. Before deleting a storage object,
+-- make sure no ticket_images row still points at it:
+--   SELECT COUNT(*) FROM ticket_images
+--   WHERE path = '<path>' OR thumb_path = '<path>' OR medium_path = '<path>';